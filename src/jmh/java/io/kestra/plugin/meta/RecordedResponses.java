@@ -0,0 +1,39 @@
+package io.kestra.plugin.meta;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.kestra.core.serializers.JacksonMapper;
+
+/**
+ * Builds Graph API responses of a given size by repeating the {@code data} rows of a recorded response.
+ */
+public final class RecordedResponses {
+    private RecordedResponses() {
+    }
+
+    /**
+     * @param resource a recorded response under {@code src/test/resources/responses}, for example {@code facebook/post-insights.json}
+     * @return the serialized response with exactly {@code rows} data rows
+     */
+    public static byte[] scaled(String resource, int rows) throws IOException {
+        JsonNode recorded;
+        try (InputStream inputStream = RecordedResponses.class.getClassLoader().getResourceAsStream(resource)) {
+            recorded = JacksonMapper.ofJson().readTree(Objects.requireNonNull(inputStream, resource));
+        }
+
+        ArrayNode source = (ArrayNode) recorded.get("data");
+        ObjectNode response = JacksonMapper.ofJson().createObjectNode();
+        ArrayNode data = response.putArray("data");
+        for (int i = 0; i < rows; i++) {
+            data.add(source.get(i % source.size()).deepCopy());
+        }
+
+        return JacksonMapper.ofJson().writeValueAsBytes(response);
+    }
+}
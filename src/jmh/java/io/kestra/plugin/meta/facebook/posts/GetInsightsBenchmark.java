@@ -0,0 +1,32 @@
+package io.kestra.plugin.meta.facebook.posts;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.kestra.core.serializers.JacksonMapper;
+import io.kestra.plugin.meta.RecordedResponses;
+
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class GetInsightsBenchmark {
+    @Param({ "1", "100", "10000" })
+    private int rows;
+
+    private byte[] response;
+
+    @Setup
+    public void setup() throws Exception {
+        response = RecordedResponses.scaled("facebook/post-insights.json", rows);
+    }
+
+    @Benchmark
+    public GetInsights.PostInsightsData parsePostInsights() throws Exception {
+        return GetInsights.parsePostInsights("123456789_987654321", JacksonMapper.ofJson().readTree(response), "lifetime");
+    }
+}
@@ -0,0 +1,58 @@
+package io.kestra.plugin.meta.instagram.media;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.kestra.core.serializers.JacksonMapper;
+import io.kestra.plugin.meta.RecordedResponses;
+import io.kestra.plugin.meta.instagram.enums.MediaField;
+
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ListBenchmark {
+    @Param({ "1", "100", "10000" })
+    private int rows;
+
+    private byte[] response;
+    private MediaProjection projection;
+
+    @Setup
+    public void setup() throws Exception {
+        response = RecordedResponses.scaled("instagram/instagram-list-media.json", rows);
+        projection = new MediaProjection(
+            java.util.List.of(
+                MediaField.ID,
+                MediaField.MEDIA_TYPE,
+                MediaField.MEDIA_URL,
+                MediaField.PERMALINK,
+                MediaField.THUMBNAIL_URL,
+                MediaField.TIMESTAMP,
+                MediaField.CAPTION,
+                MediaField.LIKE_COUNT,
+                MediaField.CHILDREN
+            ),
+            java.util.List.of(MediaField.ID, MediaField.MEDIA_URL)
+        );
+    }
+
+    @Benchmark
+    public java.util.List<Map<String, Object>> project() throws Exception {
+        JsonNode dataNode = JacksonMapper.ofJson().readTree(response).get("data");
+
+        java.util.List<Map<String, Object>> maps = new ArrayList<>(dataNode.size());
+        for (JsonNode mediaNode : dataNode) {
+            maps.add(projection.project(mediaNode));
+        }
+        return maps;
+    }
+}
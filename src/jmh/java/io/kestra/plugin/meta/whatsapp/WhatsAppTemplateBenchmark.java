@@ -0,0 +1,51 @@
+package io.kestra.plugin.meta.whatsapp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.kestra.core.serializers.JacksonMapper;
+
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class WhatsAppTemplateBenchmark {
+    @Param({ "1", "100", "10000" })
+    private int rows;
+
+    private String renderedTemplate;
+    private List<String> whatsAppIds;
+
+    @Setup
+    public void setup() throws Exception {
+        whatsAppIds = new ArrayList<>(rows);
+        List<Map<String, Object>> contacts = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            String waId = String.valueOf(380_000_000_000L + i);
+            whatsAppIds.add(waId);
+            contacts.add(Map.of("profile", Map.of("name", "Kestra"), "wa_id", waId));
+        }
+
+        // same shape as whatsapp-template.peb once rendered
+        renderedTemplate = JacksonMapper.ofJson().writeValueAsString(Map.of(
+            "contacts", contacts,
+            "messages", List.of(Map.of(
+                "from", "380999999999",
+                "text", Map.of("body", List.of("Namespace company.team", "Flow ID daily", "Execution ID 4Sd8mFfWbFJwPrX6CH7Ujd", "Execution Status FAILED")),
+                "type", "text"
+            ))
+        ));
+    }
+
+    @Benchmark
+    public String payloadRoundTrip() throws Exception {
+        return WhatsAppTemplate.payload(renderedTemplate, "Kestra", whatsAppIds, "380999999999", null, null, null);
+    }
+}
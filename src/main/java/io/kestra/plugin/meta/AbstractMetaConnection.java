@@ -5,11 +5,11 @@ import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
 import java.util.Map;
+import java.util.Optional;
 
 import io.kestra.core.exceptions.IllegalVariableEvaluationException;
 import io.kestra.core.http.HttpRequest;
 import io.kestra.core.http.client.configurations.HttpConfiguration;
-import io.kestra.core.http.client.configurations.TimeoutConfiguration;
 import io.kestra.core.models.annotations.PluginProperty;
 import io.kestra.core.models.property.Property;
 import io.kestra.core.models.tasks.RunnableTask;
@@ -34,22 +34,23 @@ public abstract class AbstractMetaConnection extends Task implements RunnableTas
     @PluginProperty(dynamic = true, group = "advanced")
     protected RequestOptions options;
 
+    @Schema(
+        title = "Outbox queue",
+        description = "When set, the rendered request is not sent: it is appended to this queue in the namespace KV store and the task returns immediately. " +
+            "Deliver queued notifications with the `io.kestra.plugin.meta.outbox.Drain` task."
+    )
+    @PluginProperty(group = "advanced")
+    protected Property<String> outbox;
+
     protected HttpConfiguration httpClientConfigurationWithOptions() throws IllegalVariableEvaluationException {
-        HttpConfiguration.HttpConfigurationBuilder configuration = HttpConfiguration.builder();
-
-        if (this.options != null) {
-
-            configuration
-                .timeout(
-                    TimeoutConfiguration.builder()
-                        .connectTimeout(this.options.getConnectTimeout())
-                        .readIdleTimeout(this.options.getReadIdleTimeout())
-                        .build()
-                )
-                .defaultCharset(this.options.getDefaultCharset());
-        }
+        return MetaHttpClient.configuration(this.options);
+    }
 
-        return configuration.build();
+    protected MetaHttpClient createHttpClient(RunContext runContext) throws Exception {
+        return MetaHttpClient.builder()
+            .runContext(runContext)
+            .options(this.options)
+            .build();
     }
 
     protected HttpRequest.HttpRequestBuilder createRequestBuilder(
@@ -68,6 +69,32 @@ public abstract class AbstractMetaConnection extends Task implements RunnableTas
         return builder;
     }
 
+    protected Optional<String> outboxQueue(RunContext runContext) throws IllegalVariableEvaluationException {
+        return runContext.render(this.outbox).as(String.class);
+    }
+
+    /**
+     * Appends a JSON request to the outbox queue instead of sending it.
+     */
+    protected void enqueue(RunContext runContext, String queue, String uri, String payload, boolean bearer) throws Exception {
+        enqueue(runContext, queue, uri, null, payload, bearer);
+    }
+
+    /**
+     * Appends a JSON request to the outbox queue instead of sending it. HTTP headers of {@code options} are not queued,
+     * as they often carry credentials: the Drain task adds its own.
+     *
+     * @param uriTemplate the unrendered URI, queued instead of the rendered one when it reads a secret
+     */
+    protected void enqueue(RunContext runContext, String queue, String uri, String uriTemplate, String payload, boolean bearer) throws Exception {
+        if (this.options != null && this.options.getHeaders() != null) {
+            runContext.logger().warn("HTTP headers are not queued in outbox '{}', set them on the Drain task", queue);
+        }
+
+        String key = NotificationOutbox.enqueue(runContext, queue, uri, uriTemplate, payload, Map.of("Content-Type", "application/json"), bearer);
+        runContext.logger().info("Request queued in outbox '{}' as {}", queue, key);
+    }
+
     @Getter
     @Builder
     public static class RequestOptions {
@@ -75,17 +102,29 @@ public abstract class AbstractMetaConnection extends Task implements RunnableTas
         @PluginProperty(group = "execution")
         private final Property<Duration> connectTimeout;
 
-        @Schema(title = "The maximum time allowed for reading data from the server before failing.")
-        @Builder.Default
+        @Schema(
+            title = "The maximum time to wait for data on an open connection before failing.",
+            description = "Applies to every request, uploads and downloads included, and replaces `readIdleTimeout` when set."
+        )
+        @PluginProperty(group = "execution")
+        private final Property<Duration> readTimeout;
+
+        @Schema(
+            title = "The maximum time allowed for each attempt of an API read, from sending it to reading the whole response, before failing.",
+            description = "Not set by default. Only bounds buffered API reads: uploads, message sends and downloads are never cut by it."
+        )
         @PluginProperty(group = "execution")
-        private final Property<Duration> readTimeout = Property.ofValue(Duration.ofSeconds(10));
+        private final Property<Duration> requestTimeout;
 
         @Schema(title = "The time allowed for a read connection to remain idle before closing it.")
         @Builder.Default
         @PluginProperty(group = "execution")
         private final Property<Duration> readIdleTimeout = Property.ofValue(Duration.of(5, ChronoUnit.MINUTES));
 
-        @Schema(title = "The time an idle connection can remain in the client's connection pool before being closed.")
+        @Schema(
+            title = "The time an idle connection can remain in the client's connection pool before being closed.",
+            description = "When the client has been idle for longer, its pool is closed and new connections are opened for the next request. 0 keeps connections for the whole task."
+        )
         @Builder.Default
         @PluginProperty(group = "execution")
         private final Property<Duration> connectionPoolIdleTimeout = Property.ofValue(Duration.ofSeconds(0));
@@ -95,6 +134,21 @@ public abstract class AbstractMetaConnection extends Task implements RunnableTas
         @PluginProperty(group = "execution")
         private final Property<Integer> maxContentLength = Property.ofValue(1024 * 1024 * 10);
 
+        @Schema(
+            title = "The maximum number of concurrent connections.",
+            description = "Caps the requests a task has in flight at once, for tasks that send requests concurrently. Unbounded when not set."
+        )
+        @PluginProperty(group = "execution")
+        private final Property<Integer> maxConnections;
+
+        @Schema(
+            title = "Whether to keep connections open between requests.",
+            description = "When false, every request asks the server to close its connection once answered."
+        )
+        @Builder.Default
+        @PluginProperty(group = "execution")
+        private final Property<Boolean> keepAlive = Property.ofValue(true);
+
         @Schema(title = "The default charset for the request.")
         @Builder.Default
         @PluginProperty(group = "advanced")
@@ -0,0 +1,95 @@
+package io.kestra.plugin.meta;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Worker-wide circuit breaker of an endpoint family on an API host.
+ * <p>
+ * After {@link #FAILURE_THRESHOLD} consecutive failed requests (server errors, timeouts, connection failures), the
+ * circuit opens and requests fail fast for {@link #OPEN_DURATION}. It then lets a single probe request through: its
+ * success closes the circuit, its failure opens it again.
+ */
+final class CircuitBreaker {
+    static final int FAILURE_THRESHOLD = 5;
+    static final Duration OPEN_DURATION = Duration.ofSeconds(30);
+
+    private static final Map<String, CircuitBreaker> BREAKERS = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final LongSupplier nanoClock;
+
+    private CircuitState state = CircuitState.CLOSED;
+    private int failures;
+    private long openedAt;
+    private boolean probing;
+
+    CircuitBreaker(String name, int failureThreshold, Duration openDuration, LongSupplier nanoClock) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.nanoClock = nanoClock;
+    }
+
+    static CircuitBreaker of(String name) {
+        return BREAKERS.computeIfAbsent(name, key -> new CircuitBreaker(key, FAILURE_THRESHOLD, OPEN_DURATION, System::nanoTime));
+    }
+
+    /**
+     * Lets a request through, or fails fast.
+     *
+     * @throws IllegalStateException when the circuit is open, or half-open with its probe request still in flight
+     */
+    synchronized void acquire() {
+        if (state == CircuitState.OPEN) {
+            long remaining = openDuration.toNanos() - (nanoClock.getAsLong() - openedAt);
+            if (remaining > 0) {
+                throw new IllegalStateException(
+                    "Circuit of " + name + " is open after " + failureThreshold + " consecutive failures, failing fast for another " +
+                        Duration.ofNanos(remaining).toSeconds() + "s"
+                );
+            }
+            state = CircuitState.HALF_OPEN;
+            probing = false;
+        }
+
+        if (state == CircuitState.HALF_OPEN) {
+            if (probing) {
+                throw new IllegalStateException("Circuit of " + name + " is half-open and waiting for its probe request");
+            }
+            probing = true;
+        }
+    }
+
+    synchronized void success() {
+        state = CircuitState.CLOSED;
+        failures = 0;
+        probing = false;
+    }
+
+    synchronized void failure() {
+        probing = false;
+        failures++;
+
+        if (state == CircuitState.HALF_OPEN || failures >= failureThreshold) {
+            state = CircuitState.OPEN;
+            openedAt = nanoClock.getAsLong();
+            failures = 0;
+        }
+    }
+
+    /**
+     * Ends a request that says nothing about the health of the endpoint, such as a rejected payload.
+     */
+    synchronized void release() {
+        probing = false;
+    }
+
+    synchronized CircuitState state() {
+        return state;
+    }
+}
@@ -0,0 +1,7 @@
+package io.kestra.plugin.meta;
+
+public enum CircuitState {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+}
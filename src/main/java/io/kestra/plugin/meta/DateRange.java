@@ -0,0 +1,32 @@
+package io.kestra.plugin.meta;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A range of days, both ends included, used to split long reporting periods into the windows the Graph API accepts.
+ */
+public record DateRange(LocalDate since, LocalDate until) {
+    public DateRange {
+        if (until.isBefore(since)) {
+            throw new IllegalArgumentException("until (" + until + ") must not be before since (" + since + ")");
+        }
+    }
+
+    /**
+     * @return consecutive ranges of at most {@code days} days covering this range, in order
+     */
+    public List<DateRange> split(int days) {
+        if (days < 1) {
+            throw new IllegalArgumentException("A date window must be at least one day long, got " + days);
+        }
+
+        List<DateRange> ranges = new ArrayList<>();
+        for (LocalDate from = since; !from.isAfter(until); from = from.plusDays(days)) {
+            LocalDate to = from.plusDays(days - 1L);
+            ranges.add(new DateRange(from, to.isAfter(until) ? until : to));
+        }
+        return ranges;
+    }
+}
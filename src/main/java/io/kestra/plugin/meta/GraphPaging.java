@@ -0,0 +1,65 @@
+package io.kestra.plugin.meta;
+
+import java.net.URI;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.kestra.core.http.HttpRequest;
+
+/**
+ * Walks the cursor-paginated edges of the Graph API, following {@code paging.next} until the last page.
+ */
+public final class GraphPaging {
+    private GraphPaging() {
+    }
+
+    /**
+     * Reads every page of an edge and hands its {@code data} rows to {@code consumer} one by one, so that only one
+     * page is held in memory at a time.
+     *
+     * @param url the URL of the first page, with its query parameters
+     * @param endpoint the metric id of the endpoint, as {@code family/name}
+     * @param maxRows stop after this many rows, or {@code 0} for no limit
+     * @return the number of rows read
+     */
+    public static long forEachRow(
+        MetaHttpClient httpClient,
+        String url,
+        String accessToken,
+        String endpoint,
+        long maxRows,
+        RowConsumer consumer
+    ) throws Exception {
+        long rows = 0;
+        String next = url;
+
+        while (next != null) {
+            JsonNode page = httpClient.read(
+                HttpRequest.builder()
+                    .uri(URI.create(next))
+                    .method("GET")
+                    .addHeader("Authorization", "Bearer " + accessToken),
+                endpoint
+            );
+
+            for (JsonNode row : page.path("data")) {
+                consumer.accept(row);
+                rows++;
+
+                if (maxRows > 0 && rows >= maxRows) {
+                    return rows;
+                }
+            }
+
+            JsonNode nextNode = page.path("paging").path("next");
+            next = nextNode.isTextual() && !page.path("data").isEmpty() ? nextNode.asText() : null;
+        }
+
+        return rows;
+    }
+
+    @FunctionalInterface
+    public interface RowConsumer {
+        void accept(JsonNode row) throws Exception;
+    }
+}
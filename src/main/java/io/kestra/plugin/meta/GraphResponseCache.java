@@ -0,0 +1,167 @@
+package io.kestra.plugin.meta;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.kestra.core.serializers.JacksonMapper;
+
+/**
+ * Worker-wide cache of Graph API read responses and their {@code ETag}, used to revalidate reads with {@code If-None-Match}.
+ * <p>
+ * Entries are keyed by the normalized request URL and a hash of the access token, so responses are only ever reused
+ * for the same token. Parsed responses are kept in a memory LRU bounded by size; in {@link ResponseCache#DISK} mode,
+ * entries evicted from memory spill to a bounded directory under the system temp directory.
+ */
+final class GraphResponseCache {
+    static final GraphResponseCache INSTANCE = new GraphResponseCache(
+        32L * 1024 * 1024,
+        512L * 1024 * 1024,
+        Path.of(System.getProperty("java.io.tmpdir"), "kestra-meta-response-cache")
+    );
+
+    private final long maxMemoryBytes;
+    private final long maxDiskBytes;
+    private final Path directory;
+
+    private final LinkedHashMap<String, Entry> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Long> disk = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryBytes;
+    private long diskBytes;
+
+    GraphResponseCache(long maxMemoryBytes, long maxDiskBytes, Path directory) {
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.maxDiskBytes = maxDiskBytes;
+        this.directory = directory;
+    }
+
+    synchronized Optional<Entry> get(String key) {
+        Entry entry = memory.get(key);
+        if (entry != null) {
+            return Optional.of(entry);
+        }
+
+        if (disk.containsKey(key)) {
+            try {
+                Entry loaded = read(key);
+                removeFromDisk(key);
+                putInMemory(key, loaded);
+                return Optional.of(loaded);
+            } catch (IOException e) {
+                removeFromDisk(key);
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    synchronized void put(String key, String etag, JsonNode body, long size, boolean spill) {
+        Entry previous = memory.remove(key);
+        if (previous != null) {
+            memoryBytes -= previous.size();
+        }
+        removeFromDisk(key);
+
+        // a response bigger than the whole cache would only evict everything else
+        if (size > maxMemoryBytes) {
+            return;
+        }
+
+        putInMemory(key, new Entry(etag, body, size, spill));
+    }
+
+    /**
+     * @return the key of a request: its URL with sorted query parameters, scoped by a hash of its access token
+     */
+    static String key(URI uri, String authorization) {
+        String query = uri.getRawQuery() == null ? "" : Arrays.stream(uri.getRawQuery().split("&"))
+            .filter(parameter -> !parameter.isEmpty())
+            .sorted()
+            .collect(Collectors.joining("&"));
+
+        String url = uri.getScheme().toLowerCase() + "://" + uri.getRawAuthority().toLowerCase() + uri.getRawPath() + "?" + query;
+        String scope = authorization == null ? "" : MetaKv.sha256(authorization).substring(0, 16);
+
+        return scope + " " + url;
+    }
+
+    private void putInMemory(String key, Entry entry) {
+        memory.put(key, entry);
+        memoryBytes += entry.size();
+
+        var iterator = memory.entrySet().iterator();
+        while (memoryBytes > maxMemoryBytes && iterator.hasNext()) {
+            Map.Entry<String, Entry> eldest = iterator.next();
+            iterator.remove();
+            memoryBytes -= eldest.getValue().size();
+
+            if (eldest.getValue().spill()) {
+                spill(eldest.getKey(), eldest.getValue());
+            }
+        }
+    }
+
+    private void spill(String key, Entry entry) {
+        try {
+            Files.createDirectories(directory);
+            byte[] bytes = JacksonMapper.ofJson().writeValueAsBytes(Map.of("etag", entry.etag(), "body", entry.body()));
+            Files.write(file(key), bytes);
+
+            disk.put(key, (long) bytes.length);
+            diskBytes += bytes.length;
+        } catch (IOException e) {
+            // the cache is an optimization, a failed spill only costs a full download later
+            return;
+        }
+
+        var iterator = disk.entrySet().iterator();
+        while (diskBytes > maxDiskBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            iterator.remove();
+            diskBytes -= eldest.getValue();
+            deleteFile(eldest.getKey());
+        }
+    }
+
+    private Entry read(String key) throws IOException {
+        byte[] bytes = Files.readAllBytes(file(key));
+        JsonNode node = JacksonMapper.ofJson().readTree(bytes);
+
+        return new Entry(node.get("etag").asText(), node.get("body"), bytes.length, true);
+    }
+
+    private void removeFromDisk(String key) {
+        Long size = disk.remove(key);
+        if (size != null) {
+            diskBytes -= size;
+            deleteFile(key);
+        }
+    }
+
+    private void deleteFile(String key) {
+        try {
+            Files.deleteIfExists(file(key));
+        } catch (IOException ignored) {
+            // left for the temp directory cleanup
+        }
+    }
+
+    private Path file(String key) {
+        return directory.resolve(MetaKv.sha256(key) + ".json");
+    }
+
+    /**
+     * @param size the size of the response body in bytes, used to bound the cache
+     * @param spill whether the entry moves to disk instead of being dropped when evicted from memory
+     */
+    record Entry(String etag, JsonNode body, long size, boolean spill) {
+    }
+}
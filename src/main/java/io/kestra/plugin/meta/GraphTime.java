@@ -0,0 +1,45 @@
+package io.kestra.plugin.meta;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Parses the timestamps of the Graph API and the instants given to tasks for incremental reads.
+ */
+public final class GraphTime {
+    // created_time and timestamp fields, such as 2025-01-31T10:15:00+0000
+    private static final DateTimeFormatter GRAPH_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssZ");
+
+    private GraphTime() {
+    }
+
+    /**
+     * @return the instant of a Graph API timestamp
+     */
+    public static Instant parse(String timestamp) {
+        try {
+            return OffsetDateTime.parse(timestamp, GRAPH_TIMESTAMP).toInstant();
+        } catch (DateTimeParseException e) {
+            return OffsetDateTime.parse(timestamp).toInstant();
+        }
+    }
+
+    /**
+     * @param value Unix seconds, an ISO-8601 date-time with offset, a Graph API timestamp, or a date read as its start in UTC
+     */
+    public static Instant parseInstant(String value) {
+        String trimmed = value.trim();
+
+        if (trimmed.chars().allMatch(Character::isDigit)) {
+            return Instant.ofEpochSecond(Long.parseLong(trimmed));
+        }
+        if (trimmed.length() == 10) {
+            return LocalDate.parse(trimmed).atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+        return parse(trimmed);
+    }
+}
@@ -0,0 +1,206 @@
+package io.kestra.plugin.meta;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.utils.IdUtils;
+
+/**
+ * Queue of entries in the namespace KV store, one key per entry, that can be read without listing the namespace.
+ * <p>
+ * Entries are stored in numbered slots allocated with the create-if-absent write of the KV store, so that concurrent
+ * producers never overwrite each other. A tail key records the next free slot and a head key the oldest live one:
+ * reading the queue only gets the slots in between. Removed entries leave a tombstone that keeps their slot from being
+ * allocated again until the head moved past it; tombstones are deleted by the next read.
+ * <p>
+ * Consumers running concurrently claim an entry with a {@link Lease} before processing it.
+ */
+public final class KvQueue {
+    private static final String HEAD = "_head";
+    private static final String TAIL = "_tail";
+    private static final String LEASE = "_lease";
+
+    private KvQueue() {
+    }
+
+    /**
+     * Appends an entry to the queue.
+     *
+     * @param queue the queue name, a valid KV key such as one built with {@link MetaKv#key(String, String...)}
+     * @return the key of the entry
+     */
+    public static String append(RunContext runContext, String queue, Map<String, Object> value) throws Exception {
+        long seq = Math.max(tail(runContext, queue), head(runContext, queue).head());
+
+        while (true) {
+            String key = slot(queue, seq);
+            String id = IdUtils.create();
+
+            if (!MetaKv.putIfAbsent(runContext, key, Map.of("id", id, "value", value), null) || !id.equals(slotId(runContext, key))) {
+                seq++;
+                continue;
+            }
+
+            // a read that moved the head past a swept slot while it was allocated again would never see it
+            long head = head(runContext, queue).head();
+            if (head > seq) {
+                MetaKv.delete(runContext, key);
+                seq = head;
+                continue;
+            }
+
+            if (tail(runContext, queue) <= seq) {
+                MetaKv.put(runContext, queue + TAIL, seq + 1, null);
+            }
+            return key;
+        }
+    }
+
+    /**
+     * @return the keys of the live entries of the queue, oldest first
+     */
+    public static List<String> keys(RunContext runContext, String queue) throws Exception {
+        Head head = head(runContext, queue);
+        long tail = tail(runContext, queue);
+
+        // tombstones the previous read left behind the head can no longer be allocated again
+        for (long seq = head.swept(); seq < head.head(); seq++) {
+            MetaKv.delete(runContext, slot(queue, seq));
+        }
+
+        List<String> keys = new ArrayList<>();
+        long first = -1;
+        long seq = head.head();
+        for (;; seq++) {
+            Optional<Object> stored = MetaKv.get(runContext, slot(queue, seq));
+            if (stored.isEmpty()) {
+                if (seq >= tail) {
+                    break;
+                }
+                continue;
+            }
+
+            if (value(stored.get()).isPresent()) {
+                keys.add(slot(queue, seq));
+                if (first < 0) {
+                    first = seq;
+                }
+            }
+        }
+
+        long next = first >= 0 ? first : seq;
+        if (next != head.head() || head.swept() != head.head()) {
+            MetaKv.put(runContext, queue + HEAD, Map.of("head", next, "swept", head.head()), null);
+        }
+
+        return keys;
+    }
+
+    /**
+     * @return the value of an entry, empty once removed
+     */
+    public static Optional<Map<String, Object>> get(RunContext runContext, String key) throws Exception {
+        Optional<Object> stored = MetaKv.get(runContext, key);
+        return stored.isPresent() ? value(stored.get()) : Optional.empty();
+    }
+
+    public static void update(RunContext runContext, String key, Map<String, Object> value) throws Exception {
+        MetaKv.put(runContext, key, Map.of("id", IdUtils.create(), "value", value), null);
+    }
+
+    /**
+     * Removes an entry, leaving a tombstone in its slot.
+     */
+    public static void remove(RunContext runContext, String key) throws Exception {
+        MetaKv.put(runContext, key, Map.of("id", IdUtils.create(), "removed", true), null);
+    }
+
+    /**
+     * Claims a key, an entry or a whole queue, for the given duration.
+     *
+     * @return the lease, empty when another holder has a lease that did not expire yet
+     */
+    @SuppressWarnings("unchecked")
+    public static Optional<Lease> claim(RunContext runContext, String key, Duration duration) throws Exception {
+        String leaseKey = key + LEASE;
+        Lease lease = new Lease(key, IdUtils.create());
+        Map<String, Object> value = Map.of("owner", lease.owner(), "until", Instant.now().plus(duration).toString());
+
+        if (!MetaKv.putIfAbsent(runContext, leaseKey, value, null)) {
+            Optional<Object> current = MetaKv.get(runContext, leaseKey);
+            if (current.isPresent() && Instant.parse((String) ((Map<String, Object>) current.get()).get("until")).isAfter(Instant.now())) {
+                return Optional.empty();
+            }
+
+            // the previous holder did not release it in time
+            MetaKv.delete(runContext, leaseKey);
+            if (!MetaKv.putIfAbsent(runContext, leaseKey, value, null)) {
+                return Optional.empty();
+            }
+        }
+
+        return lease.owner().equals(owner(runContext, leaseKey)) ? Optional.of(lease) : Optional.empty();
+    }
+
+    public static void release(RunContext runContext, Lease lease) throws Exception {
+        String leaseKey = lease.key() + LEASE;
+        if (lease.owner().equals(owner(runContext, leaseKey))) {
+            MetaKv.delete(runContext, leaseKey);
+        }
+    }
+
+    private static String slot(String queue, long seq) {
+        return queue + "_" + String.format("%012d", seq);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Optional<Map<String, Object>> value(Object stored) {
+        Map<String, Object> slot = (Map<String, Object>) stored;
+        if (Boolean.TRUE.equals(slot.get("removed"))) {
+            return Optional.empty();
+        }
+        return Optional.of(new HashMap<>((Map<String, Object>) slot.get("value")));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String slotId(RunContext runContext, String key) throws Exception {
+        return MetaKv.get(runContext, key).map(stored -> (String) ((Map<String, Object>) stored).get("id")).orElse(null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String owner(RunContext runContext, String leaseKey) throws Exception {
+        return MetaKv.get(runContext, leaseKey).map(stored -> (String) ((Map<String, Object>) stored).get("owner")).orElse(null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Head head(RunContext runContext, String queue) throws Exception {
+        return MetaKv.get(runContext, queue + HEAD)
+            .map(stored -> (Map<String, Object>) stored)
+            .map(stored -> new Head(((Number) stored.get("head")).longValue(), ((Number) stored.get("swept")).longValue()))
+            .orElse(new Head(0, 0));
+    }
+
+    private static long tail(RunContext runContext, String queue) throws Exception {
+        return MetaKv.get(runContext, queue + TAIL).map(stored -> ((Number) stored).longValue()).orElse(0L);
+    }
+
+    /**
+     * @param head the oldest slot that may hold a live entry
+     * @param swept the slots before it were tombstones that were deleted
+     */
+    private record Head(long head, long swept) {
+    }
+
+    /**
+     * @param key the claimed key
+     * @param owner the unique ID of this claim
+     */
+    public record Lease(String key, String owner) {
+    }
+}
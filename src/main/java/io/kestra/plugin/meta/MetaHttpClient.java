@@ -0,0 +1,709 @@
+package io.kestra.plugin.meta;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.kestra.core.http.HttpRequest;
+import io.kestra.core.http.HttpResponse;
+import io.kestra.core.http.client.HttpClient;
+import io.kestra.core.http.client.HttpClientException;
+import io.kestra.core.http.client.HttpClientResponseException;
+import io.kestra.core.http.client.configurations.HttpConfiguration;
+import io.kestra.core.http.client.configurations.TimeoutConfiguration;
+import io.kestra.core.models.executions.metrics.Counter;
+import io.kestra.core.models.executions.metrics.Timer;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.serializers.JacksonMapper;
+import io.kestra.core.utils.Rethrow;
+
+import lombok.Builder;
+
+import static io.kestra.core.utils.Rethrow.throwConsumer;
+
+/**
+ * Shared request path of the Meta tasks: wraps the Kestra {@link HttpClient} to retry throttled calls and to record,
+ * per endpoint, method and status, the latency, payload sizes, retries and throttle waits as task metrics.
+ * <p>
+ * Endpoints are identified by a stable {@code family/name} id (for example {@code insights/post}) rather than the URL,
+ * so that metrics aggregate across pages, posts and accounts.
+ * <p>
+ * The task {@link AbstractMetaConnection.RequestOptions} the Kestra client has no setting for are applied here: an
+ * opt-in deadline per attempt of buffered API reads, a response size limit, a cap on concurrent requests, keep-alive
+ * and the recycling of idle pools.
+ * <p>
+ * Requests go through a {@link CircuitBreaker} per endpoint family, so that a partial outage of the API fails the
+ * remaining requests fast instead of having each of them wait out its timeout.
+ */
+public class MetaHttpClient implements Closeable {
+    static final int MAX_RETRIES = 3;
+    // longest Retry-After honored: a worker thread is never parked for longer, the call fails instead
+    static final Duration MAX_RETRY_AFTER = Duration.ofSeconds(60);
+
+    // Graph API error codes for app, user and page level rate limiting
+    private static final Set<Integer> THROTTLING_CODES = Set.of(4, 17, 32, 613);
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "DELETE");
+
+    private static final SingleFlight<JsonNode> READS = new SingleFlight<>();
+
+    private final RunContext runContext;
+    private final HttpConfiguration configuration;
+    private final ResponseCache responseCache;
+    private final Duration reuseWindow;
+    private final Duration requestTimeout;
+    private final Duration poolIdleTimeout;
+    private final long maxContentLength;
+    private final Semaphore connections;
+    private final boolean keepAlive;
+
+    private final Map<String, CircuitBreaker> circuits = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile long lastUsed = System.nanoTime();
+    private HttpClient httpClient;
+
+    /**
+     * @param configuration the client configuration, derived from {@code options} when not set
+     * @param options the task request options, also providing the request deadline, the response size limit and the pool settings
+     * @param reuseWindow how long the result of a read is shared with identical reads after it completed
+     */
+    @Builder
+    public MetaHttpClient(
+        RunContext runContext,
+        HttpConfiguration configuration,
+        AbstractMetaConnection.RequestOptions options,
+        ResponseCache responseCache,
+        Duration reuseWindow
+    ) throws Exception {
+        this.runContext = runContext;
+        this.configuration = configuration != null ? configuration : configuration(options);
+        this.responseCache = responseCache != null ? responseCache : ResponseCache.NONE;
+        this.reuseWindow = reuseWindow;
+
+        if (options != null) {
+            this.requestTimeout = runContext.render(options.getRequestTimeout()).as(Duration.class).orElse(null);
+            this.poolIdleTimeout = runContext.render(options.getConnectionPoolIdleTimeout()).as(Duration.class).orElse(Duration.ZERO);
+            this.maxContentLength = runContext.render(options.getMaxContentLength()).as(Integer.class).map(Integer::longValue).orElse(Long.MAX_VALUE);
+            this.connections = runContext.render(options.getMaxConnections()).as(Integer.class).map(max -> new Semaphore(max, true)).orElse(null);
+            this.keepAlive = runContext.render(options.getKeepAlive()).as(Boolean.class).orElse(true);
+        } else {
+            this.requestTimeout = null;
+            this.poolIdleTimeout = Duration.ZERO;
+            this.maxContentLength = Long.MAX_VALUE;
+            this.connections = null;
+            this.keepAlive = true;
+        }
+
+        this.httpClient = newClient();
+    }
+
+    /**
+     * @return the client configuration set by request options: connect and socket read timeouts, and charset
+     */
+    public static HttpConfiguration configuration(AbstractMetaConnection.RequestOptions options) {
+        HttpConfiguration.HttpConfigurationBuilder configuration = HttpConfiguration.builder();
+
+        if (options != null) {
+            configuration
+                .timeout(
+                    TimeoutConfiguration.builder()
+                        .connectTimeout(options.getConnectTimeout())
+                        .readIdleTimeout(options.getReadTimeout() != null ? options.getReadTimeout() : options.getReadIdleTimeout())
+                        .build()
+                )
+                .defaultCharset(options.getDefaultCharset());
+        }
+
+        return configuration.build();
+    }
+
+    /**
+     * Sends a request, retrying it when Meta throttles the call, or on server errors for idempotent methods.
+     *
+     * @param endpoint the metric id of the endpoint, as {@code family/name}
+     * @throws HttpClientResponseException the last error response once retries are exhausted or the error is not retryable
+     */
+    public HttpResponse<String> request(HttpRequest request, String endpoint) throws Exception {
+        // uploads and sends may legitimately take long, only reads are bounded by requestTimeout
+        Duration deadline = "GET".equals(request.getMethod()) ? requestTimeout : null;
+
+        return send(request, endpoint, deadline, (client, prepared) -> {
+            HttpResponse<String> response = client.request(prepared, String.class);
+            long bytes = length(response.getBody());
+            if (bytes > maxContentLength) {
+                throw new IOException("Response of " + endpoint + " exceeds maxContentLength of " + maxContentLength + " bytes");
+            }
+            return new Exchange<>(response, response, response.getBody(), bytes, bytes);
+        }).value();
+    }
+
+    /**
+     * Sends a read request and parses its JSON body. The response is requested gzip-compressed and decompressed as a
+     * stream straight into the parser. When a response cache is enabled, a response seen before is revalidated with
+     * {@code If-None-Match}: on {@code 304 Not Modified} the cached body is returned without being downloaded or
+     * parsed again.
+     * <p>
+     * Identical reads of the worker, same URL and same access token, share a single request while it is in flight,
+     * and for the {@code reuseWindow} after it completed when one is set.
+     *
+     * @param endpoint the metric id of the endpoint, as {@code family/name}
+     */
+    public JsonNode read(HttpRequest.HttpRequestBuilder requestBuilder, String endpoint) throws Exception {
+        requestBuilder.addHeader("Accept-Encoding", "gzip");
+        HttpRequest request = requestBuilder.build();
+        String key = GraphResponseCache.key(request.getUri(), request.getHeaders().firstValue("Authorization").orElse(null));
+
+        if (!"GET".equals(request.getMethod())) {
+            return fetch(requestBuilder, request, key, endpoint);
+        }
+
+        SingleFlight.Result<JsonNode> result = READS.run(key, reuseWindow, () -> fetch(requestBuilder, request, key, endpoint));
+        if (result.shared()) {
+            runContext.metric(Counter.of("reads.shared", 1, "endpoint", endpoint, "family", family(endpoint)));
+        }
+
+        return result.value();
+    }
+
+    private JsonNode fetch(HttpRequest.HttpRequestBuilder requestBuilder, HttpRequest request, String key, String endpoint) throws Exception {
+        if (responseCache == ResponseCache.NONE) {
+            return parse(sendJson(request, endpoint), endpoint);
+        }
+
+        Optional<GraphResponseCache.Entry> cached = GraphResponseCache.INSTANCE.get(key);
+        HttpRequest conditional = cached.isPresent()
+            ? requestBuilder.addHeader("If-None-Match", cached.get().etag()).build()
+            : request;
+
+        Exchange<JsonNode> exchange = sendJson(conditional, endpoint);
+        String[] tags = { "endpoint", endpoint, "family", family(endpoint) };
+
+        if (cached.isPresent() && exchange.response().getStatus().getCode() == 304) {
+            runContext.metric(Counter.of("cache.hits", 1, tags));
+            return cached.get().body();
+        }
+
+        JsonNode body = parse(exchange, endpoint);
+        runContext.metric(Counter.of("cache.misses", 1, tags));
+
+        Optional<String> etag = exchange.response().getHeaders().firstValue("ETag");
+        if (etag.isPresent()) {
+            GraphResponseCache.INSTANCE.put(key, etag.get(), body, exchange.bytes(), responseCache == ResponseCache.DISK);
+        }
+
+        return body;
+    }
+
+    /**
+     * Reads through the namespace KV store: a response read by any execution of the namespace less than {@code ttl}
+     * ago is returned without calling the API. The entry is keyed by endpoint, request URL, so by object ID and
+     * every query parameter such as the metrics, period and date range, and by a hash of the access token, so that a
+     * flow never reads a response fetched with another token.
+     *
+     * @param ttl how long a response is reused, {@code null} to always call the API
+     */
+    public JsonNode read(HttpRequest.HttpRequestBuilder requestBuilder, String endpoint, Duration ttl) throws Exception {
+        if (ttl == null) {
+            return read(requestBuilder, endpoint);
+        }
+
+        HttpRequest request = requestBuilder.build();
+        String key = MetaKv.key(
+            "meta_" + endpoint.replace('/', '_'),
+            GraphResponseCache.key(request.getUri(), request.getHeaders().firstValue("Authorization").orElse(null))
+        );
+        String[] tags = { "endpoint", endpoint, "family", family(endpoint) };
+
+        Optional<Object> stored = MetaKv.get(runContext, key);
+        if (stored.isPresent()) {
+            runContext.metric(Counter.of("kv.cache.hits", 1, tags));
+            return JacksonMapper.ofJson().valueToTree(stored.get());
+        }
+
+        JsonNode body = read(requestBuilder, endpoint);
+        runContext.metric(Counter.of("kv.cache.misses", 1, tags));
+        MetaKv.put(runContext, key, JacksonMapper.ofJson().convertValue(body, Object.class), ttl);
+
+        return body;
+    }
+
+    /**
+     * Sends a request through the circuit breaker of its endpoint family on the request host.
+     */
+    private <T> Exchange<T> send(HttpRequest request, String endpoint, Duration deadline, Attempt<T> attempt) throws Exception {
+        String family = family(endpoint);
+        CircuitBreaker breaker = CircuitBreaker.of(family + "@" + request.getUri().getAuthority());
+        circuits.put(family, breaker);
+
+        CircuitState before = breaker.state();
+        try {
+            breaker.acquire();
+        } catch (IllegalStateException e) {
+            runContext.metric(Counter.of("circuit.rejections", 1, "endpoint", endpoint, "family", family));
+            throw e;
+        }
+
+        boolean healthy = false;
+        boolean failed = true;
+        try {
+            Exchange<T> exchange = sendWithRetries(request, endpoint, deadline, attempt);
+            healthy = exchange.response().getStatus().getCode() < 500;
+            return exchange;
+        } catch (HttpClientResponseException e) {
+            // client errors and throttling come from a service that is up
+            healthy = e.getResponse() != null && e.getResponse().getStatus().getCode() < 500;
+            throw e;
+        } catch (HttpClientException | TimeoutException e) {
+            // connection failures and missed deadlines count against the circuit
+            throw e;
+        } catch (Exception e) {
+            failed = false;
+            throw e;
+        } finally {
+            if (healthy) {
+                breaker.success();
+            } else if (failed) {
+                breaker.failure();
+            } else {
+                breaker.release();
+            }
+
+            CircuitState after = breaker.state();
+            if (after != before) {
+                runContext.logger().warn("Circuit of {} is now {}", family, after);
+                runContext.metric(Counter.of("circuit.transitions", 1, "family", family, "state", after.name()));
+            }
+        }
+    }
+
+    private <T> Exchange<T> sendWithRetries(HttpRequest request, String endpoint, Duration deadline, Attempt<T> attempt) throws Exception {
+        String method = request.getMethod();
+        long requestBytes = requestBytes(request);
+        HttpRequest prepared = keepAlive ? request : request.toBuilder().addHeader("Connection", "close").build();
+
+        for (int retry = 0; ; retry++) {
+            long start = System.nanoTime();
+            Exchange<T> exchange = null;
+            HttpClientResponseException failure = null;
+            int status;
+            String body;
+
+            try {
+                exchange = call(attempt, prepared, deadline);
+                status = exchange.response().getStatus().getCode();
+                body = exchange.text();
+            } catch (HttpClientResponseException e) {
+                failure = e;
+                status = e.getResponse() != null ? e.getResponse().getStatus().getCode() : 0;
+                body = e.getResponse() != null ? responseBody(e.getResponse()) : null;
+            } catch (TimeoutException e) {
+                // a deadline is not retried: retrying would multiply the time the caller bounded
+                String[] tags = tags(endpoint, method, 0);
+                runContext.metric(Timer.of("request.duration", Duration.ofNanos(System.nanoTime() - start), tags));
+                runContext.metric(Counter.of("requests", 1, tags));
+                runContext.metric(Counter.of("timeouts", 1, tags));
+                throw e;
+            }
+
+            Duration duration = Duration.ofNanos(System.nanoTime() - start);
+            String[] tags = tags(endpoint, method, status);
+
+            runContext.metric(Timer.of("request.duration", duration, tags));
+            runContext.metric(Counter.of("requests", 1, tags));
+            runContext.metric(Counter.of("request.bytes", requestBytes, tags));
+            runContext.metric(Counter.of("response.bytes", exchange != null ? exchange.bytes() : length(body), tags));
+            if (exchange != null && exchange.wireBytes() != exchange.bytes()) {
+                runContext.metric(Counter.of("response.compressed.bytes", exchange.wireBytes(), tags));
+            }
+
+            if (failure == null && status < 500) {
+                return exchange;
+            }
+
+            HttpResponse<?> response = failure != null ? failure.getResponse() : exchange.response();
+            Optional<String> retryAfter = Optional.ofNullable(response).flatMap(r -> r.getHeaders().firstValue("Retry-After"));
+            Optional<Duration> retryIn = retryDelay(method, status, body, retry, retryAfter.orElse(null));
+            if (retryIn.isEmpty()) {
+                if (retryAfter.flatMap(MetaHttpClient::parseSeconds).filter(wait -> wait.compareTo(MAX_RETRY_AFTER) > 0).isPresent()) {
+                    runContext.logger().warn("Request to {} asked to retry after {} s, longer than the {} s honored, failing", endpoint, retryAfter.get(), MAX_RETRY_AFTER.toSeconds());
+                }
+                if (failure != null) {
+                    throw failure;
+                }
+                return exchange;
+            }
+
+            runContext.logger().warn(
+                "Request to {} returned {}, retrying in {} ms (attempt {}/{})",
+                endpoint, status, retryIn.get().toMillis(), retry + 1, MAX_RETRIES
+            );
+            runContext.metric(Counter.of("retries", 1, tags));
+            runContext.metric(Timer.of("throttle.wait", retryIn.get(), tags));
+
+            Thread.sleep(retryIn.get().toMillis());
+        }
+    }
+
+    /**
+     * Sends a request whose successful response is parsed from the response stream, inflating it on the fly when
+     * the server compressed it, so that the body is never held as a whole {@code String}.
+     */
+    private Exchange<JsonNode> sendJson(HttpRequest request, String endpoint) throws Exception {
+        return send(request, endpoint, requestTimeout, (client, prepared) -> {
+            AtomicReference<Exchange<JsonNode>> exchange = new AtomicReference<>();
+
+            HttpResponse<Void> response = client.request(prepared, throwConsumer(streamed -> {
+                boolean gzip = streamed.getHeaders().firstValue("Content-Encoding")
+                    .map(encoding -> encoding.trim().equalsIgnoreCase("gzip"))
+                    .orElse(false);
+                CountingInputStream wire = new CountingInputStream(streamed.getBody(), gzip ? Long.MAX_VALUE : maxContentLength);
+                CountingInputStream inflated = gzip ? new CountingInputStream(new GZIPInputStream(wire, 64 * 1024), maxContentLength) : wire;
+
+                JsonNode body = null;
+                String text = null;
+                if (streamed.getStatus().getCode() == 200) {
+                    body = JacksonMapper.ofJson().readTree(inflated);
+                } else {
+                    text = new String(inflated.readAllBytes(), StandardCharsets.UTF_8);
+                }
+
+                exchange.set(new Exchange<>(streamed, body, text, wire.count(), inflated.count()));
+            }));
+
+            return exchange.get() != null ? exchange.get() : new Exchange<>(response, null, null, 0, 0);
+        });
+    }
+
+    /**
+     * Streams the body of a successful response, such as a media file from the CDN, into {@code output} as it is
+     * received, so that it is never held in memory. {@code 206 Partial Content} responses to a {@code Range} request
+     * are streamed too; other responses are kept as text for the error message. Downloads are not bounded by
+     * {@code maxContentLength} nor {@code requestTimeout}, which are about API responses, only by the socket read timeout.
+     */
+    public Download download(HttpRequest request, String endpoint, OutputStream output) throws Exception {
+        return download(request, endpoint, output, response -> {});
+    }
+
+    /**
+     * @param onResponse called with the status and headers of each response before its body is streamed, so that they
+     * are known even when the transfer is interrupted
+     */
+    public Download download(HttpRequest request, String endpoint, OutputStream output, Rethrow.ConsumerChecked<HttpResponse<?>, Exception> onResponse) throws Exception {
+        Exchange<Long> exchange = send(request, endpoint, null, (client, prepared) -> {
+            AtomicReference<Exchange<Long>> streamedExchange = new AtomicReference<>();
+
+            HttpResponse<Void> response = client.request(prepared, throwConsumer(streamed -> {
+                onResponse.accept(streamed);
+                CountingInputStream body = new CountingInputStream(streamed.getBody(), Long.MAX_VALUE);
+                int status = streamed.getStatus().getCode();
+
+                if (status == 200 || status == 206) {
+                    body.transferTo(output);
+                    streamedExchange.set(new Exchange<>(streamed, body.count(), null, body.count(), body.count()));
+                } else {
+                    String text = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+                    streamedExchange.set(new Exchange<>(streamed, 0L, text, body.count(), body.count()));
+                }
+            }));
+
+            return streamedExchange.get() != null ? streamedExchange.get() : new Exchange<>(response, 0L, null, 0, 0);
+        });
+
+        return new Download(exchange.response(), exchange.value(), exchange.text());
+    }
+
+    /**
+     * @return the state of the circuit breaker of the family of an endpoint, as last used by this client
+     */
+    public CircuitState circuitState(String endpoint) {
+        CircuitBreaker breaker = circuits.get(family(endpoint));
+        return breaker != null ? breaker.state() : CircuitState.CLOSED;
+    }
+
+    /**
+     * Records the number of rows a task emitted for an endpoint.
+     */
+    public void rows(String endpoint, long rows) {
+        runContext.metric(Counter.of("rows", rows, "endpoint", endpoint, "family", family(endpoint)));
+    }
+
+    /**
+     * @param retryAfter the {@code Retry-After} header of the response, in seconds; a wait longer than {@link #MAX_RETRY_AFTER} is not retried
+     */
+    static Optional<Duration> retryDelay(String method, int status, String body, int attempt, String retryAfter) {
+        if (attempt >= MAX_RETRIES) {
+            return Optional.empty();
+        }
+
+        boolean throttled = status == 429 || isThrottlingError(body);
+        boolean serverError = status >= 500 && IDEMPOTENT_METHODS.contains(method);
+        if (!throttled && !serverError) {
+            return Optional.empty();
+        }
+
+        Optional<Duration> wait = Optional.ofNullable(retryAfter).flatMap(MetaHttpClient::parseSeconds);
+        if (wait.isPresent() && wait.get().compareTo(MAX_RETRY_AFTER) > 0) {
+            return Optional.empty();
+        }
+
+        return Optional.of(wait.orElse(Duration.ofSeconds(1L << attempt)));
+    }
+
+    static boolean isThrottlingError(String body) {
+        if (body == null || !body.contains("\"error\"")) {
+            return false;
+        }
+
+        try {
+            JsonNode code = JacksonMapper.ofJson().readTree(body).path("error").path("code");
+            return code.isInt() && THROTTLING_CODES.contains(code.asInt());
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    static String family(String endpoint) {
+        int slash = endpoint.indexOf('/');
+        return slash > 0 ? endpoint.substring(0, slash) : endpoint;
+    }
+
+    /**
+     * Runs one attempt within the connection limit and, when set, the deadline.
+     * <p>
+     * The attempt owns its connection permit: one that missed its deadline is interrupted and keeps the permit until
+     * it actually stopped, which the socket read timeout bounds, so that abandoned attempts never exceed
+     * {@code maxConnections}.
+     */
+    private <T> Exchange<T> call(Attempt<T> attempt, HttpRequest request, Duration deadline) throws Exception {
+        if (connections != null) {
+            connections.acquire();
+        }
+
+        HttpClient client;
+        try {
+            client = client();
+        } catch (Exception e) {
+            if (connections != null) {
+                connections.release();
+            }
+            throw e;
+        }
+
+        if (deadline == null) {
+            try {
+                return attempt.send(client, request);
+            } finally {
+                completed();
+            }
+        }
+
+        CompletableFuture<Exchange<T>> result = new CompletableFuture<>();
+        Thread worker = Thread.ofVirtual().start(() -> {
+            try {
+                result.complete(attempt.send(client, request));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            } finally {
+                completed();
+            }
+        });
+
+        try {
+            return result.get(deadline.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            worker.interrupt();
+            throw new TimeoutException("Request to " + request.getUri().getPath() + " did not complete within requestTimeout of " + deadline);
+        } catch (InterruptedException e) {
+            worker.interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void completed() {
+        inFlight.decrementAndGet();
+        lastUsed = System.nanoTime();
+        if (connections != null) {
+            connections.release();
+        }
+    }
+
+    /**
+     * @return the client to send a request with, replaced by a new one when its pooled connections have been idle
+     * for longer than {@code connectionPoolIdleTimeout}, as servers and proxies may have closed them meanwhile
+     */
+    private synchronized HttpClient client() throws Exception {
+        boolean idle = System.nanoTime() - lastUsed > poolIdleTimeout.toNanos();
+        if (!poolIdleTimeout.isZero() && idle && inFlight.get() == 0) {
+            httpClient.close();
+            httpClient = newClient();
+        }
+
+        inFlight.incrementAndGet();
+        return httpClient;
+    }
+
+    private HttpClient newClient() throws Exception {
+        return HttpClient.builder()
+            .runContext(runContext)
+            .configuration(configuration)
+            .build();
+    }
+
+    private static JsonNode parse(Exchange<JsonNode> exchange, String endpoint) {
+        if (exchange.response().getStatus().getCode() != 200) {
+            throw new RuntimeException("Failed to read " + endpoint + ": " + exchange.response().getStatus().getCode() + " - " + exchange.text());
+        }
+        return exchange.value();
+    }
+
+    private static String[] tags(String endpoint, String method, int status) {
+        return new String[] {
+            "endpoint", endpoint,
+            "family", family(endpoint),
+            "method", method,
+            "status", String.valueOf(status)
+        };
+    }
+
+    private static long requestBytes(HttpRequest request) {
+        if (request.getBody() instanceof HttpRequest.StringRequestBody stringBody && stringBody.getContent() != null) {
+            return stringBody.getContent().getBytes(StandardCharsets.UTF_8).length;
+        }
+        if (request.getBody() instanceof HttpRequest.ByteArrayRequestBody byteBody && byteBody.getContent() != null) {
+            return byteBody.getContent().length;
+        }
+        return 0;
+    }
+
+    /**
+     * @return the body of the error response the client threw, {@code null} when it has none
+     */
+    public static String errorBody(HttpClientResponseException e) {
+        return e.getResponse() != null ? responseBody(e.getResponse()) : null;
+    }
+
+    private static String responseBody(HttpResponse<?> response) {
+        Object body = response.getBody();
+        if (body instanceof byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        return body != null ? body.toString() : null;
+    }
+
+    private static long length(String body) {
+        return body != null ? body.getBytes(StandardCharsets.UTF_8).length : 0;
+    }
+
+    private static Optional<Duration> parseSeconds(String value) {
+        try {
+            long seconds = Long.parseLong(value.trim());
+            return seconds >= 0 ? Optional.of(Duration.ofSeconds(seconds)) : Optional.empty();
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        httpClient.close();
+    }
+
+    @FunctionalInterface
+    private interface Attempt<T> {
+        Exchange<T> send(HttpClient client, HttpRequest request) throws Exception;
+    }
+
+    /**
+     * One response of a request.
+     *
+     * @param value what the attempt made of the response
+     * @param text the body as text when it was not parsed, for error messages and retry decisions
+     * @param wireBytes the size of the body as received
+     * @param bytes the size of the body once decompressed
+     */
+    private record Exchange<T>(HttpResponse<?> response, T value, String text, long wireBytes, long bytes) {
+    }
+
+    /**
+     * The outcome of a download.
+     *
+     * @param bytes the number of bytes written to the output
+     * @param error the body of an error response, {@code null} when the body was downloaded
+     */
+    public record Download(HttpResponse<?> response, long bytes, String error) {
+        public int status() {
+            return response.getStatus().getCode();
+        }
+    }
+
+    /**
+     * Counts the bytes read through it, failing once more than {@code limit} bytes were read.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private final long limit;
+        private long count;
+
+        CountingInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                add(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                add(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            add(skipped);
+            return skipped;
+        }
+
+        private void add(long n) throws IOException {
+            count += n;
+            if (count > limit) {
+                throw new IOException("Response exceeds maxContentLength of " + limit + " bytes");
+            }
+        }
+
+        long count() {
+            return count;
+        }
+    }
+}
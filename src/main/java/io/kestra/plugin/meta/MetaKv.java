@@ -0,0 +1,77 @@
+package io.kestra.plugin.meta;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.storages.kv.KVMetadata;
+import io.kestra.core.storages.kv.KVStore;
+import io.kestra.core.storages.kv.KVValue;
+import io.kestra.core.storages.kv.KVValueAndMetadata;
+
+/**
+ * Small helpers around the namespace KV store used by the Meta tasks to keep state between executions.
+ */
+public final class MetaKv {
+    private MetaKv() {
+    }
+
+    /**
+     * @return the KV store of the namespace of the flow currently running.
+     */
+    public static KVStore store(RunContext runContext) {
+        return runContext.namespaceKv(runContext.flowInfo().namespace());
+    }
+
+    /**
+     * Builds a KV key from a readable prefix and an arbitrary scope, hashed so that it always satisfies the KV key format.
+     */
+    public static String key(String prefix, String... scope) {
+        return prefix + "_" + sha256(String.join("\n", scope)).substring(0, 32);
+    }
+
+    public static Optional<Object> get(RunContext runContext, String key) throws Exception {
+        return store(runContext).getValue(key).map(KVValue::value);
+    }
+
+    public static void put(RunContext runContext, String key, Object value, Duration ttl) throws Exception {
+        store(runContext).put(key, new KVValueAndMetadata(new KVMetadata(null, ttl), value));
+    }
+
+    /**
+     * Writes a value only if the key does not exist yet, relying on the create-if-absent write of the KV store.
+     *
+     * @return whether the value was written
+     */
+    public static boolean putIfAbsent(RunContext runContext, String key, Object value, Duration ttl) throws Exception {
+        try {
+            store(runContext).put(key, new KVValueAndMetadata(new KVMetadata(null, ttl), value), false);
+            return true;
+        } catch (Exception e) {
+            if (store(runContext).getValue(key).isPresent()) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    public static boolean delete(RunContext runContext, String key) throws Exception {
+        return store(runContext).delete(key);
+    }
+
+    public static String sha256(String value) {
+        return HexFormat.of().formatHex(sha256().digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
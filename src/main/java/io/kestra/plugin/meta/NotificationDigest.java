@@ -0,0 +1,195 @@
+package io.kestra.plugin.meta;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.serializers.JacksonMapper;
+
+/**
+ * Coalesces execution alerts sent to the same recipients into a single digest per time window.
+ * <p>
+ * The first alert of a window is sent right away and alerts received while the window is open are buffered in the
+ * namespace KV store, one key per alert, so that concurrent executions never overwrite each other's alerts. Once the
+ * window elapsed, the buffer is sent as one digest either by the next alert or by {@link #flush}, which a scheduled run
+ * calls so that the last alerts of a storm are delivered even when no other alert follows. Opening and flushing a window
+ * is done under a {@link KvQueue.Lease}, so that only one execution sends a given digest.
+ */
+public final class NotificationDigest {
+    private static final String KEY_PREFIX = "meta_digest";
+    private static final String QUEUE_PREFIX = "meta_digest_alerts";
+    private static final Duration LEASE = Duration.ofMinutes(1);
+
+    private NotificationDigest() {
+    }
+
+    /**
+     * Offers an alert to the digest buffer of the given recipient scope.
+     *
+     * @param executionMap the map produced by {@code ExecutionService.executionMap}
+     * @return the alerts to send now; none when the alert was buffered
+     */
+    public static Digest offer(RunContext runContext, String scope, Map<String, Object> executionMap, Duration window) throws Exception {
+        String key = MetaKv.key(KEY_PREFIX, scope);
+        String queue = MetaKv.key(QUEUE_PREFIX, scope);
+        Map<String, Object> alert = alert(executionMap);
+
+        Optional<Instant> windowStart = windowStart(runContext, key);
+        if (isOpen(windowStart, window)) {
+            return buffer(runContext, queue, windowStart.get(), alert);
+        }
+
+        Optional<KvQueue.Lease> lease = KvQueue.claim(runContext, key, LEASE);
+        if (lease.isEmpty()) {
+            // another execution is opening or flushing the window, the alert goes to the next digest
+            return buffer(runContext, queue, Instant.now(), alert);
+        }
+
+        try {
+            windowStart = windowStart(runContext, key);
+            if (isOpen(windowStart, window)) {
+                return buffer(runContext, queue, windowStart.get(), alert);
+            }
+
+            Instant now = Instant.now();
+            List<Map<String, Object>> alerts = take(runContext, queue);
+            alerts.add(alert);
+
+            MetaKv.put(runContext, key, Map.of("windowStart", now.toString()), null);
+            return new Digest(windowStart.orElse(now), alerts);
+        } finally {
+            KvQueue.release(runContext, lease.get());
+        }
+    }
+
+    /**
+     * Takes the alerts buffered in a window that elapsed, closing it so that the next alert is sent right away.
+     *
+     * @return the alerts to send; none when the window is still open or nothing was buffered
+     */
+    public static Digest flush(RunContext runContext, String scope, Duration window) throws Exception {
+        String key = MetaKv.key(KEY_PREFIX, scope);
+        String queue = MetaKv.key(QUEUE_PREFIX, scope);
+
+        Optional<Instant> windowStart = windowStart(runContext, key);
+        if (isOpen(windowStart, window)) {
+            return new Digest(windowStart.get(), List.of());
+        }
+
+        Optional<KvQueue.Lease> lease = KvQueue.claim(runContext, key, LEASE);
+        if (lease.isEmpty()) {
+            return new Digest(Instant.now(), List.of());
+        }
+
+        try {
+            windowStart = windowStart(runContext, key);
+            if (isOpen(windowStart, window)) {
+                return new Digest(windowStart.get(), List.of());
+            }
+
+            List<Map<String, Object>> alerts = take(runContext, queue);
+            MetaKv.delete(runContext, key);
+            return new Digest(windowStart.orElse(Instant.now()), alerts);
+        } finally {
+            KvQueue.release(runContext, lease.get());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Optional<Instant> windowStart(RunContext runContext, String key) throws Exception {
+        return MetaKv.get(runContext, key).map(value -> Instant.parse((String) ((Map<String, Object>) value).get("windowStart")));
+    }
+
+    private static boolean isOpen(Optional<Instant> windowStart, Duration window) {
+        return windowStart.isPresent() && Instant.now().isBefore(windowStart.get().plus(window));
+    }
+
+    private static Digest buffer(RunContext runContext, String queue, Instant windowStart, Map<String, Object> alert) throws Exception {
+        KvQueue.append(runContext, queue, alert);
+        runContext.logger().info("Alert buffered into the digest opened at {}", windowStart);
+        return new Digest(windowStart, List.of());
+    }
+
+    private static List<Map<String, Object>> take(RunContext runContext, String queue) throws Exception {
+        List<Map<String, Object>> alerts = new ArrayList<>();
+        for (String key : KvQueue.keys(runContext, queue)) {
+            Optional<Map<String, Object>> alert = KvQueue.get(runContext, key);
+            if (alert.isPresent()) {
+                alerts.add(alert.get());
+                KvQueue.remove(runContext, key);
+            }
+        }
+        return alerts;
+    }
+
+    /**
+     * Keeps only the parts of the execution map the notification templates use, so that buffered alerts stay small.
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> alert(Map<String, Object> executionMap) {
+        Map<String, Object> converted = JacksonMapper.toMap(executionMap);
+        Map<String, Object> alert = new HashMap<>();
+
+        Map<String, Object> execution = (Map<String, Object>) converted.get("execution");
+        if (execution != null) {
+            Map<String, Object> state = (Map<String, Object>) execution.getOrDefault("state", Map.of());
+            Map<String, Object> summary = new HashMap<>();
+            summary.put("id", execution.get("id"));
+            summary.put("namespace", execution.get("namespace"));
+            summary.put("flowId", execution.get("flowId"));
+            summary.put("state", Map.of("current", String.valueOf(state.get("current"))));
+            alert.put("execution", summary);
+        }
+
+        for (String key : List.of("link", "startDate", "duration")) {
+            if (converted.get(key) != null) {
+                alert.put(key, converted.get(key));
+            }
+        }
+
+        alert.put("firstFailed", taskId(converted.get("firstFailed")));
+        alert.put("lastTask", taskId(converted.get("lastTask")));
+
+        return alert;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object taskId(Object taskRun) {
+        if (taskRun instanceof Map<?, ?> map && map.get("taskId") != null) {
+            return Map.of("taskId", ((Map<String, Object>) map).get("taskId"));
+        }
+        return false;
+    }
+
+    /**
+     * @param windowStart when the digest window started
+     * @param alerts the alerts to send, a single one when no other alert was buffered
+     */
+    public record Digest(Instant windowStart, List<Map<String, Object>> alerts) {
+        public boolean isBuffered() {
+            return alerts.isEmpty();
+        }
+
+        public boolean isDigest() {
+            return alerts.size() > 1;
+        }
+
+        public Map<String, Object> renderMap(Map<String, Object> executionMap) {
+            Map<String, Object> map = new HashMap<>();
+            map.put("executions", alerts);
+            map.put("windowStart", windowStart.toString());
+            if (executionMap.get("customMessage") != null) {
+                map.put("customMessage", executionMap.get("customMessage"));
+            }
+            if (executionMap.get("customFields") != null) {
+                map.put("customFields", executionMap.get("customFields"));
+            }
+            return map;
+        }
+    }
+}
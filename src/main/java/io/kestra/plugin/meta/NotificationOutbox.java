@@ -0,0 +1,99 @@
+package io.kestra.plugin.meta;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import io.kestra.core.runners.RunContext;
+
+/**
+ * Durable queue of rendered notification requests, stored in the namespace KV store with one key per entry so that
+ * appending never needs to read or rewrite the queue.
+ * <p>
+ * Secrets are never written to the queue: access tokens and HTTP headers are added by the delivering task, and a URI
+ * that reads a secret is queued as its template and rendered again at delivery time.
+ */
+public final class NotificationOutbox {
+    private static final String QUEUE_PREFIX = "meta_outbox";
+    private static final String DEAD_LETTER_PREFIX = "meta_outbox_deadletter";
+    // longer than any single delivery, so that a crashed run only delays its claimed entries
+    private static final Duration LEASE = Duration.ofMinutes(5);
+
+    private NotificationOutbox() {
+    }
+
+    /**
+     * Appends a rendered request to the queue.
+     *
+     * @param uriTemplate the unrendered URI, queued instead of {@code uri} when it reads a secret
+     * @param bearer whether the request needs an {@code Authorization: Bearer} header, which is added at delivery time so that tokens are never written to the KV store
+     * @return the key of the queued entry
+     */
+    public static String enqueue(RunContext runContext, String queue, String uri, String uriTemplate, String body, Map<String, String> headers,
+        boolean bearer) throws Exception {
+        Map<String, Object> entry = new HashMap<>();
+        if (uriTemplate != null && uriTemplate.contains("secret(")) {
+            entry.put("uriTemplate", uriTemplate);
+        } else {
+            entry.put("uri", uri);
+        }
+        entry.put("body", body);
+        entry.put("headers", headers);
+        entry.put("bearer", bearer);
+        entry.put("attempts", 0);
+        entry.put("createdAt", Instant.now().toString());
+
+        return KvQueue.append(runContext, MetaKv.key(QUEUE_PREFIX, queue), entry);
+    }
+
+    /**
+     * @return the keys of the entries of the queue, oldest first
+     */
+    public static List<String> keys(RunContext runContext, String queue) throws Exception {
+        return KvQueue.keys(runContext, MetaKv.key(QUEUE_PREFIX, queue));
+    }
+
+    public static Optional<Map<String, Object>> get(RunContext runContext, String key) throws Exception {
+        return KvQueue.get(runContext, key);
+    }
+
+    /**
+     * @return the URI to deliver an entry to, rendering it again when it was queued as a template
+     */
+    public static String uri(RunContext runContext, Map<String, Object> entry) throws Exception {
+        if (entry.get("uriTemplate") != null) {
+            return runContext.render((String) entry.get("uriTemplate"));
+        }
+        return (String) entry.get("uri");
+    }
+
+    /**
+     * Claims an entry so that concurrent deliveries never send it twice.
+     */
+    public static Optional<KvQueue.Lease> claim(RunContext runContext, String key) throws Exception {
+        return KvQueue.claim(runContext, key, LEASE);
+    }
+
+    public static void release(RunContext runContext, KvQueue.Lease lease) throws Exception {
+        KvQueue.release(runContext, lease);
+    }
+
+    public static void update(RunContext runContext, String key, Map<String, Object> entry) throws Exception {
+        KvQueue.update(runContext, key, entry);
+    }
+
+    public static void remove(RunContext runContext, String key) throws Exception {
+        KvQueue.remove(runContext, key);
+    }
+
+    /**
+     * Moves an entry that exhausted its attempts out of the queue, keeping it for inspection.
+     */
+    public static void deadLetter(RunContext runContext, String queue, String key, Map<String, Object> entry) throws Exception {
+        KvQueue.append(runContext, MetaKv.key(DEAD_LETTER_PREFIX, queue), entry);
+        KvQueue.remove(runContext, key);
+    }
+}
@@ -0,0 +1,76 @@
+package io.kestra.plugin.meta;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.List;
+
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.serializers.FileSerde;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Writes the rows of independent parts of an export, such as date windows or parent objects, to a single Ion file:
+ * parts are fetched concurrently, each into its own temporary file, and the files are concatenated in the order of
+ * the parts. Ordered parts therefore give an ordered file without sorting or holding rows in memory.
+ */
+public final class ParallelIonWriter {
+    private ParallelIonWriter() {
+    }
+
+    /**
+     * @param concurrency maximum number of parts written at the same time
+     * @return the Ion file in the working directory and its number of rows
+     */
+    public static <T> Result write(RunContext runContext, List<T> parts, int concurrency, PartWriter<T> writer) throws Exception {
+        List<Part> written = Flux.fromIterable(parts)
+            .flatMapSequential(
+                part -> Mono.fromCallable(() -> writePart(runContext, part, writer)).subscribeOn(Schedulers.boundedElastic()),
+                Math.max(1, concurrency)
+            )
+            .collectList()
+            .block();
+
+        File file = runContext.workingDir().createTempFile(".ion").toFile();
+        long rows = 0;
+
+        try (OutputStream output = new BufferedOutputStream(new FileOutputStream(file), FileSerde.BUFFER_SIZE)) {
+            for (Part part : written) {
+                Files.copy(part.file().toPath(), output);
+                Files.delete(part.file().toPath());
+                rows += part.rows();
+            }
+        }
+
+        return new Result(file, rows);
+    }
+
+    private static <T> Part writePart(RunContext runContext, T part, PartWriter<T> writer) throws Exception {
+        File file = runContext.workingDir().createTempFile(".ion").toFile();
+
+        try (OutputStream output = new BufferedOutputStream(new FileOutputStream(file), FileSerde.BUFFER_SIZE)) {
+            return new Part(file, writer.write(part, output));
+        }
+    }
+
+    @FunctionalInterface
+    public interface PartWriter<T> {
+        /**
+         * Writes the rows of a part with {@link FileSerde#write(OutputStream, Object)}.
+         *
+         * @return the number of rows written
+         */
+        long write(T part, OutputStream output) throws Exception;
+    }
+
+    private record Part(File file, long rows) {
+    }
+
+    public record Result(File file, long rows) {
+    }
+}
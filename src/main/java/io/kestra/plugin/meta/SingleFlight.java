@@ -0,0 +1,79 @@
+package io.kestra.plugin.meta;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Worker-wide deduplication of identical reads: while a read is in flight, identical reads wait for it and share its
+ * result instead of sending their own request. A result can also be reused for a short window after it completed.
+ */
+final class SingleFlight<T> {
+    private static final int MAX_RECENT = 1024;
+
+    private final Map<String, CompletableFuture<T>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Recent<T>> recent = new ConcurrentHashMap<>();
+
+    /**
+     * @param key identifies identical reads, including the scope of their credentials
+     * @param reuseWindow how long a completed result is still shared, {@code null} to only share in-flight reads
+     * @param read the read to run when no identical one is in flight
+     */
+    Result<T> run(String key, Duration reuseWindow, Callable<T> read) throws Exception {
+        if (reuseWindow != null) {
+            Recent<T> reusable = recent.get(key);
+            if (reusable != null && reusable.expiresAt() - System.nanoTime() > 0) {
+                return new Result<>(reusable.value(), true);
+            }
+        }
+
+        CompletableFuture<T> flight = new CompletableFuture<>();
+        CompletableFuture<T> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            try {
+                return new Result<>(leader.get(), true);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Exception cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        try {
+            T value = read.call();
+            if (reuseWindow != null && !reuseWindow.isZero()) {
+                remember(key, value, reuseWindow);
+            }
+            flight.complete(value);
+            return new Result<>(value, false);
+        } catch (Exception e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private void remember(String key, T value, Duration reuseWindow) {
+        if (recent.size() >= MAX_RECENT) {
+            long now = System.nanoTime();
+            recent.values().removeIf(entry -> entry.expiresAt() - now <= 0);
+        }
+        if (recent.size() < MAX_RECENT) {
+            recent.put(key, new Recent<>(value, System.nanoTime() + reuseWindow.toNanos()));
+        }
+    }
+
+    /**
+     * @param shared whether the value comes from another identical read
+     */
+    record Result<T>(T value, boolean shared) {
+    }
+
+    private record Recent<T>(T value, long expiresAt) {
+    }
+}
@@ -0,0 +1,85 @@
+package io.kestra.plugin.meta;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+
+import io.kestra.core.runners.RunContext;
+
+/**
+ * Caches the IDs returned by Meta upload endpoints in the namespace KV store, keyed by the SHA-256 of the uploaded content,
+ * so that the same file sent again is referenced by ID instead of being uploaded again.
+ */
+public final class UploadCache {
+    private UploadCache() {
+    }
+
+    /**
+     * Returns the cached upload ID for the content of {@code uri}, or uploads it and caches the returned ID.
+     *
+     * @param prefix KV key prefix of the upload kind
+     * @param scope the account the upload belongs to, IDs are not shared between accounts
+     * @param ttl how long the ID stays cached, {@code null} to keep it until deleted
+     * @param upload uploads the staged file and returns its ID
+     */
+    public static Upload resolve(RunContext runContext, String prefix, String scope, URI uri, Duration ttl, UploadFunction upload) throws Exception {
+        String hash = sha256(runContext, uri);
+        String key = MetaKv.key(prefix, scope, hash);
+
+        Optional<Object> cached = MetaKv.get(runContext, key);
+        if (cached.isPresent()) {
+            runContext.logger().debug("Reusing uploaded content {} for {}", cached.get(), uri);
+            return new Upload(cached.get().toString(), hash, true);
+        }
+
+        File file = runContext.workingDir().createTempFile(extension(uri)).toFile();
+        try (InputStream inputStream = runContext.storage().getFile(uri); OutputStream outputStream = new FileOutputStream(file)) {
+            inputStream.transferTo(outputStream);
+        }
+
+        String id = upload.upload(file);
+        MetaKv.put(runContext, key, id, ttl);
+        runContext.logger().info("Uploaded {} as {}", uri, id);
+
+        return new Upload(id, hash, false);
+    }
+
+    public static String fileName(URI uri) {
+        String path = uri.getPath();
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    private static String extension(URI uri) {
+        String fileName = fileName(uri);
+        int dot = fileName.lastIndexOf('.');
+        return dot >= 0 ? fileName.substring(dot) : "";
+    }
+
+    private static String sha256(RunContext runContext, URI uri) throws Exception {
+        MessageDigest digest = MetaKv.sha256();
+        try (InputStream inputStream = new DigestInputStream(runContext.storage().getFile(uri), digest)) {
+            inputStream.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    @FunctionalInterface
+    public interface UploadFunction {
+        String upload(File file) throws Exception;
+    }
+
+    /**
+     * @param id the ID returned by the upload endpoint
+     * @param sha256 the hash of the uploaded content
+     * @param cached whether the ID came from the cache
+     */
+    public record Upload(String id, String sha256, boolean cached) {
+    }
+}
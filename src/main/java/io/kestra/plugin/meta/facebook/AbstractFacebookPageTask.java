@@ -0,0 +1,25 @@
+package io.kestra.plugin.meta.facebook;
+
+import io.kestra.core.models.property.Property;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import lombok.experimental.SuperBuilder;
+import io.kestra.core.models.annotations.PluginProperty;
+
+@SuperBuilder
+@EqualsAndHashCode(callSuper = true)
+@Getter
+@NoArgsConstructor
+@ToString(callSuper = true)
+public abstract class AbstractFacebookPageTask extends AbstractFacebookTask {
+
+    @Schema(title = "Facebook Page ID", description = "ID of the Page the task operates on; must match the access token scope.")
+    @NotNull
+    @PluginProperty(group = "main")
+    protected Property<String> pageId;
+}
@@ -1,9 +1,14 @@
 package io.kestra.plugin.meta.facebook;
 
+import java.time.Duration;
+
 import io.kestra.core.models.property.Property;
 import io.kestra.core.models.tasks.RunnableTask;
 import io.kestra.core.models.tasks.Task;
 import io.kestra.core.runners.RunContext;
+import io.kestra.plugin.meta.AbstractMetaConnection;
+import io.kestra.plugin.meta.MetaHttpClient;
+import io.kestra.plugin.meta.ResponseCache;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotNull;
@@ -22,11 +27,6 @@ import io.kestra.core.models.annotations.PluginProperty;
 @ToString(exclude = { "accessToken" })
 public abstract class AbstractFacebookTask extends Task implements RunnableTask<io.kestra.core.models.tasks.Output> {
 
-    @Schema(title = "Facebook Page ID", description = "ID of the Page the task operates on; must match the access token scope.")
-    @NotNull
-    @PluginProperty(group = "main")
-    protected Property<String> pageId;
-
     @Schema(title = "Access Token", description = "Page access token with permissions such as `pages_manage_posts` and `pages_read_engagement`.")
     @NotNull
     @PluginProperty(group = "main", secret = true)
@@ -42,9 +42,45 @@ public abstract class AbstractFacebookTask extends Task implements RunnableTask<
     @PluginProperty(group = "connection")
     protected Property<String> apiBaseUrl = Property.ofValue("https://graph.facebook.com");
 
+    @Schema(
+        title = "Options",
+        description = "The options to set to customize the HTTP client: timeouts, response size limit, connection pool and keep-alive."
+    )
+    @PluginProperty(dynamic = true, group = "advanced")
+    protected AbstractMetaConnection.RequestOptions options;
+
+    @Schema(
+        title = "Response cache",
+        description = "Where read responses are cached with their ETag so that repeated reads are revalidated with `If-None-Match` " +
+            "and an unchanged response is not downloaded and parsed again. NONE (default) disables caching; MEMORY keeps them on the worker, " +
+            "shared by every execution it runs; DISK also spills entries evicted from memory to a temporary directory of the worker. " +
+            "Cached responses may hold personal data, so only enable it for reads that are safe to keep on the worker."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    protected Property<ResponseCache> responseCache = Property.ofValue(ResponseCache.NONE);
+
+    @Schema(
+        title = "Read reuse window",
+        description = "Identical reads running at the same time on a worker, same URL and same access token, always share one request. " +
+            "When set, its result is also shared with identical reads starting within this duration after it completed, " +
+            "for example by parallel branches or `ForEach` iterations."
+    )
+    @PluginProperty(group = "advanced")
+    protected Property<Duration> reuseWindow;
+
     protected String buildApiUrl(RunContext runContext, String endpoint) throws Exception {
         String rVersion = runContext.render(this.apiVersion).as(String.class).orElse("v24.0");
         String rBaseUrl = runContext.render(this.apiBaseUrl).as(String.class).orElse("https://graph.facebook.com");
         return String.format("%s/%s/%s", rBaseUrl, rVersion, endpoint);
     }
+
+    protected MetaHttpClient createHttpClient(RunContext runContext) throws Exception {
+        return MetaHttpClient.builder()
+            .runContext(runContext)
+            .options(this.options)
+            .responseCache(runContext.render(this.responseCache).as(ResponseCache.class).orElse(ResponseCache.NONE))
+            .reuseWindow(runContext.render(this.reuseWindow).as(Duration.class).orElse(null))
+            .build();
+    }
 }
@@ -0,0 +1,295 @@
+package io.kestra.plugin.meta.facebook.ads;
+
+import java.io.OutputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.kestra.core.http.HttpRequest;
+import io.kestra.core.http.HttpResponse;
+import io.kestra.core.models.annotations.Example;
+import io.kestra.core.models.annotations.Plugin;
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.serializers.FileSerde;
+import io.kestra.core.serializers.JacksonMapper;
+import io.kestra.plugin.meta.DateRange;
+import io.kestra.plugin.meta.GraphPaging;
+import io.kestra.plugin.meta.MetaHttpClient;
+import io.kestra.plugin.meta.ParallelIonWriter;
+import io.kestra.plugin.meta.facebook.AbstractFacebookTask;
+import io.kestra.plugin.meta.facebook.enums.AdsLevel;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+@SuperBuilder
+@ToString
+@EqualsAndHashCode
+@Getter
+@NoArgsConstructor
+@Schema(
+    title = "Extract Facebook Ads insights with asynchronous report runs",
+    description = "Runs Marketing API insights reports as asynchronous jobs (`POST /act_{id}/insights`), which do not time out on large accounts like synchronous calls do. " +
+        "The date range is split into chunks of `chunkDays` days reported in parallel; each job is polled with backoff until it completes, " +
+        "then its result pages are streamed into an Ion file in internal storage, in date order."
+)
+@Plugin(
+    examples = {
+        @Example(
+            title = "Extract daily ad set performance for the last quarter.",
+            full = true,
+            code = """
+                id: facebook_ads_insights
+                namespace: company.team
+
+                tasks:
+                  - id: ads_insights
+                    type: io.kestra.plugin.meta.facebook.ads.GetInsights
+                    accessToken: "{{ secret('FACEBOOK_ADS_ACCESS_TOKEN') }}"
+                    adAccountId: "act_1234567890"
+                    level: ADSET
+                    fields:
+                      - campaign_name
+                      - adset_name
+                      - impressions
+                      - clicks
+                      - spend
+                    since: "{{ now() | dateAdd(-90, 'DAYS') | date('yyyy-MM-dd') }}"
+                    until: "{{ now() | date('yyyy-MM-dd') }}"
+                    chunkDays: 30
+                """
+        )
+    }
+)
+public class GetInsights extends AbstractFacebookTask {
+    private static final int PAGE_SIZE = 500;
+
+    @Schema(title = "Ad account ID", description = "Ad account to report on, with or without the `act_` prefix.")
+    @NotNull
+    @PluginProperty(group = "main")
+    private Property<String> adAccountId;
+
+    @Schema(title = "Level", description = "Aggregation level of the report rows. Defaults to ADSET.")
+    @Builder.Default
+    @PluginProperty(group = "main")
+    private Property<AdsLevel> level = Property.ofValue(AdsLevel.ADSET);
+
+    @Schema(title = "Fields", description = "Marketing API insights fields of each row.")
+    @Builder.Default
+    @PluginProperty(group = "main")
+    private Property<List<String>> fields = Property.ofValue(
+        List.of("campaign_name", "adset_name", "impressions", "reach", "clicks", "spend")
+    );
+
+    @Schema(title = "Breakdowns", description = "Optional breakdowns, such as `age`, `gender` or `country`.")
+    @PluginProperty(group = "main")
+    private Property<List<String>> breakdowns;
+
+    @Schema(title = "Since", description = "First day of the report, as `yyyy-MM-dd`.")
+    @NotNull
+    @PluginProperty(group = "main")
+    private Property<String> since;
+
+    @Schema(title = "Until", description = "Last day of the report, inclusive, as `yyyy-MM-dd`.")
+    @NotNull
+    @PluginProperty(group = "main")
+    private Property<String> until;
+
+    @Schema(title = "Time increment", description = "Number of days per row, or `monthly` or `all_days`. Defaults to one row per day.")
+    @Builder.Default
+    @PluginProperty(group = "processing")
+    private Property<String> timeIncrement = Property.ofValue("1");
+
+    @Schema(
+        title = "Chunk size in days",
+        description = "The date range is reported as one asynchronous job per chunk of this many days, so that huge ranges finish faster and never hit job limits."
+    )
+    @Builder.Default
+    @PluginProperty(group = "processing")
+    private Property<Integer> chunkDays = Property.ofValue(30);
+
+    @Schema(title = "Concurrency", description = "Maximum number of report jobs running at the same time.")
+    @Builder.Default
+    @PluginProperty(group = "processing")
+    private Property<Integer> concurrency = Property.ofValue(4);
+
+    @Schema(title = "Poll interval", description = "First wait between two status checks of a job; it doubles after each check up to `maxPollInterval`.")
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<Duration> pollInterval = Property.ofValue(Duration.ofSeconds(5));
+
+    @Schema(title = "Maximum poll interval")
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<Duration> maxPollInterval = Property.ofValue(Duration.ofMinutes(1));
+
+    @Schema(title = "Maximum wait", description = "How long a single job may run before the task fails.")
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<Duration> maxWait = Property.ofValue(Duration.ofHours(2));
+
+    @Override
+    public Output run(RunContext runContext) throws Exception {
+        String rAccountId = runContext.render(this.adAccountId).as(String.class).orElseThrow();
+        String rToken = runContext.render(this.accessToken).as(String.class).orElseThrow();
+        LocalDate rSince = LocalDate.parse(runContext.render(this.since).as(String.class).orElseThrow());
+        LocalDate rUntil = LocalDate.parse(runContext.render(this.until).as(String.class).orElseThrow());
+        int rChunkDays = runContext.render(this.chunkDays).as(Integer.class).orElse(30);
+        int rConcurrency = runContext.render(this.concurrency).as(Integer.class).orElse(4);
+
+        String account = rAccountId.startsWith("act_") ? rAccountId : "act_" + rAccountId;
+        Map<String, Object> report = reportParameters(runContext);
+        List<DateRange> ranges = new DateRange(rSince, rUntil).split(rChunkDays);
+
+        // report pages are read once: no response cache
+        try (
+            MetaHttpClient httpClient = MetaHttpClient.builder()
+                .runContext(runContext)
+                .options(options)
+                .build()
+        ) {
+            Map<DateRange, String> reportRunIds = new ConcurrentHashMap<>();
+            ParallelIonWriter.Result result = ParallelIonWriter.write(
+                runContext,
+                ranges,
+                rConcurrency,
+                (range, output) -> runReport(runContext, httpClient, account, rToken, report, range, reportRunIds, output)
+            );
+            long size = result.rows();
+
+            httpClient.rows("ads/results", size);
+            runContext.logger().info("Retrieved {} ads insights rows from {} report runs", size, ranges.size());
+
+            return Output.builder()
+                .uri(runContext.storage().putFile(result.file()))
+                .size(size)
+                .reportRunIds(ranges.stream().map(reportRunIds::get).toList())
+                .build();
+        }
+    }
+
+    private Map<String, Object> reportParameters(RunContext runContext) throws Exception {
+        AdsLevel rLevel = runContext.render(this.level).as(AdsLevel.class).orElse(AdsLevel.ADSET);
+        List<String> rFields = runContext.render(this.fields).asList(String.class);
+        List<String> rBreakdowns = runContext.render(this.breakdowns).asList(String.class);
+        String rTimeIncrement = runContext.render(this.timeIncrement).as(String.class).orElse("1");
+
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("level", rLevel.name().toLowerCase());
+        parameters.put("fields", String.join(",", rFields));
+        parameters.put("time_increment", rTimeIncrement);
+        if (!rBreakdowns.isEmpty()) {
+            parameters.put("breakdowns", String.join(",", rBreakdowns));
+        }
+        return parameters;
+    }
+
+    private long runReport(
+        RunContext runContext,
+        MetaHttpClient httpClient,
+        String account,
+        String token,
+        Map<String, Object> report,
+        DateRange range,
+        Map<DateRange, String> reportRunIds,
+        OutputStream output
+    ) throws Exception {
+        Map<String, Object> parameters = new LinkedHashMap<>(report);
+        parameters.put("time_range", Map.of("since", range.since().toString(), "until", range.until().toString()));
+
+        HttpRequest request = HttpRequest.builder()
+            .uri(URI.create(buildApiUrl(runContext, account + "/insights")))
+            .method("POST")
+            .addHeader("Content-Type", "application/json")
+            .addHeader("Authorization", "Bearer " + token)
+            .body(HttpRequest.StringRequestBody.builder().content(JacksonMapper.ofJson().writeValueAsString(parameters)).build())
+            .build();
+
+        HttpResponse<String> response = httpClient.request(request, "ads/report");
+        JsonNode responseJson = JacksonMapper.ofJson().readTree(response.getBody());
+        if (response.getStatus().getCode() != 200 || !responseJson.hasNonNull("report_run_id")) {
+            throw new RuntimeException("Failed to start ads insights report: " + response.getStatus().getCode() + " - " + response.getBody());
+        }
+
+        String reportRunId = responseJson.get("report_run_id").asText();
+        runContext.logger().info("Started ads insights report {} for {} to {}", reportRunId, range.since(), range.until());
+
+        awaitReport(runContext, httpClient, token, reportRunId);
+
+        reportRunIds.put(range, reportRunId);
+
+        return GraphPaging.forEachRow(
+            httpClient,
+            buildApiUrl(runContext, reportRunId + "/insights") + "?limit=" + PAGE_SIZE,
+            token,
+            "ads/results",
+            0,
+            row -> FileSerde.write(output, JacksonMapper.ofJson().convertValue(row, Map.class))
+        );
+    }
+
+    private void awaitReport(RunContext runContext, MetaHttpClient httpClient, String token, String reportRunId) throws Exception {
+        Duration rPollInterval = runContext.render(this.pollInterval).as(Duration.class).orElse(Duration.ofSeconds(5));
+        Duration rMaxPollInterval = runContext.render(this.maxPollInterval).as(Duration.class).orElse(Duration.ofMinutes(1));
+        Duration rMaxWait = runContext.render(this.maxWait).as(Duration.class).orElse(Duration.ofHours(2));
+
+        long deadline = System.nanoTime() + rMaxWait.toNanos();
+        Duration wait = rPollInterval;
+
+        while (true) {
+            JsonNode status = httpClient.read(
+                HttpRequest.builder()
+                    .uri(URI.create(buildApiUrl(runContext, reportRunId) + "?fields=async_status,async_percent_completion"))
+                    .method("GET")
+                    .addHeader("Authorization", "Bearer " + token),
+                "ads/status"
+            );
+
+            String asyncStatus = status.path("async_status").asText();
+            switch (asyncStatus) {
+                case "Job Completed" -> {
+                    return;
+                }
+                case "Job Failed", "Job Skipped" -> throw new RuntimeException("Ads insights report " + reportRunId + " ended with status: " + asyncStatus);
+                default -> runContext.logger().debug(
+                    "Ads insights report {} is {} ({}%)", reportRunId, asyncStatus, status.path("async_percent_completion").asInt()
+                );
+            }
+
+            if (System.nanoTime() + wait.toNanos() > deadline) {
+                throw new TimeoutException("Ads insights report " + reportRunId + " did not complete within " + rMaxWait);
+            }
+
+            Thread.sleep(wait.toMillis());
+            wait = wait.multipliedBy(2).compareTo(rMaxPollInterval) > 0 ? rMaxPollInterval : wait.multipliedBy(2);
+        }
+    }
+
+    @Builder
+    @Getter
+    public static class Output implements io.kestra.core.models.tasks.Output {
+        @Schema(title = "URI of the Ion file of report rows")
+        @JsonProperty("uri")
+        private final URI uri;
+
+        @Schema(title = "Number of rows")
+        @JsonProperty("size")
+        private final Long size;
+
+        @Schema(title = "IDs of the report runs, one per date chunk")
+        @JsonProperty("reportRunIds")
+        private final List<String> reportRunIds;
+    }
+}
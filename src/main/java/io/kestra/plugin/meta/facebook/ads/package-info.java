@@ -0,0 +1,8 @@
+@PluginSubGroup(
+    title = "Facebook Ads",
+    description = "This sub-group of plugins contains tasks to extract Facebook Marketing API reports.",
+    categories = PluginSubGroup.PluginCategory.BUSINESS
+)
+package io.kestra.plugin.meta.facebook.ads;
+
+import io.kestra.core.models.annotations.PluginSubGroup;
@@ -0,0 +1,313 @@
+package io.kestra.plugin.meta.facebook.conversions;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.kestra.core.http.HttpRequest;
+import io.kestra.core.http.HttpResponse;
+import io.kestra.core.models.annotations.Example;
+import io.kestra.core.models.annotations.Plugin;
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.flows.State;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.serializers.FileSerde;
+import io.kestra.core.serializers.JacksonMapper;
+import io.kestra.plugin.meta.MetaHttpClient;
+import io.kestra.plugin.meta.facebook.AbstractFacebookTask;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import static io.kestra.core.utils.Rethrow.throwConsumer;
+
+@SuperBuilder
+@ToString
+@EqualsAndHashCode
+@Getter
+@NoArgsConstructor
+@Schema(
+    title = "Send server events to the Meta Conversions API",
+    description = "Streams events from an Ion file in internal storage and sends them to `/{pixel_id}/events` in batches of up to 1,000 events, " +
+        "several batches in flight at once. Customer information in `user_data` (`em`, `ph`, `fn`, `ln`...) is normalized and SHA-256 hashed " +
+        "as Meta requires, unless it is already hashed, and request bodies are gzip-compressed.\n\n" +
+        "A batch Meta rejects does not stop the others: every batch is tried, the rejected ones are reported in the output along with " +
+        "their events in `failedEvents`, and the task then fails. Resend `failedEvents` rather than the whole file, and give each event " +
+        "an `event_id` (with the same `event_name`) so that Meta deduplicates events received twice."
+)
+@Plugin(
+    examples = {
+        @Example(
+            title = "Upload the purchases exported by a previous task.",
+            full = true,
+            code = """
+                id: conversions_upload
+                namespace: company.team
+
+                tasks:
+                  - id: send_purchases
+                    type: io.kestra.plugin.meta.facebook.conversions.SendEvents
+                    accessToken: "{{ secret('META_CONVERSIONS_ACCESS_TOKEN') }}"
+                    pixelId: "1234567890"
+                    from: "{{ outputs.export.uri }}"
+                    concurrency: 8
+                """
+        )
+    }
+)
+public class SendEvents extends AbstractFacebookTask {
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    @Schema(title = "Pixel ID", description = "ID of the pixel or dataset receiving the events.")
+    @NotNull
+    @PluginProperty(group = "main")
+    private Property<String> pixelId;
+
+    @Schema(
+        title = "Events",
+        description = "Internal storage URI of an Ion file with one Conversions API event per row " +
+            "(`event_name`, `event_time`, `action_source`, `user_data`, `custom_data`...)."
+    )
+    @NotNull
+    @PluginProperty(internalStorageURI = true, group = "source")
+    private Property<String> from;
+
+    @Schema(title = "Batch size", description = "Number of events per request, at most 1,000.")
+    @Builder.Default
+    @PluginProperty(group = "processing")
+    private Property<Integer> batchSize = Property.ofValue(MAX_BATCH_SIZE);
+
+    @Schema(title = "Concurrency", description = "Maximum number of batches sent at the same time.")
+    @Builder.Default
+    @PluginProperty(group = "processing")
+    private Property<Integer> concurrency = Property.ofValue(4);
+
+    @Schema(
+        title = "Hash user data",
+        description = "Whether to normalize and SHA-256 hash the customer information fields of `user_data`. " +
+            "Values that already are SHA-256 hashes are always sent as is."
+    )
+    @Builder.Default
+    @PluginProperty(group = "processing")
+    private Property<Boolean> hashUserData = Property.ofValue(true);
+
+    @Schema(title = "Compress", description = "Whether to gzip request bodies.")
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<Boolean> compress = Property.ofValue(true);
+
+    @Schema(title = "Test event code", description = "Sends the events to the Test Events tool of Events Manager instead of processing them.")
+    @PluginProperty(group = "advanced")
+    private Property<String> testEventCode;
+
+    @Override
+    public Output run(RunContext runContext) throws Exception {
+        String rPixelId = runContext.render(this.pixelId).as(String.class).orElseThrow();
+        String rToken = runContext.render(this.accessToken).as(String.class).orElseThrow();
+        URI rFrom = URI.create(runContext.render(this.from).as(String.class).orElseThrow());
+        int rBatchSize = runContext.render(this.batchSize).as(Integer.class).orElse(MAX_BATCH_SIZE);
+        int rConcurrency = runContext.render(this.concurrency).as(Integer.class).orElse(4);
+        boolean rHashUserData = runContext.render(this.hashUserData).as(Boolean.class).orElse(true);
+        boolean rCompress = runContext.render(this.compress).as(Boolean.class).orElse(true);
+        Optional<String> rTestEventCode = runContext.render(this.testEventCode).as(String.class);
+
+        if (rBatchSize < 1 || rBatchSize > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("batchSize must be between 1 and " + MAX_BATCH_SIZE + ", got " + rBatchSize);
+        }
+
+        String url = buildApiUrl(runContext, rPixelId + "/events");
+        AtomicLong eventsSent = new AtomicLong();
+        AtomicLong eventsReceived = new AtomicLong();
+        AtomicInteger batches = new AtomicInteger();
+        List<FailedBatch> failedBatches = Collections.synchronizedList(new ArrayList<>());
+        Path failedPath = runContext.workingDir().createTempFile(".ion");
+
+        try (
+            MetaHttpClient httpClient = createHttpClient(runContext);
+            OutputStream failedOutput = new BufferedOutputStream(Files.newOutputStream(failedPath), FileSerde.BUFFER_SIZE)
+        ) {
+            // hashing and serialization run on the batch workers, so they are parallel as well
+            Flux.using(
+                    () -> new BufferedReader(new InputStreamReader(runContext.storage().getFile(rFrom), StandardCharsets.UTF_8), FileSerde.BUFFER_SIZE),
+                    reader -> FileSerde.readAll(reader),
+                    throwConsumer(BufferedReader::close)
+                )
+                .buffer(rBatchSize)
+                .index()
+                .flatMap(
+                    batch -> Mono.fromCallable(() -> {
+                            List<Object> events = batch.getT2();
+                            batches.incrementAndGet();
+                            try {
+                                long received = sendBatch(httpClient, url, rToken, events, rHashUserData, rCompress, rTestEventCode.orElse(null));
+                                eventsSent.addAndGet(events.size());
+                                eventsReceived.addAndGet(received);
+                            } catch (Exception e) {
+                                // the other batches may already be accepted, so keep going and report the ones to resend
+                                runContext.logger().error("Batch {} of {} events was not sent: {}", batch.getT1(), events.size(), e.getMessage());
+                                failedBatches.add(new FailedBatch(batch.getT1().intValue(), batch.getT1() * rBatchSize, events.size(), e.getMessage()));
+                                synchronized (failedOutput) {
+                                    for (Object event : events) {
+                                        FileSerde.write(failedOutput, event);
+                                    }
+                                }
+                            }
+                            return events.size();
+                        })
+                        .subscribeOn(Schedulers.boundedElastic()),
+                    rConcurrency
+                )
+                .blockLast();
+        }
+
+        List<FailedBatch> failed = failedBatches.stream().sorted(Comparator.comparingInt(FailedBatch::getIndex)).toList();
+        long eventsFailed = failed.stream().mapToLong(FailedBatch::getEvents).sum();
+
+        runContext.logger().info(
+            "Sent {} events in {} batches, {} received by Meta, {} events in {} failed batches",
+            eventsSent.get(), batches.get(), eventsReceived.get(), eventsFailed, failed.size()
+        );
+
+        return Output.builder()
+            .eventsSent(eventsSent.get())
+            .eventsReceived(eventsReceived.get())
+            .batches(batches.get())
+            .eventsFailed(eventsFailed)
+            .failedBatches(failed)
+            .failedEvents(failed.isEmpty() ? null : runContext.storage().putFile(failedPath.toFile()))
+            .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static long sendBatch(
+        MetaHttpClient httpClient,
+        String url,
+        String token,
+        List<Object> events,
+        boolean hashUserData,
+        boolean compress,
+        String testEventCode
+    ) throws Exception {
+        List<Object> data = hashUserData
+            ? events.stream().map(event -> event instanceof Map<?, ?> map ? (Object) UserDataHasher.hashEvent((Map<String, Object>) map) : event).toList()
+            : events;
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("data", data);
+        if (testEventCode != null) {
+            payload.put("test_event_code", testEventCode);
+        }
+
+        byte[] json = JacksonMapper.ofJson().writeValueAsBytes(payload);
+
+        HttpRequest.HttpRequestBuilder request = HttpRequest.builder()
+            .uri(URI.create(url))
+            .method("POST")
+            .addHeader("Content-Type", "application/json")
+            .addHeader("Authorization", "Bearer " + token);
+
+        if (compress) {
+            request.addHeader("Content-Encoding", "gzip");
+        }
+
+        request.body(HttpRequest.ByteArrayRequestBody.builder()
+            .contentType("application/json")
+            .content(compress ? gzip(json) : json)
+            .build()
+        );
+
+        HttpResponse<String> response = httpClient.request(request.build(), "conversions/events");
+        if (response.getStatus().getCode() != 200) {
+            throw new RuntimeException("Failed to send conversion events: " + response.getStatus().getCode() + " - " + response.getBody());
+        }
+
+        JsonNode responseJson = JacksonMapper.ofJson().readTree(response.getBody());
+        return responseJson.path("events_received").asLong();
+    }
+
+    private static byte[] gzip(byte[] content) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(content.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(content);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Builder
+    @Getter
+    public static class Output implements io.kestra.core.models.tasks.Output {
+        @Schema(title = "Number of events sent in batches Meta accepted")
+        @JsonProperty("eventsSent")
+        private final Long eventsSent;
+
+        @Schema(title = "Number of events Meta reported as received")
+        @JsonProperty("eventsReceived")
+        private final Long eventsReceived;
+
+        @Schema(title = "Number of requests sent")
+        @JsonProperty("batches")
+        private final Integer batches;
+
+        @Schema(title = "Number of events in failed batches")
+        @JsonProperty("eventsFailed")
+        private final Long eventsFailed;
+
+        @Schema(title = "Batches that were not sent, in file order")
+        @JsonProperty("failedBatches")
+        private final List<FailedBatch> failedBatches;
+
+        @Schema(
+            title = "Events of the failed batches",
+            description = "Ion file with the events as read from `from`, to send again; only set when a batch failed."
+        )
+        @JsonProperty("failedEvents")
+        private final URI failedEvents;
+
+        // the outputs stay available to resend the failed events, but the task fails
+        @Override
+        public Optional<State.Type> finalState() {
+            return failedBatches == null || failedBatches.isEmpty() ? Optional.empty() : Optional.of(State.Type.FAILED);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class FailedBatch {
+        @Schema(title = "Position of the batch in the file, starting at 0")
+        private final int index;
+
+        @Schema(title = "Position in the file of the first event of the batch, starting at 0")
+        private final long firstEvent;
+
+        @Schema(title = "Number of events in the batch")
+        private final int events;
+
+        @Schema(title = "Why the batch was not sent")
+        private final String error;
+    }
+}
@@ -0,0 +1,87 @@
+package io.kestra.plugin.meta.facebook.conversions;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+
+import io.kestra.plugin.meta.MetaKv;
+
+/**
+ * Normalizes and hashes the customer information parameters of Conversions API events, following Meta's
+ * normalization rules, so that plain values can be sent from Kestra without pre-processing.
+ */
+final class UserDataHasher {
+    private static final Pattern SHA256 = Pattern.compile("[0-9a-f]{64}");
+    private static final Pattern NON_DIGITS = Pattern.compile("\\D");
+    private static final Pattern LEADING_ZEROS = Pattern.compile("^0+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s");
+
+    private static final UnaryOperator<String> LOWERCASE = value -> value.trim().toLowerCase(Locale.ROOT);
+    private static final UnaryOperator<String> LOWERCASE_NO_SPACES = value -> WHITESPACE.matcher(LOWERCASE.apply(value)).replaceAll("");
+
+    // fields Meta expects hashed, with their normalization; other user_data fields (client_ip_address, fbc, fbp...) are sent as is
+    private static final Map<String, UnaryOperator<String>> NORMALIZERS = Map.of(
+        "em", LOWERCASE,
+        "ph", value -> LEADING_ZEROS.matcher(NON_DIGITS.matcher(value).replaceAll("")).replaceAll(""),
+        "fn", LOWERCASE,
+        "ln", LOWERCASE,
+        "ge", value -> LOWERCASE.apply(value).isEmpty() ? "" : LOWERCASE.apply(value).substring(0, 1),
+        "db", value -> NON_DIGITS.matcher(value).replaceAll(""),
+        "ct", LOWERCASE_NO_SPACES,
+        "st", LOWERCASE_NO_SPACES,
+        "zp", LOWERCASE_NO_SPACES,
+        "country", LOWERCASE,
+        "external_id", String::trim
+    );
+
+    private UserDataHasher() {
+    }
+
+    /**
+     * @return a copy of the event whose {@code user_data} fields are normalized and SHA-256 hashed; values that already
+     * are SHA-256 hashes are kept
+     */
+    static Map<String, Object> hashEvent(Map<String, Object> event) {
+        if (!(event.get("user_data") instanceof Map<?, ?> userData)) {
+            return event;
+        }
+
+        Map<String, Object> hashed = new LinkedHashMap<>(event);
+        hashed.put("user_data", hash(userData));
+        return hashed;
+    }
+
+    static Map<String, Object> hash(Map<?, ?> userData) {
+        Map<String, Object> hashed = new LinkedHashMap<>();
+        userData.forEach((key, value) -> {
+            UnaryOperator<String> normalizer = NORMALIZERS.get(String.valueOf(key));
+            hashed.put(String.valueOf(key), normalizer == null ? value : hashValue(value, normalizer));
+        });
+        return hashed;
+    }
+
+    private static Object hashValue(Object value, UnaryOperator<String> normalizer) {
+        if (value instanceof List<?> values) {
+            List<Object> hashed = new ArrayList<>(values.size());
+            for (Object item : values) {
+                hashed.add(hashValue(item, normalizer));
+            }
+            return hashed;
+        }
+
+        if (value == null) {
+            return null;
+        }
+
+        String text = String.valueOf(value);
+        if (SHA256.matcher(text).matches()) {
+            return text;
+        }
+
+        return MetaKv.sha256(normalizer.apply(text));
+    }
+}
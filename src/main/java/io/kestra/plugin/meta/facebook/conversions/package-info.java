@@ -0,0 +1,8 @@
+@PluginSubGroup(
+    title = "Facebook Conversions",
+    description = "This sub-group of plugins contains tasks to send server-side events to the Meta Conversions API.",
+    categories = PluginSubGroup.PluginCategory.BUSINESS
+)
+package io.kestra.plugin.meta.facebook.conversions;
+
+import io.kestra.core.models.annotations.PluginSubGroup;
@@ -0,0 +1,8 @@
+package io.kestra.plugin.meta.facebook.enums;
+
+public enum AdsLevel {
+    ACCOUNT,
+    CAMPAIGN,
+    ADSET,
+    AD
+}
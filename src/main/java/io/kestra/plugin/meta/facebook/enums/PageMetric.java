@@ -0,0 +1,18 @@
+package io.kestra.plugin.meta.facebook.enums;
+
+public enum PageMetric {
+    PAGE_IMPRESSIONS,
+    PAGE_IMPRESSIONS_UNIQUE,
+    PAGE_IMPRESSIONS_PAID,
+    PAGE_IMPRESSIONS_ORGANIC_V2,
+    PAGE_POST_ENGAGEMENTS,
+    PAGE_FANS,
+    PAGE_FAN_ADDS,
+    PAGE_FAN_REMOVES,
+    PAGE_FOLLOWS,
+    PAGE_DAILY_FOLLOWS,
+    PAGE_DAILY_UNFOLLOWS,
+    PAGE_VIEWS_TOTAL,
+    PAGE_VIDEO_VIEWS,
+    PAGE_ACTIONS_POST_REACTIONS_TOTAL
+}
@@ -0,0 +1,242 @@
+package io.kestra.plugin.meta.facebook.pages;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.kestra.core.http.HttpRequest;
+import io.kestra.core.models.annotations.Example;
+import io.kestra.core.models.annotations.Plugin;
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.serializers.FileSerde;
+import io.kestra.core.serializers.JacksonMapper;
+import io.kestra.plugin.meta.DateRange;
+import io.kestra.plugin.meta.MetaHttpClient;
+import io.kestra.plugin.meta.ParallelIonWriter;
+import io.kestra.plugin.meta.facebook.AbstractFacebookPageTask;
+import io.kestra.plugin.meta.facebook.enums.DatePreset;
+import io.kestra.plugin.meta.facebook.enums.PageMetric;
+import io.kestra.plugin.meta.facebook.enums.Period;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+@SuperBuilder
+@ToString
+@EqualsAndHashCode
+@Getter
+@NoArgsConstructor
+@Schema(
+    title = "Get Facebook Page insights over any date range",
+    description = "Reads Page-level metrics from `/{page-id}/insights`. The API caps each `since`/`until` window at about 90 days, " +
+        "so longer ranges are split into windows fetched concurrently; values are written to one Ion file as a time series sorted by end time, one row per metric and value."
+)
+@Plugin(
+    examples = {
+        @Example(
+            title = "Export two years of daily Page impressions and engagement.",
+            full = true,
+            code = """
+                id: facebook_page_insights
+                namespace: company.team
+
+                tasks:
+                  - id: page_insights
+                    type: io.kestra.plugin.meta.facebook.pages.GetInsights
+                    pageId: "{{ secret('FACEBOOK_PAGE_ID') }}"
+                    accessToken: "{{ secret('FACEBOOK_ACCESS_TOKEN') }}"
+                    metrics:
+                      - PAGE_IMPRESSIONS
+                      - PAGE_POST_ENGAGEMENTS
+                    period: DAY
+                    since: "2024-01-01"
+                    until: "2025-12-31"
+                """
+        ),
+        @Example(
+            title = "Get last week's Page follows with a date preset.",
+            full = true,
+            code = """
+                id: facebook_page_follows
+                namespace: company.team
+
+                tasks:
+                  - id: page_follows
+                    type: io.kestra.plugin.meta.facebook.pages.GetInsights
+                    pageId: "{{ secret('FACEBOOK_PAGE_ID') }}"
+                    accessToken: "{{ secret('FACEBOOK_ACCESS_TOKEN') }}"
+                    metrics:
+                      - PAGE_DAILY_FOLLOWS
+                    datePreset: LAST_7D
+                """
+        )
+    }
+)
+public class GetInsights extends AbstractFacebookPageTask {
+    // the API rejects windows longer than 93 days
+    private static final int MAX_WINDOW_DAYS = 93;
+
+    @Schema(title = "Metrics", description = "Page metrics to request. Defaults to impressions and post engagements.")
+    @Builder.Default
+    @PluginProperty(group = "main")
+    private Property<List<PageMetric>> metrics = Property.ofValue(List.of(PageMetric.PAGE_IMPRESSIONS, PageMetric.PAGE_POST_ENGAGEMENTS));
+
+    @Schema(title = "Period", description = "Aggregation period of each value. Defaults to DAY.")
+    @Builder.Default
+    @PluginProperty(group = "main")
+    private Property<Period> period = Property.ofValue(Period.DAY);
+
+    @Schema(title = "Since", description = "First day of the range, as `yyyy-MM-dd`. Set with `until`.")
+    @PluginProperty(group = "main")
+    private Property<String> since;
+
+    @Schema(title = "Until", description = "Last day of the range, inclusive, as `yyyy-MM-dd`. Set with `since`.")
+    @PluginProperty(group = "main")
+    private Property<String> until;
+
+    @Schema(
+        title = "Date preset",
+        description = "Preset range read in a single request, used when `since` and `until` are not set."
+    )
+    @PluginProperty(group = "advanced")
+    private Property<DatePreset> datePreset;
+
+    @Schema(title = "Window size in days", description = "Length of each request window, at most 93. Defaults to 90.")
+    @Builder.Default
+    @PluginProperty(group = "processing")
+    private Property<Integer> windowDays = Property.ofValue(90);
+
+    @Schema(title = "Concurrency", description = "Maximum number of windows fetched at the same time.")
+    @Builder.Default
+    @PluginProperty(group = "processing")
+    private Property<Integer> concurrency = Property.ofValue(4);
+
+    @Override
+    public Output run(RunContext runContext) throws Exception {
+        String rPageId = runContext.render(this.pageId).as(String.class).orElseThrow();
+        String rToken = runContext.render(this.accessToken).as(String.class).orElseThrow();
+        List<PageMetric> rMetrics = runContext.render(this.metrics).asList(PageMetric.class);
+        Period rPeriod = runContext.render(this.period).as(Period.class).orElse(Period.DAY);
+        String rSince = runContext.render(this.since).as(String.class).orElse(null);
+        String rUntil = runContext.render(this.until).as(String.class).orElse(null);
+        DatePreset rDatePreset = runContext.render(this.datePreset).as(DatePreset.class).orElse(null);
+        int rWindowDays = runContext.render(this.windowDays).as(Integer.class).orElse(90);
+        int rConcurrency = runContext.render(this.concurrency).as(Integer.class).orElse(4);
+
+        if (rWindowDays > MAX_WINDOW_DAYS) {
+            throw new IllegalArgumentException("windowDays must be at most " + MAX_WINDOW_DAYS + ", got " + rWindowDays);
+        }
+
+        List<String> windows = windows(rSince, rUntil, rDatePreset, rWindowDays);
+
+        String url = buildApiUrl(runContext, rPageId + "/insights")
+            + "?metric=" + rMetrics.stream().map(metric -> metric.name().toLowerCase()).collect(Collectors.joining(","))
+            + "&period=" + rPeriod.name().toLowerCase();
+
+        try (MetaHttpClient httpClient = createHttpClient(runContext)) {
+            // paging.next of page insights points to the following time range, not to more values of this one
+            ParallelIonWriter.Result result = ParallelIonWriter.write(
+                runContext,
+                windows,
+                rConcurrency,
+                (window, output) -> {
+                    JsonNode response = httpClient.read(
+                        HttpRequest.builder()
+                            .uri(URI.create(url + window))
+                            .method("GET")
+                            .addHeader("Authorization", "Bearer " + rToken),
+                        "insights/page"
+                    );
+
+                    List<Map<String, Object>> rows = rows(response);
+                    for (Map<String, Object> row : rows) {
+                        FileSerde.write(output, row);
+                    }
+                    return rows.size();
+                }
+            );
+
+            httpClient.rows("insights/page", result.rows());
+            runContext.logger().info("Retrieved {} Page insights values over {} windows", result.rows(), windows.size());
+
+            return Output.builder()
+                .uri(runContext.storage().putFile(result.file()))
+                .size(result.rows())
+                .windows(windows.size())
+                .build();
+        }
+    }
+
+    /**
+     * @return the date parameters of each request, in chronological order
+     */
+    static List<String> windows(String since, String until, DatePreset datePreset, int windowDays) {
+        if (since != null && until != null) {
+            // until is exclusive for Page insights: the value of a day ends at the start of the next one
+            return new DateRange(LocalDate.parse(since), LocalDate.parse(until)).split(windowDays).stream()
+                .map(window -> "&since=" + window.since() + "&until=" + window.until().plusDays(1))
+                .toList();
+        }
+
+        if (since != null || until != null) {
+            throw new IllegalArgumentException("since and until must be set together");
+        }
+
+        if (datePreset == null) {
+            throw new IllegalArgumentException("Either since and until, or datePreset, must be set");
+        }
+
+        return List.of("&date_preset=" + datePreset.name().toLowerCase());
+    }
+
+    /**
+     * @return one row per metric value of an insights response, sorted by end time then metric
+     */
+    static List<Map<String, Object>> rows(JsonNode response) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+
+        for (JsonNode metric : response.path("data")) {
+            for (JsonNode value : metric.path("values")) {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("metric", metric.path("name").asText());
+                row.put("period", metric.path("period").asText());
+                row.put("endTime", value.path("end_time").asText(null));
+                row.put("value", JacksonMapper.ofJson().convertValue(value.path("value"), Object.class));
+                rows.add(row);
+            }
+        }
+
+        rows.sort(Comparator
+            .comparing((Map<String, Object> row) -> (String) row.get("endTime"), Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(row -> (String) row.get("metric"))
+        );
+        return rows;
+    }
+
+    @Builder
+    @Getter
+    public static class Output implements io.kestra.core.models.tasks.Output {
+        @Schema(title = "URI of the Ion file of insights values")
+        @JsonProperty("uri")
+        private final URI uri;
+
+        @Schema(title = "Number of values")
+        @JsonProperty("size")
+        private final Long size;
+
+        @Schema(title = "Number of requested windows")
+        @JsonProperty("windows")
+        private final Integer windows;
+    }
+}
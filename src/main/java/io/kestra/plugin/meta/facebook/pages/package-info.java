@@ -0,0 +1,8 @@
+@PluginSubGroup(
+    title = "Facebook Pages",
+    description = "This sub-group of plugins contains tasks to extract Facebook Page insights.",
+    categories = PluginSubGroup.PluginCategory.BUSINESS
+)
+package io.kestra.plugin.meta.facebook.pages;
+
+import io.kestra.core.models.annotations.PluginSubGroup;
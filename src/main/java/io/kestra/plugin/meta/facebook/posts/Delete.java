@@ -9,13 +9,14 @@ import com.fasterxml.jackson.databind.JsonNode;
 
 import io.kestra.core.http.HttpRequest;
 import io.kestra.core.http.HttpResponse;
-import io.kestra.core.http.client.HttpClient;
 import io.kestra.core.models.annotations.Example;
 import io.kestra.core.models.annotations.Plugin;
 import io.kestra.core.models.property.Property;
 import io.kestra.core.runners.RunContext;
 import io.kestra.core.serializers.JacksonMapper;
-import io.kestra.plugin.meta.facebook.AbstractFacebookTask;
+import io.kestra.plugin.meta.CircuitState;
+import io.kestra.plugin.meta.MetaHttpClient;
+import io.kestra.plugin.meta.facebook.AbstractFacebookPageTask;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotNull;
@@ -69,7 +70,7 @@ import lombok.experimental.SuperBuilder;
         )
     }
 )
-public class Delete extends AbstractFacebookTask {
+public class Delete extends AbstractFacebookPageTask {
 
     @Schema(title = "Post IDs", description = "Post identifiers in pageId_postId format to delete.")
     @NotNull
@@ -84,9 +85,7 @@ public class Delete extends AbstractFacebookTask {
         java.util.List<String> failedPostIds = new ArrayList<>();
 
         try (
-            HttpClient httpClient = HttpClient.builder()
-                .runContext(runContext)
-                .build()
+            MetaHttpClient httpClient = createHttpClient(runContext)
         ) {
 
             for (String postId : rPostIds) {
@@ -100,7 +99,7 @@ public class Delete extends AbstractFacebookTask {
                         .method("DELETE")
                         .build();
 
-                    HttpResponse<String> response = httpClient.request(request, String.class);
+                    HttpResponse<String> response = httpClient.request(request, "feed/delete");
 
                     if (response.getStatus().getCode() < 200 || response.getStatus().getCode() >= 300) {
                         runContext.logger().error(
@@ -128,6 +127,7 @@ public class Delete extends AbstractFacebookTask {
             }
 
             boolean allSuccess = failedPostIds.isEmpty();
+            httpClient.rows("feed/delete", deletedPostIds.size());
 
             return Output.builder()
                 .deletedPostIds(deletedPostIds)
@@ -135,6 +135,7 @@ public class Delete extends AbstractFacebookTask {
                 .totalDeleted(deletedPostIds.size())
                 .totalFailed(failedPostIds.size())
                 .allSuccess(allSuccess)
+                .circuitState(httpClient.circuitState("feed/delete"))
                 .build();
         }
     }
@@ -161,5 +162,12 @@ public class Delete extends AbstractFacebookTask {
         @Schema(title = "All deletions succeeded")
         @JsonProperty("allSuccess")
         private final Boolean allSuccess;
+
+        @Schema(
+            title = "Circuit breaker state",
+            description = "State of the `feed` circuit breaker when the task ended. OPEN means the API kept failing and the remaining deletions were failed fast."
+        )
+        @JsonProperty("circuitState")
+        private final CircuitState circuitState;
     }
 }
@@ -1,6 +1,7 @@
 package io.kestra.plugin.meta.facebook.posts;
 
 import java.net.URI;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.*;
 
@@ -8,14 +9,14 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.JsonNode;
 
 import io.kestra.core.http.HttpRequest;
-import io.kestra.core.http.HttpResponse;
-import io.kestra.core.http.client.HttpClient;
 import io.kestra.core.models.annotations.Example;
 import io.kestra.core.models.annotations.Plugin;
 import io.kestra.core.models.property.Property;
 import io.kestra.core.runners.RunContext;
 import io.kestra.core.serializers.JacksonMapper;
-import io.kestra.plugin.meta.facebook.AbstractFacebookTask;
+import io.kestra.plugin.meta.CircuitState;
+import io.kestra.plugin.meta.MetaHttpClient;
+import io.kestra.plugin.meta.facebook.AbstractFacebookPageTask;
 import io.kestra.plugin.meta.facebook.enums.DatePreset;
 import io.kestra.plugin.meta.facebook.enums.Period;
 import io.kestra.plugin.meta.facebook.enums.PostMetric;
@@ -119,7 +120,7 @@ import io.kestra.core.models.annotations.PluginProperty;
         )
     }
 )
-public class GetInsights extends AbstractFacebookTask {
+public class GetInsights extends AbstractFacebookPageTask {
 
     @Schema(title = "Post IDs", description = "Post identifiers in pageId_postId format to retrieve insights for.")
     @NotNull
@@ -158,15 +159,23 @@ public class GetInsights extends AbstractFacebookTask {
     @PluginProperty(group = "advanced")
     private Property<String> until = Property.ofValue(LocalDate.now().toString());
 
+    @Schema(
+        title = "Insights cache TTL",
+        description = "When set, insights are stored in the namespace KV store, keyed by post ID, metrics, period and date range, " +
+            "and reused by any execution of the namespace using the same access token for this duration instead of calling the API again. " +
+            "Lifetime metrics of old posts barely change, so a TTL of a few hours saves quota when several flows ask for them; recent posts are best read without it."
+    )
+    @PluginProperty(group = "advanced")
+    private Property<Duration> cacheTtl;
+
     @Override
     public Output run(RunContext runContext) throws Exception {
         java.util.List<String> rPostIds = runContext.render(this.postIds).asList(String.class);
         java.util.List<PostInsightsData> results = new ArrayList<>();
+        CircuitState circuitState;
 
         try (
-            HttpClient httpClient = HttpClient.builder()
-                .runContext(runContext)
-                .build()
+            MetaHttpClient httpClient = createHttpClient(runContext)
         ) {
             for (String postId : rPostIds) {
                 try {
@@ -184,6 +193,8 @@ public class GetInsights extends AbstractFacebookTask {
                     );
                 }
             }
+
+            circuitState = httpClient.circuitState("insights/post");
         }
 
         int totalInsights = results.stream().mapToInt(PostInsightsData::getTotalInsights).sum();
@@ -197,10 +208,11 @@ public class GetInsights extends AbstractFacebookTask {
             .posts(results)
             .totalPosts(results.size())
             .totalInsights(totalInsights)
+            .circuitState(circuitState)
             .build();
     }
 
-    private PostInsightsData getPostInsights(RunContext runContext, HttpClient httpClient, String postId)
+    private PostInsightsData getPostInsights(RunContext runContext, MetaHttpClient httpClient, String postId)
         throws Exception {
         String rToken = runContext.render(this.accessToken).as(String.class).orElseThrow();
         java.util.List<PostMetric> rMetrics = runContext.render(this.metrics).asList(PostMetric.class);
@@ -228,25 +240,20 @@ public class GetInsights extends AbstractFacebookTask {
 
         String fullUrl = urlBuilder.toString();
 
-        HttpRequest request = HttpRequest.builder()
+        HttpRequest.HttpRequestBuilder request = HttpRequest.builder()
             .uri(URI.create(fullUrl))
             .method("GET")
-            .addHeader("Authorization", "Bearer " + rToken)
-            .build();
+            .addHeader("Authorization", "Bearer " + rToken);
 
-        HttpResponse<String> response = httpClient.request(request, String.class);
+        Duration rCacheTtl = runContext.render(this.cacheTtl).as(Duration.class).orElse(null);
+        JsonNode responseJson = httpClient.read(request, "insights/post", rCacheTtl);
+        PostInsightsData postData = parsePostInsights(postId, responseJson, rPeriod.name().toLowerCase());
+        httpClient.rows("insights/post", postData.getTotalInsights());
 
-        if (response.getStatus().getCode() != 200) {
-            throw new RuntimeException(
-                "Failed to get post insights: " + response.getStatus().getCode() + " - " + response.getBody()
-            );
-        }
-
-        JsonNode responseJson = JacksonMapper.ofJson().readTree(response.getBody());
-        return parsePostInsights(postId, responseJson, rPeriod.name().toLowerCase());
+        return postData;
     }
 
-    private PostInsightsData parsePostInsights(String postId, JsonNode responseJson, String period) {
+    static PostInsightsData parsePostInsights(String postId, JsonNode responseJson, String period) {
         java.util.List<Map<String, Object>> insights = new ArrayList<>();
         Map<String, Object> insightsSummary = new HashMap<>();
 
@@ -289,6 +296,13 @@ public class GetInsights extends AbstractFacebookTask {
         @Schema(title = "Total insights retrieved")
         @JsonProperty("totalInsights")
         private final Integer totalInsights;
+
+        @Schema(
+            title = "Circuit breaker state",
+            description = "State of the `insights` circuit breaker when the task ended. OPEN means the API kept failing and the remaining posts were failed fast."
+        )
+        @JsonProperty("circuitState")
+        private final CircuitState circuitState;
     }
 
     @Builder
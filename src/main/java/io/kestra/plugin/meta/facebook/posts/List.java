@@ -12,8 +12,6 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.JsonNode;
 
 import io.kestra.core.http.HttpRequest;
-import io.kestra.core.http.HttpResponse;
-import io.kestra.core.http.client.HttpClient;
 import io.kestra.core.models.annotations.Example;
 import io.kestra.core.models.annotations.Plugin;
 import io.kestra.core.models.property.Property;
@@ -21,7 +19,8 @@ import io.kestra.core.models.tasks.common.FetchType;
 import io.kestra.core.runners.RunContext;
 import io.kestra.core.serializers.FileSerde;
 import io.kestra.core.serializers.JacksonMapper;
-import io.kestra.plugin.meta.facebook.AbstractFacebookTask;
+import io.kestra.plugin.meta.MetaHttpClient;
+import io.kestra.plugin.meta.facebook.AbstractFacebookPageTask;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.*;
@@ -72,7 +71,7 @@ import io.kestra.core.models.annotations.PluginProperty;
         )
     }
 )
-public class List extends AbstractFacebookTask {
+public class List extends AbstractFacebookPageTask {
 
     // The maximum number of posts that can be fetched with the Meta API
     private static final int MAX_FETCH_LIMIT = 100;
@@ -116,27 +115,16 @@ public class List extends AbstractFacebookTask {
 
         String fullUrl = urlBuilder.toString();
 
-        HttpRequest request = HttpRequest.builder()
+        HttpRequest.HttpRequestBuilder request = HttpRequest.builder()
             .uri(URI.create(fullUrl))
             .method("GET")
             .addHeader("Content-Type", "application/json")
-            .addHeader("Authorization", "Bearer " + rToken)
-            .build();
+            .addHeader("Authorization", "Bearer " + rToken);
 
         try (
-            HttpClient httpClient = HttpClient.builder()
-                .runContext(runContext)
-                .build()
+            MetaHttpClient httpClient = createHttpClient(runContext)
         ) {
-            HttpResponse<String> response = httpClient.request(request, String.class);
-
-            if (response.getStatus().getCode() != 200) {
-                throw new RuntimeException(
-                    "Failed to list posts: " + response.getStatus().getCode() + " - " + response.getBody()
-                );
-            }
-
-            JsonNode responseJson = JacksonMapper.ofJson().readTree(response.getBody());
+            JsonNode responseJson = httpClient.read(request, "feed/list");
             JsonNode dataArray = responseJson.get("data");
 
             Output.OutputBuilder output = Output.builder();
@@ -190,6 +178,7 @@ public class List extends AbstractFacebookTask {
             }
 
             output.size(size);
+            httpClient.rows("feed/list", size);
             runContext.logger().info("Successfully retrieved {} Facebook posts", size);
 
             return output.build();
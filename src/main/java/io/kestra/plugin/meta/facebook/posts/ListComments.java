@@ -0,0 +1,195 @@
+package io.kestra.plugin.meta.facebook.posts;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.kestra.core.models.annotations.Example;
+import io.kestra.core.models.annotations.Plugin;
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.serializers.FileSerde;
+import io.kestra.plugin.meta.GraphPaging;
+import io.kestra.plugin.meta.GraphTime;
+import io.kestra.plugin.meta.MetaHttpClient;
+import io.kestra.plugin.meta.ParallelIonWriter;
+import io.kestra.plugin.meta.facebook.AbstractFacebookPageTask;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+@SuperBuilder
+@NoArgsConstructor
+@Getter
+@ToString
+@EqualsAndHashCode
+@Schema(
+    title = "Export comments of Facebook posts",
+    description = "Walks the `/comments` edge of each post, several posts at a time, and streams one flattened row per comment or reply to an Ion file in internal storage. " +
+        "Set `since` to only export comments created since the previous run."
+)
+@Plugin(
+    examples = {
+        @Example(
+            title = "Export the comments posted since the previous run, then remember where it stopped.",
+            full = true,
+            code = """
+                id: facebook_comments
+                namespace: company.team
+
+                tasks:
+                  - id: comments
+                    type: io.kestra.plugin.meta.facebook.posts.ListComments
+                    accessToken: "{{ secret('FACEBOOK_ACCESS_TOKEN') }}"
+                    postIds:
+                      - "1234567890_987654321"
+                      - "1234567890_987654322"
+                    since: "{{ kv('facebook_comments_since', errorOnMissing=false) }}"
+
+                  - id: save_since
+                    type: io.kestra.plugin.core.kv.Set
+                    key: facebook_comments_since
+                    value: "{{ outputs.comments.lastCommentTime }}"
+                    runIf: "{{ outputs.comments.size > 0 }}"
+                """
+        )
+    }
+)
+public class ListComments extends AbstractFacebookPageTask {
+    private static final String FIELDS = "id,message,from{id,name},created_time,like_count,comment_count,parent{id}";
+    private static final int PAGE_SIZE = 100;
+
+    @Schema(title = "Post IDs", description = "IDs of the posts whose comments are exported, as `{page-id}_{post-id}`.")
+    @NotNull
+    @PluginProperty(group = "main")
+    private Property<java.util.List<String>> postIds;
+
+    @Schema(
+        title = "Include replies",
+        description = "Whether replies to comments are exported too, with their `parentCommentId`. Defaults to true."
+    )
+    @Builder.Default
+    @PluginProperty(group = "processing")
+    private Property<Boolean> includeReplies = Property.ofValue(true);
+
+    @Schema(
+        title = "Since",
+        description = "Only export comments created at or after this instant: Unix seconds, an ISO-8601 date-time or a date. " +
+            "Pass the `lastCommentTime` output of the previous run for incremental exports. The bound is inclusive because comment times " +
+            "only have a one-second resolution, so a comment posted in the same second as the last one exported is not missed; " +
+            "the comments of that second are exported again, deduplicate on `commentId` downstream."
+    )
+    @PluginProperty(group = "processing")
+    private Property<String> since;
+
+    @Schema(title = "Concurrency", description = "Maximum number of posts read at the same time.")
+    @Builder.Default
+    @PluginProperty(group = "processing")
+    private Property<Integer> concurrency = Property.ofValue(4);
+
+    @Override
+    public Output run(RunContext runContext) throws Exception {
+        String rToken = runContext.render(this.accessToken).as(String.class).orElseThrow();
+        java.util.List<String> rPostIds = runContext.render(this.postIds).asList(String.class);
+        boolean rIncludeReplies = runContext.render(this.includeReplies).as(Boolean.class).orElse(true);
+        Instant rSince = runContext.render(this.since).as(String.class)
+            .filter(value -> !value.isBlank())
+            .map(GraphTime::parseInstant)
+            .orElse(null);
+        int rConcurrency = runContext.render(this.concurrency).as(Integer.class).orElse(4);
+
+        // the stream filter returns replies in the same cursor as top-level comments, each with its parent,
+        // so `since` also catches new replies to old comments
+        StringBuilder query = new StringBuilder()
+            .append("?fields=").append(URLEncoder.encode(FIELDS, StandardCharsets.UTF_8))
+            .append("&filter=").append(rIncludeReplies ? "stream" : "toplevel")
+            .append("&order=chronological")
+            .append("&limit=").append(PAGE_SIZE);
+        if (rSince != null) {
+            query.append("&since=").append(rSince.getEpochSecond());
+        }
+
+        AtomicReference<Instant> lastCommentTime = new AtomicReference<>();
+
+        try (MetaHttpClient httpClient = createHttpClient(runContext)) {
+            ParallelIonWriter.Result result = ParallelIonWriter.write(
+                runContext,
+                rPostIds,
+                rConcurrency,
+                (postId, output) -> {
+                    long[] written = new long[1];
+                    GraphPaging.forEachRow(
+                        httpClient,
+                        buildApiUrl(runContext, postId + "/comments") + query,
+                        rToken,
+                        "comments/post",
+                        0,
+                        comment -> {
+                            Instant createdTime = GraphTime.parse(comment.path("created_time").asText());
+                            if (rSince != null && createdTime.isBefore(rSince)) {
+                                return;
+                            }
+
+                            FileSerde.write(output, row(postId, comment));
+                            lastCommentTime.accumulateAndGet(createdTime, (a, b) -> a == null || b.isAfter(a) ? b : a);
+                            written[0]++;
+                        }
+                    );
+                    return written[0];
+                }
+            );
+
+            httpClient.rows("comments/post", result.rows());
+            runContext.logger().info("Exported {} comments of {} Facebook posts", result.rows(), rPostIds.size());
+
+            return Output.builder()
+                .uri(runContext.storage().putFile(result.file()))
+                .size(result.rows())
+                .lastCommentTime(lastCommentTime.get())
+                .build();
+        }
+    }
+
+    static Map<String, Object> row(String postId, JsonNode comment) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("postId", postId);
+        row.put("commentId", comment.path("id").asText());
+        row.put("parentCommentId", comment.path("parent").hasNonNull("id") ? comment.path("parent").path("id").asText() : null);
+        row.put("message", comment.path("message").asText(null));
+        row.put("fromId", comment.path("from").path("id").asText(null));
+        row.put("fromName", comment.path("from").path("name").asText(null));
+        row.put("createdTime", comment.path("created_time").asText(null));
+        row.put("likeCount", comment.path("like_count").asLong());
+        row.put("replyCount", comment.path("comment_count").asLong());
+        return row;
+    }
+
+    @Builder
+    @Getter
+    public static class Output implements io.kestra.core.models.tasks.Output {
+        @Schema(title = "URI of the Ion file of comments")
+        @JsonProperty("uri")
+        private final URI uri;
+
+        @Schema(title = "Number of comments")
+        @JsonProperty("size")
+        private final Long size;
+
+        @Schema(
+            title = "Creation time of the latest exported comment",
+            description = "Empty when no comment was exported; use it as the next `since`."
+        )
+        @JsonProperty("lastCommentTime")
+        private final Instant lastCommentTime;
+    }
+}
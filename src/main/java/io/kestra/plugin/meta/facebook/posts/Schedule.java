@@ -9,13 +9,13 @@ import com.fasterxml.jackson.databind.JsonNode;
 
 import io.kestra.core.http.HttpRequest;
 import io.kestra.core.http.HttpResponse;
-import io.kestra.core.http.client.HttpClient;
 import io.kestra.core.models.annotations.Example;
 import io.kestra.core.models.annotations.Plugin;
 import io.kestra.core.models.property.Property;
 import io.kestra.core.runners.RunContext;
 import io.kestra.core.serializers.JacksonMapper;
-import io.kestra.plugin.meta.facebook.AbstractFacebookTask;
+import io.kestra.plugin.meta.MetaHttpClient;
+import io.kestra.plugin.meta.facebook.AbstractFacebookPageTask;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotNull;
@@ -71,7 +71,7 @@ import io.kestra.core.models.annotations.PluginProperty;
         )
     }
 )
-public class Schedule extends AbstractFacebookTask {
+public class Schedule extends AbstractFacebookPageTask {
 
     @Schema(title = "Post message", description = "Text content that will be published at the scheduled time.")
     @NotNull
@@ -120,11 +120,9 @@ public class Schedule extends AbstractFacebookTask {
             .build();
 
         try (
-            HttpClient httpClient = HttpClient.builder()
-                .runContext(runContext)
-                .build()
+            MetaHttpClient httpClient = createHttpClient(runContext)
         ) {
-            HttpResponse<String> response = httpClient.request(request, String.class);
+            HttpResponse<String> response = httpClient.request(request, "feed/schedule");
 
             if (response.getStatus().getCode() != 200) {
                 throw new RuntimeException(
@@ -1,9 +1,14 @@
 package io.kestra.plugin.meta.instagram;
 
+import java.time.Duration;
+
 import io.kestra.core.models.property.Property;
 import io.kestra.core.models.tasks.RunnableTask;
 import io.kestra.core.models.tasks.Task;
 import io.kestra.core.runners.RunContext;
+import io.kestra.plugin.meta.AbstractMetaConnection;
+import io.kestra.plugin.meta.MetaHttpClient;
+import io.kestra.plugin.meta.ResponseCache;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotNull;
@@ -40,9 +45,45 @@ public abstract class AbstractInstagramTask extends Task implements RunnableTask
     @PluginProperty(group = "connection")
     protected Property<String> host = Property.ofValue("https://graph.facebook.com");
 
+    @Schema(
+        title = "Options",
+        description = "The options to set to customize the HTTP client: timeouts, response size limit, connection pool and keep-alive."
+    )
+    @PluginProperty(dynamic = true, group = "advanced")
+    protected AbstractMetaConnection.RequestOptions options;
+
+    @Schema(
+        title = "Response cache",
+        description = "Where read responses are cached with their ETag so that repeated reads are revalidated with `If-None-Match` " +
+            "and an unchanged response is not downloaded and parsed again. NONE (default) disables caching; MEMORY keeps them on the worker, " +
+            "shared by every execution it runs; DISK also spills entries evicted from memory to a temporary directory of the worker. " +
+            "Cached responses may hold personal data, so only enable it for reads that are safe to keep on the worker."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    protected Property<ResponseCache> responseCache = Property.ofValue(ResponseCache.NONE);
+
+    @Schema(
+        title = "Read reuse window",
+        description = "Identical reads running at the same time on a worker, same URL and same access token, always share one request. " +
+            "When set, its result is also shared with identical reads starting within this duration after it completed, " +
+            "for example by parallel branches or `ForEach` iterations."
+    )
+    @PluginProperty(group = "advanced")
+    protected Property<Duration> reuseWindow;
+
     protected String buildApiUrl(RunContext runContext, String endpoint) throws Exception {
         String rVersion = runContext.render(this.apiVersion).as(String.class).orElse("v24.0");
         String rHost = runContext.render(this.host).as(String.class).orElse("https://graph.facebook.com");
         return String.format("%s/%s/%s", rHost, rVersion, endpoint);
     }
+
+    protected MetaHttpClient createHttpClient(RunContext runContext) throws Exception {
+        return MetaHttpClient.builder()
+            .runContext(runContext)
+            .options(this.options)
+            .responseCache(runContext.render(this.responseCache).as(ResponseCache.class).orElse(ResponseCache.NONE))
+            .reuseWindow(runContext.render(this.reuseWindow).as(Duration.class).orElse(null))
+            .build();
+    }
 }
@@ -0,0 +1,98 @@
+package io.kestra.plugin.meta.instagram;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Flattens Instagram insights responses into long-format rows, one per metric value: every value of a time series,
+ * every result of a {@code total_value} breakdown, with integral values kept as {@code long}.
+ * <p>
+ * Each row has the keys {@code metric}, {@code period}, {@code endTime}, {@code breakdown} (dimension name to value,
+ * {@code null} for totals) and {@code value}.
+ */
+public final class InsightRows {
+    private InsightRows() {
+    }
+
+    /**
+     * @param endTime the end time of rows whose value has none, such as totals over a range
+     */
+    public static List<Map<String, Object>> rows(JsonNode response, String endTime) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+
+        for (JsonNode metric : response.path("data")) {
+            String name = metric.path("name").asText();
+            String period = metric.path("period").asText(null);
+
+            for (JsonNode value : metric.path("values")) {
+                rows.add(row(name, period, value.path("end_time").asText(endTime), null, value(value.path("value"))));
+            }
+
+            JsonNode total = metric.path("total_value");
+            if (total.isMissingNode()) {
+                continue;
+            }
+
+            if (total.has("value")) {
+                rows.add(row(name, period, endTime, null, value(total.path("value"))));
+            }
+
+            for (JsonNode breakdown : total.path("breakdowns")) {
+                JsonNode keys = breakdown.path("dimension_keys");
+
+                for (JsonNode result : breakdown.path("results")) {
+                    Map<String, Object> dimensions = new LinkedHashMap<>();
+                    JsonNode values = result.path("dimension_values");
+                    for (int i = 0; i < keys.size(); i++) {
+                        dimensions.put(keys.get(i).asText(), values.path(i).asText(null));
+                    }
+
+                    rows.add(row(name, period, result.path("end_time").asText(endTime), dimensions, value(result.path("value"))));
+                }
+            }
+        }
+
+        return rows;
+    }
+
+    /**
+     * @return integral numbers as {@code long}, other numbers as {@code double}, objects as maps of values, such as
+     * the per-country values of demographics metrics
+     */
+    static Object value(JsonNode value) {
+        if (value.isIntegralNumber()) {
+            return value.asLong();
+        }
+        if (value.isNumber()) {
+            return value.asDouble();
+        }
+        if (value.isObject()) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = value.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                map.put(field.getKey(), value(field.getValue()));
+            }
+            return map;
+        }
+        if (value.isMissingNode() || value.isNull()) {
+            return null;
+        }
+        return value.asText();
+    }
+
+    private static Map<String, Object> row(String metric, String period, String endTime, Map<String, Object> breakdown, Object value) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("metric", metric);
+        row.put("period", period);
+        row.put("endTime", endTime);
+        row.put("breakdown", breakdown);
+        row.put("value", value);
+        return row;
+    }
+}
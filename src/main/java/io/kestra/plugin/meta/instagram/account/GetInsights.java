@@ -0,0 +1,257 @@
+package io.kestra.plugin.meta.instagram.account;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.kestra.core.http.HttpRequest;
+import io.kestra.core.models.annotations.Example;
+import io.kestra.core.models.annotations.Plugin;
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.serializers.FileSerde;
+import io.kestra.plugin.meta.DateRange;
+import io.kestra.plugin.meta.MetaHttpClient;
+import io.kestra.plugin.meta.ParallelIonWriter;
+import io.kestra.plugin.meta.instagram.AbstractInstagramTask;
+import io.kestra.plugin.meta.instagram.InsightRows;
+import io.kestra.plugin.meta.instagram.enums.InsightBreakdown;
+import io.kestra.plugin.meta.instagram.enums.InsightMetric;
+import io.kestra.plugin.meta.instagram.enums.InsightMetricType;
+import io.kestra.plugin.meta.instagram.enums.InsightPeriod;
+import io.kestra.plugin.meta.instagram.enums.InsightTimeframe;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+@SuperBuilder
+@ToString
+@EqualsAndHashCode
+@Getter
+@NoArgsConstructor
+@Schema(
+    title = "Collect Instagram account insights",
+    description = "Reads account-level metrics such as reach, follower count, profile views or audience demographics from `/{ig-user-id}/insights`. " +
+        "A `since`/`until` range is split into windows of at most 30 days, as the API requires, fetched in parallel; " +
+        "values are written to an Ion file in long format, one row per metric, end time and breakdown value."
+)
+@Plugin(
+    examples = {
+        @Example(
+            title = "Export daily reach and follower count for a quarter.",
+            full = true,
+            code = """
+                id: instagram_account_insights
+                namespace: company.team
+
+                tasks:
+                  - id: account_insights
+                    type: io.kestra.plugin.meta.instagram.account.GetInsights
+                    igId: "{{ secret('INSTAGRAM_ACCOUNT_ID') }}"
+                    accessToken: "{{ secret('INSTAGRAM_ACCESS_TOKEN') }}"
+                    metrics:
+                      - REACH
+                      - FOLLOWER_COUNT
+                    since: "2025-01-01"
+                    until: "2025-03-31"
+                """
+        ),
+        @Example(
+            title = "Get the follower demographics of last month by country.",
+            full = true,
+            code = """
+                id: instagram_follower_demographics
+                namespace: company.team
+
+                tasks:
+                  - id: demographics
+                    type: io.kestra.plugin.meta.instagram.account.GetInsights
+                    igId: "{{ secret('INSTAGRAM_ACCOUNT_ID') }}"
+                    accessToken: "{{ secret('INSTAGRAM_ACCESS_TOKEN') }}"
+                    metrics:
+                      - FOLLOWER_DEMOGRAPHICS
+                    period: LIFETIME
+                    metricType: TOTAL_VALUE
+                    timeframe: PREV_MONTH
+                    breakdowns:
+                      - COUNTRY
+                """
+        )
+    }
+)
+public class GetInsights extends AbstractInstagramTask {
+    // the API rejects since/until ranges longer than 30 days
+    private static final int MAX_WINDOW_DAYS = 30;
+
+    @Schema(title = "Metrics", description = "Account metrics to request. Defaults to reach and follower count.")
+    @Builder.Default
+    @PluginProperty(group = "main")
+    private Property<List<InsightMetric>> metrics = Property.ofValue(List.of(InsightMetric.REACH, InsightMetric.FOLLOWER_COUNT));
+
+    @Schema(title = "Period", description = "Aggregation period. Defaults to DAY; demographics metrics need LIFETIME.")
+    @Builder.Default
+    @PluginProperty(group = "main")
+    private Property<InsightPeriod> period = Property.ofValue(InsightPeriod.DAY);
+
+    @Schema(
+        title = "Metric type",
+        description = "TIME_SERIES returns one value per period; TOTAL_VALUE one total per window, which is required for breakdowns. " +
+            "Left unset, the API default of each metric applies."
+    )
+    @PluginProperty(group = "main")
+    private Property<InsightMetricType> metricType;
+
+    @Schema(title = "Breakdowns", description = "Dimensions to break TOTAL_VALUE metrics down by, such as COUNTRY or MEDIA_PRODUCT_TYPE.")
+    @PluginProperty(group = "main")
+    private Property<List<InsightBreakdown>> breakdowns;
+
+    @Schema(title = "Since", description = "First day of the range, as `yyyy-MM-dd`. Set with `until`.")
+    @PluginProperty(group = "main")
+    private Property<String> since;
+
+    @Schema(title = "Until", description = "Last day of the range, inclusive, as `yyyy-MM-dd`. Set with `since`.")
+    @PluginProperty(group = "main")
+    private Property<String> until;
+
+    @Schema(
+        title = "Timeframe",
+        description = "Relative range of demographics metrics, which do not accept `since` and `until`; read in a single request."
+    )
+    @PluginProperty(group = "advanced")
+    private Property<InsightTimeframe> timeframe;
+
+    @Schema(title = "Window size in days", description = "Length of each request window, at most 30.")
+    @Builder.Default
+    @PluginProperty(group = "processing")
+    private Property<Integer> windowDays = Property.ofValue(MAX_WINDOW_DAYS);
+
+    @Schema(title = "Concurrency", description = "Maximum number of windows fetched at the same time.")
+    @Builder.Default
+    @PluginProperty(group = "processing")
+    private Property<Integer> concurrency = Property.ofValue(4);
+
+    @Override
+    public Output run(RunContext runContext) throws Exception {
+        String rIgId = runContext.render(this.igId).as(String.class).orElseThrow();
+        String rToken = runContext.render(this.accessToken).as(String.class).orElseThrow();
+        List<InsightMetric> rMetrics = runContext.render(this.metrics).asList(InsightMetric.class);
+        InsightPeriod rPeriod = runContext.render(this.period).as(InsightPeriod.class).orElse(InsightPeriod.DAY);
+        InsightMetricType rMetricType = runContext.render(this.metricType).as(InsightMetricType.class).orElse(null);
+        List<InsightBreakdown> rBreakdowns = runContext.render(this.breakdowns).asList(InsightBreakdown.class);
+        String rSince = runContext.render(this.since).as(String.class).orElse(null);
+        String rUntil = runContext.render(this.until).as(String.class).orElse(null);
+        InsightTimeframe rTimeframe = runContext.render(this.timeframe).as(InsightTimeframe.class).orElse(null);
+        int rWindowDays = runContext.render(this.windowDays).as(Integer.class).orElse(MAX_WINDOW_DAYS);
+        int rConcurrency = runContext.render(this.concurrency).as(Integer.class).orElse(4);
+
+        if (rWindowDays > MAX_WINDOW_DAYS) {
+            throw new IllegalArgumentException("windowDays must be at most " + MAX_WINDOW_DAYS + ", got " + rWindowDays);
+        }
+
+        StringBuilder url = new StringBuilder(buildApiUrl(runContext, rIgId + "/insights"))
+            .append("?metric=").append(rMetrics.stream().map(metric -> metric.name().toLowerCase()).collect(Collectors.joining(",")))
+            .append("&period=").append(rPeriod.name().toLowerCase());
+        if (rMetricType != null) {
+            url.append("&metric_type=").append(rMetricType.name().toLowerCase());
+        }
+        if (!rBreakdowns.isEmpty()) {
+            url.append("&breakdown=").append(rBreakdowns.stream().map(breakdown -> breakdown.name().toLowerCase()).collect(Collectors.joining(",")));
+        }
+
+        List<Window> windows = windows(rSince, rUntil, rTimeframe, rWindowDays);
+
+        try (MetaHttpClient httpClient = createHttpClient(runContext)) {
+            ParallelIonWriter.Result result = ParallelIonWriter.write(
+                runContext,
+                windows,
+                rConcurrency,
+                (window, output) -> {
+                    JsonNode response = httpClient.read(
+                        HttpRequest.builder()
+                            .uri(URI.create(url + window.parameters()))
+                            .method("GET")
+                            .addHeader("Authorization", "Bearer " + rToken),
+                        "insights/account"
+                    );
+
+                    List<Map<String, Object>> rows = InsightRows.rows(response, window.endTime());
+                    rows.sort(Comparator.comparing(
+                        (Map<String, Object> row) -> (String) row.get("endTime"),
+                        Comparator.nullsLast(Comparator.naturalOrder())
+                    ).thenComparing(row -> (String) row.get("metric")));
+
+                    for (Map<String, Object> row : rows) {
+                        FileSerde.write(output, row);
+                    }
+                    return rows.size();
+                }
+            );
+
+            httpClient.rows("insights/account", result.rows());
+            runContext.logger().info("Retrieved {} Instagram account insights values over {} windows", result.rows(), windows.size());
+
+            return Output.builder()
+                .uri(runContext.storage().putFile(result.file()))
+                .size(result.rows())
+                .windows(windows.size())
+                .build();
+        }
+    }
+
+    /**
+     * @return the requests to send, in chronological order: one per window of a since/until range, or a single one
+     * for a timeframe or the API default range
+     */
+    static List<Window> windows(String since, String until, InsightTimeframe timeframe, int windowDays) {
+        if (since != null && until != null) {
+            // since and until are Unix timestamps, until being exclusive
+            return new DateRange(LocalDate.parse(since), LocalDate.parse(until)).split(windowDays).stream()
+                .map(window -> {
+                    long from = window.since().atStartOfDay(ZoneOffset.UTC).toEpochSecond();
+                    long to = window.until().plusDays(1).atStartOfDay(ZoneOffset.UTC).toEpochSecond();
+                    return new Window("&since=" + from + "&until=" + to, window.until().plusDays(1) + "T00:00:00+0000");
+                })
+                .toList();
+        }
+
+        if (since != null || until != null) {
+            throw new IllegalArgumentException("since and until must be set together");
+        }
+
+        return List.of(new Window(timeframe != null ? "&timeframe=" + timeframe.name().toLowerCase() : "", null));
+    }
+
+    /**
+     * @param endTime end of the window, given to totals, which have no end time of their own
+     */
+    record Window(String parameters, String endTime) {
+    }
+
+    @Builder
+    @Getter
+    public static class Output implements io.kestra.core.models.tasks.Output {
+        @Schema(
+            title = "URI of the Ion file of insights values",
+            description = "One row per value, with `metric`, `period`, `endTime`, `breakdown` and `value` keys."
+        )
+        @JsonProperty("uri")
+        private final URI uri;
+
+        @Schema(title = "Number of values")
+        @JsonProperty("size")
+        private final Long size;
+
+        @Schema(title = "Number of requested windows")
+        @JsonProperty("windows")
+        private final Integer windows;
+    }
+}
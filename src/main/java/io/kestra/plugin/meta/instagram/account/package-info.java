@@ -0,0 +1,8 @@
+@PluginSubGroup(
+    title = "Instagram Account",
+    description = "This sub-group of plugins contains tasks to extract account-level insights of Instagram professional accounts.",
+    categories = PluginSubGroup.PluginCategory.BUSINESS
+)
+package io.kestra.plugin.meta.instagram.account;
+
+import io.kestra.core.models.annotations.PluginSubGroup;
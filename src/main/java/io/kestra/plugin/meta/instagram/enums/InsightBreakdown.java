@@ -0,0 +1,11 @@
+package io.kestra.plugin.meta.instagram.enums;
+
+public enum InsightBreakdown {
+    AGE,
+    CITY,
+    COUNTRY,
+    GENDER,
+    MEDIA_PRODUCT_TYPE,
+    FOLLOW_TYPE,
+    CONTACT_BUTTON_TYPE
+}
@@ -22,5 +22,11 @@ public enum InsightMetric {
     TAPS_FORWARD,
     TAPS_BACK,
     EXITS,
-    NAVIGATION
+    NAVIGATION,
+    FOLLOWER_COUNT,
+    PROFILE_VIEWS,
+    ACCOUNTS_ENGAGED,
+    ONLINE_FOLLOWERS,
+    FOLLOWER_DEMOGRAPHICS,
+    ENGAGED_AUDIENCE_DEMOGRAPHICS
 }
\ No newline at end of file
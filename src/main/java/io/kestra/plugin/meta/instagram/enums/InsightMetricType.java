@@ -0,0 +1,6 @@
+package io.kestra.plugin.meta.instagram.enums;
+
+public enum InsightMetricType {
+    TIME_SERIES,
+    TOTAL_VALUE
+}
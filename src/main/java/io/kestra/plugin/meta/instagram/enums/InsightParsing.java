@@ -0,0 +1,6 @@
+package io.kestra.plugin.meta.instagram.enums;
+
+public enum InsightParsing {
+    FIRST_VALUE,
+    LONG
+}
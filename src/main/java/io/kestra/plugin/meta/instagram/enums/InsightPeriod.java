@@ -0,0 +1,9 @@
+package io.kestra.plugin.meta.instagram.enums;
+
+public enum InsightPeriod {
+    DAY,
+    WEEK,
+    DAYS_28,
+    MONTH,
+    LIFETIME
+}
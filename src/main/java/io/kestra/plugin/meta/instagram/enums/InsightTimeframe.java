@@ -0,0 +1,10 @@
+package io.kestra.plugin.meta.instagram.enums;
+
+public enum InsightTimeframe {
+    THIS_WEEK,
+    THIS_MONTH,
+    PREV_MONTH,
+    LAST_14_DAYS,
+    LAST_30_DAYS,
+    LAST_90_DAYS
+}
@@ -15,5 +15,6 @@ public enum MediaField {
     BOOST_ADS_LIST,
     BOOST_ELIGIBILITY_INFO,
     IS_COMMENT_ENABLED,
-    VIEW_COUNT
+    VIEW_COUNT,
+    CHILDREN
 }
@@ -11,12 +11,12 @@ import com.fasterxml.jackson.databind.JsonNode;
 
 import io.kestra.core.http.HttpRequest;
 import io.kestra.core.http.HttpResponse;
-import io.kestra.core.http.client.HttpClient;
 import io.kestra.core.models.annotations.Example;
 import io.kestra.core.models.annotations.Plugin;
 import io.kestra.core.models.property.Property;
 import io.kestra.core.runners.RunContext;
 import io.kestra.core.serializers.JacksonMapper;
+import io.kestra.plugin.meta.MetaHttpClient;
 import io.kestra.plugin.meta.instagram.AbstractInstagramTask;
 import io.kestra.plugin.meta.instagram.enums.MediaType;
 
@@ -135,11 +135,9 @@ public class CreateCarousel extends AbstractInstagramTask {
             .build();
 
         try (
-            HttpClient httpClient = HttpClient.builder()
-                .runContext(runContext)
-                .build()
+            MetaHttpClient httpClient = createHttpClient(runContext)
         ) {
-            HttpResponse<String> response = httpClient.request(request, String.class);
+            HttpResponse<String> response = httpClient.request(request, "media/container");
 
             if (response.getStatus().getCode() != 200) {
                 throw new RuntimeException(
@@ -181,11 +179,9 @@ public class CreateCarousel extends AbstractInstagramTask {
             .build();
 
         try (
-            HttpClient httpClient = HttpClient.builder()
-                .runContext(runContext)
-                .build()
+            MetaHttpClient httpClient = createHttpClient(runContext)
         ) {
-            HttpResponse<String> response = httpClient.request(request, String.class);
+            HttpResponse<String> response = httpClient.request(request, "media/container");
 
             if (response.getStatus().getCode() != 200) {
                 throw new RuntimeException(
@@ -222,11 +218,9 @@ public class CreateCarousel extends AbstractInstagramTask {
             .build();
 
         try (
-            HttpClient httpClient = HttpClient.builder()
-                .runContext(runContext)
-                .build()
+            MetaHttpClient httpClient = createHttpClient(runContext)
         ) {
-            HttpResponse<String> response = httpClient.request(request, String.class);
+            HttpResponse<String> response = httpClient.request(request, "media/publish");
 
             if (response.getStatus().getCode() != 200) {
                 throw new RuntimeException(
@@ -12,7 +12,6 @@ import com.fasterxml.jackson.databind.JsonNode;
 
 import io.kestra.core.http.HttpRequest;
 import io.kestra.core.http.HttpResponse;
-import io.kestra.core.http.client.HttpClient;
 import io.kestra.core.http.client.configurations.HttpConfiguration;
 import io.kestra.core.http.client.configurations.TimeoutConfiguration;
 import io.kestra.core.models.annotations.Example;
@@ -21,6 +20,7 @@ import io.kestra.core.models.property.Property;
 import io.kestra.core.runners.RunContext;
 import io.kestra.core.serializers.JacksonMapper;
 import io.kestra.core.utils.Await;
+import io.kestra.plugin.meta.MetaHttpClient;
 import io.kestra.plugin.meta.instagram.AbstractInstagramTask;
 import io.kestra.plugin.meta.instagram.enums.VideoType;
 
@@ -130,15 +130,10 @@ public class CreateVideo extends AbstractInstagramTask {
             .addHeader("Content-Type", "application/json")
             .build();
 
-        HttpConfiguration httpConfiguration = HttpConfiguration.builder().build();
-
         try (
-            HttpClient httpClient = HttpClient.builder()
-                .configuration(httpConfiguration)
-                .runContext(runContext)
-                .build()
+            MetaHttpClient httpClient = createHttpClient(runContext)
         ) {
-            HttpResponse<String> response = httpClient.request(request, String.class);
+            HttpResponse<String> response = httpClient.request(request, "media/container");
 
             if (response.getStatus().getCode() != 200) {
                 throw new RuntimeException("Failed to create container : " + response.getStatus().getCode());
@@ -192,12 +187,13 @@ public class CreateVideo extends AbstractInstagramTask {
                 .build();
 
             try (
-                HttpClient httpClient = HttpClient.builder()
+                MetaHttpClient httpClient = MetaHttpClient.builder()
                     .configuration(httpConfiguration)
+                    .options(options)
                     .runContext(runContext)
                     .build()
             ) {
-                HttpResponse<String> response = httpClient.request(request, String.class);
+                HttpResponse<String> response = httpClient.request(request, "media/status");
 
                 if (response.getStatus().getCode() == 200) {
                     JsonNode responseJson = JacksonMapper.ofJson().readTree(response.getBody());
@@ -243,15 +239,10 @@ public class CreateVideo extends AbstractInstagramTask {
             .addHeader("Content-Type", "application/json")
             .build();
 
-        HttpConfiguration httpConfiguration = HttpConfiguration.builder().build();
-
         try (
-            HttpClient httpClient = HttpClient.builder()
-                .configuration(httpConfiguration)
-                .runContext(runContext)
-                .build()
+            MetaHttpClient httpClient = createHttpClient(runContext)
         ) {
-            HttpResponse<String> response = httpClient.request(request, String.class);
+            HttpResponse<String> response = httpClient.request(request, "media/publish");
 
             if (response.getStatus().getCode() != 200) {
                 throw new RuntimeException(
@@ -0,0 +1,396 @@
+package io.kestra.plugin.meta.instagram.media;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.kestra.core.http.HttpRequest;
+import io.kestra.core.http.client.HttpClientException;
+import io.kestra.core.http.client.HttpClientResponseException;
+import io.kestra.core.models.annotations.Example;
+import io.kestra.core.models.annotations.Plugin;
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.serializers.FileSerde;
+import io.kestra.plugin.meta.MetaHttpClient;
+import io.kestra.plugin.meta.MetaKv;
+import io.kestra.plugin.meta.ParallelIonWriter;
+import io.kestra.plugin.meta.instagram.AbstractInstagramTask;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+@SuperBuilder
+@ToString
+@EqualsAndHashCode
+@Getter
+@NoArgsConstructor
+@Schema(
+    title = "Download Instagram media files into internal storage",
+    description = "Reads fresh CDN URLs of each media, and of each carousel item, then streams the files into internal storage, " +
+        "several media at a time. Interrupted downloads resume with a `Range` request. The SHA-256 and ETag of each file are kept " +
+        "in the namespace KV store: on later runs, a file the CDN reports as not modified, or whose content hash is unchanged, " +
+        "is not stored again."
+)
+@Plugin(
+    examples = {
+        @Example(
+            title = "Download the files of every media listed by a previous task.",
+            full = true,
+            code = """
+                id: instagram_media_download
+                namespace: company.team
+
+                tasks:
+                  - id: list_media
+                    type: io.kestra.plugin.meta.instagram.media.List
+                    igId: "{{ secret('INSTAGRAM_ACCOUNT_ID') }}"
+                    accessToken: "{{ secret('INSTAGRAM_ACCESS_TOKEN') }}"
+                    fetchType: STORE
+
+                  - id: download
+                    type: io.kestra.plugin.meta.instagram.media.Download
+                    igId: "{{ secret('INSTAGRAM_ACCOUNT_ID') }}"
+                    accessToken: "{{ secret('INSTAGRAM_ACCESS_TOKEN') }}"
+                    from: "{{ outputs.list_media.uri }}"
+                    concurrency: 8
+                """
+        )
+    }
+)
+public class Download extends AbstractInstagramTask {
+    private static final String ASSET_FIELDS = "id,media_type,media_url,thumbnail_url";
+    private static final String FIELDS = ASSET_FIELDS + ",children{" + ASSET_FIELDS + "}";
+    private static final int MAX_RESUMES = 3;
+
+    @Schema(title = "Media IDs", description = "IDs of the media to download.")
+    @PluginProperty(group = "main")
+    private Property<java.util.List<String>> mediaIds;
+
+    @Schema(
+        title = "Media IDs file",
+        description = "Internal storage URI of the media IDs to download: an Ion file whose rows have an `id`, " +
+            "such as the STORE output of `media.List`, or a text file with one ID per line."
+    )
+    @PluginProperty(internalStorageURI = true, group = "main")
+    private Property<String> from;
+
+    @Schema(title = "Include thumbnails", description = "Whether the thumbnails of videos are downloaded too. Defaults to true.")
+    @Builder.Default
+    @PluginProperty(group = "processing")
+    private Property<Boolean> includeThumbnails = Property.ofValue(true);
+
+    @Schema(title = "Concurrency", description = "Maximum number of media downloaded at the same time.")
+    @Builder.Default
+    @PluginProperty(group = "processing")
+    private Property<Integer> concurrency = Property.ofValue(4);
+
+    @Override
+    public Output run(RunContext runContext) throws Exception {
+        String rIgId = runContext.render(this.igId).as(String.class).orElseThrow();
+        String rToken = runContext.render(this.accessToken).as(String.class).orElseThrow();
+        java.util.List<String> rMediaIds = runContext.render(this.mediaIds).asList(String.class);
+        Optional<String> rFrom = runContext.render(this.from).as(String.class);
+        boolean rIncludeThumbnails = runContext.render(this.includeThumbnails).as(Boolean.class).orElse(true);
+        int rConcurrency = runContext.render(this.concurrency).as(Integer.class).orElse(4);
+
+        if (rMediaIds.isEmpty() && rFrom.isEmpty()) {
+            throw new IllegalArgumentException("One of mediaIds or from is required");
+        }
+
+        java.util.List<String> ids = GetInsights.mediaIds(runContext, rMediaIds, rFrom).collectList().block();
+        String query = "?fields=" + URLEncoder.encode(FIELDS, StandardCharsets.UTF_8);
+
+        AtomicLong downloaded = new AtomicLong();
+        AtomicLong unchanged = new AtomicLong();
+        AtomicLong bytes = new AtomicLong();
+
+        try (MetaHttpClient httpClient = createHttpClient(runContext)) {
+            ParallelIonWriter.Result result = ParallelIonWriter.write(
+                runContext,
+                ids,
+                rConcurrency,
+                (mediaId, output) -> {
+                    // CDN URLs expire, so they are read again rather than taken from a stored listing
+                    JsonNode media = httpClient.read(
+                        HttpRequest.builder()
+                            .uri(URI.create(buildApiUrl(runContext, mediaId) + query))
+                            .method("GET")
+                            .addHeader("Authorization", "Bearer " + rToken),
+                        "media/get"
+                    );
+
+                    long written = 0;
+                    for (Asset asset : assets(media, rIncludeThumbnails)) {
+                        Map<String, Object> row = download(runContext, httpClient, rIgId, asset);
+                        if ("DOWNLOADED".equals(row.get("status"))) {
+                            downloaded.incrementAndGet();
+                            bytes.addAndGet((Long) row.get("size"));
+                        } else {
+                            unchanged.incrementAndGet();
+                        }
+
+                        FileSerde.write(output, row);
+                        written++;
+                    }
+                    return written;
+                }
+            );
+
+            httpClient.rows("media/download", result.rows());
+            runContext.logger().info(
+                "Downloaded {} Instagram media files ({} bytes), {} unchanged, of {} media",
+                downloaded.get(), bytes.get(), unchanged.get(), ids.size()
+            );
+
+            return Output.builder()
+                .uri(runContext.storage().putFile(result.file()))
+                .size(result.rows())
+                .downloaded(downloaded.get())
+                .unchanged(unchanged.get())
+                .bytes(bytes.get())
+                .build();
+        }
+    }
+
+    /**
+     * @return the files of a media: its own, then those of its carousel items, each with its thumbnail for videos
+     */
+    static java.util.List<Asset> assets(JsonNode media, boolean includeThumbnails) {
+        java.util.List<Asset> assets = new ArrayList<>();
+        String mediaId = media.path("id").asText();
+
+        // the media_url of a carousel is the one of its first item
+        if (!media.has("children")) {
+            addAssets(assets, mediaId, null, media, includeThumbnails);
+        }
+        for (JsonNode child : media.path("children").path("data")) {
+            addAssets(assets, child.path("id").asText(), mediaId, child, includeThumbnails);
+        }
+
+        return assets;
+    }
+
+    private static void addAssets(java.util.List<Asset> assets, String mediaId, String parentId, JsonNode media, boolean includeThumbnails) {
+        String mediaType = media.path("media_type").asText(null);
+
+        // the media URL is missing for media with copyrighted content
+        if (media.hasNonNull("media_url")) {
+            assets.add(new Asset(mediaId, parentId, mediaType, "MEDIA", media.path("media_url").asText()));
+        }
+        if (includeThumbnails && media.hasNonNull("thumbnail_url")) {
+            assets.add(new Asset(mediaId, parentId, mediaType, "THUMBNAIL", media.path("thumbnail_url").asText()));
+        }
+    }
+
+    /**
+     * Downloads a file, unless the CDN reports it as not modified since the last run, and stores it unless its
+     * content is the same as last time.
+     *
+     * @return the row of the file
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> download(RunContext runContext, MetaHttpClient httpClient, String igId, Asset asset) throws Exception {
+        String key = MetaKv.key("meta_media_file", igId, asset.mediaId(), asset.kind());
+        Map<String, Object> previous = (Map<String, Object>) MetaKv.get(runContext, key).orElse(null);
+
+        Fetched fetched = fetch(runContext, httpClient, asset.url(), previous != null ? (String) previous.get("etag") : null);
+
+        Map<String, Object> entry;
+        String status;
+        if (fetched == null) {
+            entry = previous;
+            status = "UNCHANGED";
+        } else {
+            String sha256 = sha256(fetched.file());
+            if (previous != null && sha256.equals(previous.get("sha256"))) {
+                entry = new LinkedHashMap<>(previous);
+                status = "UNCHANGED";
+            } else {
+                entry = new LinkedHashMap<>();
+                entry.put("uri", runContext.storage().putFile(fetched.file()).toString());
+                entry.put("sha256", sha256);
+                entry.put("size", fetched.file().length());
+                status = "DOWNLOADED";
+            }
+            entry.put("etag", fetched.etag());
+            Files.deleteIfExists(fetched.file().toPath());
+
+            MetaKv.put(runContext, key, entry, null);
+        }
+
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("mediaId", asset.mediaId());
+        row.put("parentId", asset.parentId());
+        row.put("mediaType", asset.mediaType());
+        row.put("kind", asset.kind());
+        row.put("uri", entry.get("uri"));
+        row.put("size", ((Number) entry.get("size")).longValue());
+        row.put("sha256", entry.get("sha256"));
+        row.put("status", status);
+        return row;
+    }
+
+    /**
+     * Streams a file to a local file, resuming from the bytes already received with a {@code Range} request when the
+     * transfer is interrupted. The resume is conditioned by {@code If-Range} on the validator of the first response, so
+     * that a file replaced in between is downloaded again from the start rather than spliced with the old part.
+     *
+     * @param etag the ETag of the file last time, sent as {@code If-None-Match}
+     * @return the downloaded file, or {@code null} when it was not modified
+     */
+    private static Fetched fetch(RunContext runContext, MetaHttpClient httpClient, String url, String etag) throws Exception {
+        File file = runContext.workingDir().createTempFile(extension(url)).toFile();
+        AtomicReference<String> validator = new AtomicReference<>();
+        AtomicReference<String> responseEtag = new AtomicReference<>();
+
+        for (int resumes = 0; ; resumes++) {
+            long offset = file.length();
+            HttpRequest.HttpRequestBuilder request = HttpRequest.builder()
+                .uri(URI.create(url))
+                .method("GET");
+            if (offset > 0 && validator.get() != null) {
+                request.addHeader("Range", "bytes=" + offset + "-");
+                request.addHeader("If-Range", validator.get());
+            } else {
+                // without a validator the part already received cannot be trusted to match the rest
+                Files.write(file.toPath(), new byte[0]);
+                if (etag != null) {
+                    request.addHeader("If-None-Match", etag);
+                }
+            }
+
+            MetaHttpClient.Download download;
+            try (FileOutputStream stream = new FileOutputStream(file, true); OutputStream output = new BufferedOutputStream(stream)) {
+                download = httpClient.download(request.build(), "media/download", output, response -> {
+                    if (response.getStatus().getCode() != 200) {
+                        return;
+                    }
+                    // a full response, to the first request or because the file changed since: start over from it
+                    stream.getChannel().truncate(0);
+                    responseEtag.set(response.getHeaders().firstValue("ETag").orElse(null));
+                    validator.set(validator(response));
+                });
+            } catch (Exception e) {
+                if (!resumable(e) || resumes >= MAX_RESUMES) {
+                    throw e;
+                }
+                runContext.logger().warn("Download of {} interrupted after {} bytes, resuming: {}", url, file.length(), e.getMessage());
+                continue;
+            }
+
+            if (download.status() == 304) {
+                Files.deleteIfExists(file.toPath());
+                return null;
+            }
+            if (download.error() != null) {
+                throw new RuntimeException("Failed to download Instagram media file: " + download.status() + " - " + download.error());
+            }
+
+            return new Fetched(file, responseEtag.get());
+        }
+    }
+
+    /**
+     * @return the value to send as {@code If-Range} to resume the body of a response: its strong ETag, else its
+     * {@code Last-Modified} date, {@code null} when it has none and cannot be resumed safely
+     */
+    private static String validator(io.kestra.core.http.HttpResponse<?> response) {
+        Optional<String> etag = response.getHeaders().firstValue("ETag").filter(value -> !value.startsWith("W/"));
+        return etag.or(() -> response.getHeaders().firstValue("Last-Modified")).orElse(null);
+    }
+
+    /**
+     * @return whether a download failed in transit, such as a reset connection or a socket read timeout, rather than
+     * being answered with an error. Downloads have no request deadline, so when the client returns nothing is still
+     * writing to the file.
+     */
+    private static boolean resumable(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof HttpClientResponseException) {
+                return false;
+            }
+            if (cause instanceof IOException || cause instanceof HttpClientException || cause instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String sha256(File file) throws IOException {
+        MessageDigest digest = MetaKv.sha256();
+        try (InputStream input = new DigestInputStream(new FileInputStream(file), digest)) {
+            input.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static String extension(String url) {
+        String path = URI.create(url).getPath();
+        int dot = path.lastIndexOf('.');
+        return dot > path.lastIndexOf('/') ? path.substring(dot) : "";
+    }
+
+    /**
+     * A file of a media.
+     *
+     * @param parentId the carousel the media belongs to, {@code null} for top-level media
+     * @param kind MEDIA or THUMBNAIL
+     */
+    record Asset(String mediaId, String parentId, String mediaType, String kind, String url) {
+    }
+
+    private record Fetched(File file, String etag) {
+    }
+
+    @Builder
+    @Getter
+    public static class Output implements io.kestra.core.models.tasks.Output {
+        @Schema(
+            title = "URI of the Ion file of media files",
+            description = "One row per file with `mediaId`, `parentId` for carousel items, `mediaType`, `kind` (MEDIA or THUMBNAIL), " +
+                "the internal storage `uri`, `size`, `sha256` and `status`: DOWNLOADED, or UNCHANGED when the file stored by a previous run is still current."
+        )
+        @JsonProperty("uri")
+        private final URI uri;
+
+        @Schema(title = "Number of files")
+        @JsonProperty("size")
+        private final Long size;
+
+        @Schema(title = "Number of files downloaded and stored")
+        @JsonProperty("downloaded")
+        private final Long downloaded;
+
+        @Schema(title = "Number of files unchanged since a previous run")
+        @JsonProperty("unchanged")
+        private final Long unchanged;
+
+        @Schema(title = "Number of bytes stored")
+        @JsonProperty("bytes")
+        private final Long bytes;
+    }
+}
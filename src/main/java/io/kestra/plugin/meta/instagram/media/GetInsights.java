@@ -1,8 +1,21 @@
 package io.kestra.plugin.meta.instagram.media;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -10,29 +23,40 @@ import com.fasterxml.jackson.databind.JsonNode;
 
 import io.kestra.core.http.HttpRequest;
 import io.kestra.core.http.HttpResponse;
-import io.kestra.core.http.client.HttpClient;
+import io.kestra.core.http.client.HttpClientResponseException;
 import io.kestra.core.models.annotations.Example;
 import io.kestra.core.models.annotations.Plugin;
 import io.kestra.core.models.property.Property;
 import io.kestra.core.runners.RunContext;
+import io.kestra.core.serializers.FileSerde;
 import io.kestra.core.serializers.JacksonMapper;
+import io.kestra.plugin.meta.MetaHttpClient;
 import io.kestra.plugin.meta.instagram.AbstractInstagramTask;
+import io.kestra.plugin.meta.instagram.InsightRows;
 import io.kestra.plugin.meta.instagram.enums.InsightMetric;
+import io.kestra.plugin.meta.instagram.enums.InsightParsing;
 
 import io.swagger.v3.oas.annotations.media.Schema;
-import jakarta.validation.constraints.NotNull;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import io.kestra.core.models.annotations.PluginProperty;
 
+import static io.kestra.core.utils.Rethrow.throwConsumer;
+
 @SuperBuilder
 @NoArgsConstructor
 @Getter
 @Schema(
     title = "Collect Instagram media insights",
-    description = "Retrieves insight metrics such as reach, saves, likes, and comments for a specific media item using the Graph API."
+    description = "Retrieves insight metrics such as reach, saves, likes, and comments for a specific media item using the Graph API. " +
+        "Given `mediaIds` or a `from` file instead, insights of many media are fetched with Graph batch requests of 50 media, " +
+        "several at a time, and written to an Ion file with one row per media, failed media included with their error. " +
+        "Set `parsing: LONG` to keep every value of every metric, unrounded, as rows of an Ion file."
 )
 @Plugin(
     examples = {
@@ -55,16 +79,63 @@ import io.kestra.core.models.annotations.PluginProperty;
                       - SAVES
                       - REACH
                 """
+        ),
+        @Example(
+            title = "Get the insights of every media listed by a previous task.",
+            full = true,
+            code = """
+                id: instagram_all_media_insights
+                namespace: company.team
+
+                tasks:
+                  - id: list_media
+                    type: io.kestra.plugin.meta.instagram.media.List
+                    igId: "{{ secret('INSTAGRAM_ACCOUNT_ID') }}"
+                    accessToken: "{{ secret('INSTAGRAM_ACCESS_TOKEN') }}"
+                    fetchType: STORE
+
+                  - id: get_insights
+                    type: io.kestra.plugin.meta.instagram.media.GetInsights
+                    igId: "{{ secret('INSTAGRAM_ACCOUNT_ID') }}"
+                    accessToken: "{{ secret('INSTAGRAM_ACCESS_TOKEN') }}"
+                    from: "{{ outputs.list_media.uri }}"
+                    concurrency: 8
+                """
         )
     }
 )
 public class GetInsights extends AbstractInstagramTask {
 
-    @Schema(title = "Media ID", description = "Instagram media ID to query insights for.")
-    @NotNull
+    // media per Graph batch request, the API maximum
+    private static final int BATCH_SIZE = 50;
+    // a batch of reads is idempotent, so unlike other POST requests it is retried when the API or the network fails;
+    // throttling is already retried by MetaHttpClient
+    private static final int BATCH_ATTEMPTS = 3;
+    // OAuth error code of an expired or invalid access token
+    private static final int INVALID_TOKEN = 190;
+    private static final Duration BATCH_RETRY_DELAY = Duration.ofSeconds(1);
+
+    @Schema(title = "Media ID", description = "Instagram media ID to query insights for. Required unless `mediaIds` or `from` is set.")
     @PluginProperty(group = "main")
     protected Property<String> mediaId;
 
+    @Schema(title = "Media IDs", description = "Instagram media IDs to query insights for in batch mode.")
+    @PluginProperty(group = "main")
+    protected Property<List<String>> mediaIds;
+
+    @Schema(
+        title = "Media IDs file",
+        description = "Internal storage URI of the media IDs to query in batch mode: an Ion file whose rows have an `id`, " +
+            "such as the STORE output of `media.List`, or a text file with one ID per line."
+    )
+    @PluginProperty(internalStorageURI = true, group = "main")
+    protected Property<String> from;
+
+    @Schema(title = "Concurrency", description = "Maximum number of batch requests in flight in batch mode.")
+    @Builder.Default
+    @PluginProperty(group = "processing")
+    protected Property<Integer> concurrency = Property.ofValue(4);
+
     @Schema(title = "Metrics", description = "Insight metrics to fetch; defaults to likes, comments, saves, and reach.")
     @Builder.Default
     @PluginProperty(group = "advanced")
@@ -72,71 +143,86 @@ public class GetInsights extends AbstractInstagramTask {
         java.util.List.of(InsightMetric.LIKES, InsightMetric.COMMENTS, InsightMetric.SAVES, InsightMetric.REACH)
     );
 
+    @Schema(
+        title = "Parsing",
+        description = "FIRST_VALUE keeps the first value of each metric, as an integer, in the `insights` of each media. " +
+            "LONG writes one row per value instead, with `mediaId`, `metric`, `period`, `endTime`, `breakdown` and `value`: " +
+            "every value of a time series and every breakdown result, with counts kept as 64-bit integers."
+    )
+    @Builder.Default
+    @PluginProperty(group = "processing")
+    protected Property<InsightParsing> parsing = Property.ofValue(InsightParsing.FIRST_VALUE);
+
+    @Schema(
+        title = "Insights cache TTL",
+        description = "When set, the insights of a media item and metric set are kept in the namespace KV store for this duration " +
+            "and served from there to every execution of the namespace that uses the same access token. Useful for lifetime metrics of older media. " +
+            "Only supported with `mediaId`, not in batch mode."
+    )
+    @PluginProperty(group = "advanced")
+    protected Property<Duration> cacheTtl;
+
     @Override
     public Output run(RunContext runContext) throws Exception {
-        String rMediaId = runContext.render(this.mediaId).as(String.class).orElseThrow();
         String rToken = runContext.render(this.accessToken).as(String.class).orElseThrow();
         List<InsightMetric> rMetrics = runContext.render(this.metrics).asList(InsightMetric.class);
+        List<String> rMediaIds = runContext.render(this.mediaIds).asList(String.class);
+        Optional<String> rFrom = runContext.render(this.from).as(String.class);
+        InsightParsing rParsing = runContext.render(this.parsing).as(InsightParsing.class).orElse(InsightParsing.FIRST_VALUE);
 
         String metricsParam = rMetrics.stream()
             .map(metric -> metric.name().toLowerCase())
             .collect(Collectors.joining(","));
 
+        if (!rMediaIds.isEmpty() || rFrom.isPresent()) {
+            if (this.cacheTtl != null) {
+                throw new IllegalArgumentException("cacheTtl is only supported with mediaId, not with mediaIds or from");
+            }
+            return batch(runContext, mediaIds(runContext, rMediaIds, rFrom), rToken, metricsParam, rParsing);
+        }
+
+        String rMediaId = runContext.render(this.mediaId).as(String.class)
+            .orElseThrow(() -> new IllegalArgumentException("One of mediaId, mediaIds or from is required"));
+        Duration rCacheTtl = runContext.render(this.cacheTtl).as(Duration.class).orElse(null);
+
         String url = buildApiUrl(runContext, rMediaId + "/insights");
 
-        HttpRequest request = HttpRequest.builder()
+        HttpRequest.HttpRequestBuilder request = HttpRequest.builder()
             .method("GET")
             .uri(URI.create(url + "?metric=" + metricsParam))
             .addHeader("Content-Type", "application/json")
-            .addHeader("Authorization", "Bearer " + rToken)
-            .build();
+            .addHeader("Authorization", "Bearer " + rToken);
 
         try (
-            HttpClient httpClient = HttpClient.builder()
-                .runContext(runContext)
-                .build()
+            MetaHttpClient httpClient = createHttpClient(runContext)
         ) {
-            HttpResponse<String> response = httpClient.request(request, String.class);
+            JsonNode responseJson = httpClient.read(request, "insights/media", rCacheTtl);
 
-            if (response.getStatus().getCode() != 200) {
-                throw new RuntimeException(
-                    "Failed to get media insights: " + response.getStatus().getCode() + " - " + response.getBody()
-                );
-            }
+            if (rParsing == InsightParsing.LONG) {
+                List<Map<String, Object>> rows = longRows(rMediaId, responseJson);
 
-            JsonNode responseJson = JacksonMapper.ofJson().readTree(response.getBody());
-            JsonNode dataNode = responseJson.get("data");
-
-            List<Insight> insights = new ArrayList<>();
-            if (dataNode != null && dataNode.isArray()) {
-                for (JsonNode insightNode : dataNode) {
-                    String name = insightNode.has("name") ? insightNode.get("name").asText() : null;
-                    String period = insightNode.has("period") ? insightNode.get("period").asText() : null;
-                    String title = insightNode.has("title") ? insightNode.get("title").asText() : null;
-                    String description = insightNode.has("description") ? insightNode.get("description").asText()
-                        : null;
-
-                    Integer value = null;
-                    JsonNode valuesNode = insightNode.get("values");
-                    if (valuesNode != null && valuesNode.isArray() && !valuesNode.isEmpty()) {
-                        JsonNode firstValue = valuesNode.get(0);
-                        if (firstValue.has("value")) {
-                            value = firstValue.get("value").asInt();
-                        }
+                File tempFile = runContext.workingDir().createTempFile(".ion").toFile();
+                try (OutputStream output = new BufferedOutputStream(new FileOutputStream(tempFile), FileSerde.BUFFER_SIZE)) {
+                    for (Map<String, Object> row : rows) {
+                        FileSerde.write(output, row);
                     }
-
-                    Insight insight = Insight.builder()
-                        .name(name)
-                        .period(period)
-                        .title(title)
-                        .description(description)
-                        .value(value)
-                        .build();
-                    insights.add(insight);
                 }
+
+                runContext.logger().info("Successfully retrieved {} insights values for media ID: {}", rows.size(), rMediaId);
+                httpClient.rows("insights/media", rows.size());
+
+                return Output.builder()
+                    .mediaId(rMediaId)
+                    .totalInsights(rows.size())
+                    .uri(runContext.storage().putFile(tempFile))
+                    .size((long) rows.size())
+                    .build();
             }
 
+            List<Insight> insights = insights(responseJson);
+
             runContext.logger().info("Successfully retrieved insights for media ID: {}", rMediaId);
+            httpClient.rows("insights/media", insights.size());
 
             return Output.builder()
                 .mediaId(rMediaId)
@@ -146,6 +232,277 @@ public class GetInsights extends AbstractInstagramTask {
         }
     }
 
+    private Output batch(RunContext runContext, Flux<String> ids, String token, String metricsParam, InsightParsing parsing) throws Exception {
+        int rConcurrency = runContext.render(this.concurrency).as(Integer.class).orElse(4);
+        String apiUrl = buildApiUrl(runContext, "");
+        String batchUrl = apiUrl.substring(0, apiUrl.length() - 1);
+
+        File tempFile = runContext.workingDir().createTempFile(".ion").toFile();
+        AtomicLong size = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        AtomicLong totalInsights = new AtomicLong();
+        AtomicLong batches = new AtomicLong();
+        AtomicReference<String> batchError = new AtomicReference<>();
+        AtomicLong failedBatches = new AtomicLong();
+
+        try (
+            MetaHttpClient httpClient = createHttpClient(runContext);
+            OutputStream output = new BufferedOutputStream(new FileOutputStream(tempFile), FileSerde.BUFFER_SIZE)
+        ) {
+            // batches complete in any order but are written in the order of the IDs, from this single subscriber
+            ids.buffer(BATCH_SIZE)
+                .flatMapSequential(
+                    batch -> Mono.fromCallable(() -> fetchBatch(httpClient, batchUrl, token, metricsParam, parsing, batch))
+                        .subscribeOn(Schedulers.boundedElastic()),
+                    rConcurrency
+                )
+                .doOnNext(throwConsumer(batch -> {
+                    batches.incrementAndGet();
+                    if (batch.error() != null) {
+                        failedBatches.incrementAndGet();
+                        batchError.set(batch.error());
+                    }
+                    for (Map<String, Object> row : batch.rows()) {
+                        FileSerde.write(output, row);
+                        size.incrementAndGet();
+                        if (row.get("error") != null) {
+                            errors.incrementAndGet();
+                        } else if (row.get("insights") instanceof List<?> insights) {
+                            totalInsights.addAndGet(insights.size());
+                        } else {
+                            totalInsights.incrementAndGet();
+                        }
+                    }
+                }))
+                .blockLast();
+
+            httpClient.rows("insights/media", totalInsights.get());
+        }
+
+        if (batches.get() > 0 && failedBatches.get() == batches.get()) {
+            throw new RuntimeException("Failed to get Instagram media insights, every batch request failed: " + batchError.get());
+        }
+
+        runContext.logger().info("Retrieved {} insights rows, {} media failed", size.get(), errors.get());
+
+        return Output.builder()
+            .uri(runContext.storage().putFile(tempFile))
+            .size(size.get())
+            .errors(errors.get())
+            .totalInsights((int) totalInsights.get())
+            .build();
+    }
+
+    /**
+     * Sends one Graph batch request for the insights of up to {@link #BATCH_SIZE} media, retrying it when the API or
+     * the network fails. A batch that still fails gives an error row for each of its media rather than failing the task,
+     * so that the rows of the other batches are kept. An invalid access token fails the task, as every batch would fail.
+     *
+     * @return the rows of each media, in the order of {@code ids}: its insights or its error
+     */
+    private static Batch fetchBatch(
+        MetaHttpClient httpClient,
+        String batchUrl,
+        String token,
+        String metricsParam,
+        InsightParsing parsing,
+        List<String> ids
+    ) throws Exception {
+        List<Map<String, Object>> requests = ids.stream()
+            .map(id -> Map.<String, Object>of("method", "GET", "relative_url", id + "/insights?metric=" + metricsParam))
+            .toList();
+
+        HttpRequest request = HttpRequest.builder()
+            .uri(URI.create(batchUrl))
+            .method("POST")
+            .addHeader("Content-Type", "application/json")
+            .addHeader("Authorization", "Bearer " + token)
+            .body(HttpRequest.StringRequestBody.builder()
+                .content(JacksonMapper.ofJson().writeValueAsString(Map.of("batch", requests, "include_headers", false)))
+                .build()
+            )
+            .build();
+
+        String error = null;
+        JsonNode results = null;
+        for (int attempt = 0; attempt < BATCH_ATTEMPTS && results == null; attempt++) {
+            if (attempt > 0) {
+                Thread.sleep(BATCH_RETRY_DELAY.multipliedBy(1L << (attempt - 1)).toMillis());
+            }
+
+            try {
+                HttpResponse<String> response = httpClient.request(request, "insights/batch");
+                results = JacksonMapper.ofJson().readTree(response.getBody());
+            } catch (HttpClientResponseException e) {
+                int code = e.getResponse() != null ? e.getResponse().getStatus().getCode() : 0;
+                String body = MetaHttpClient.errorBody(e);
+                if (errorCode(body) == INVALID_TOKEN) {
+                    throw e;
+                }
+                error = "Batch request failed: " + code + " - " + body;
+                if (code < 500) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                error = "Batch request failed: " + e.getMessage();
+            }
+        }
+
+        if (results == null) {
+            List<Map<String, Object>> rows = new ArrayList<>(ids.size());
+            for (String id : ids) {
+                rows.add(errorRow(id, parsing, error));
+            }
+            return new Batch(rows, error);
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>(ids.size());
+
+        for (int i = 0; i < ids.size(); i++) {
+            rows.addAll(batchRows(ids.get(i), results.path(i), parsing));
+        }
+
+        return new Batch(rows, null);
+    }
+
+    private static int errorCode(String body) {
+        try {
+            return body != null ? JacksonMapper.ofJson().readTree(body).path("error").path("code").asInt() : 0;
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    /**
+     * @param error why the batch request failed, {@code null} when it succeeded, its media may still have failed individually
+     */
+    private record Batch(List<Map<String, Object>> rows, String error) {
+    }
+
+    /**
+     * @return the rows of one media of a batch: a single row with its insights or its error, or in LONG parsing one row
+     * per value, failures still giving a single row with their error
+     */
+    @SuppressWarnings("unchecked")
+    static List<Map<String, Object>> batchRows(String mediaId, JsonNode result, InsightParsing parsing) throws Exception {
+        // items the API could not process in time come back as null
+        if (result.isMissingNode() || result.isNull()) {
+            return List.of(errorRow(mediaId, parsing, "No response for this item, the batch request timed out"));
+        }
+
+        int code = result.path("code").asInt();
+        JsonNode body = JacksonMapper.ofJson().readTree(result.path("body").asText("{}"));
+
+        if (code != 200) {
+            return List.of(errorRow(mediaId, parsing, code + " - " + body.path("error").path("message").asText(result.path("body").asText())));
+        }
+
+        if (parsing == InsightParsing.LONG) {
+            return longRows(mediaId, body);
+        }
+
+        List<Map<String, Object>> insights = new ArrayList<>();
+        for (Insight insight : insights(body)) {
+            insights.add(JacksonMapper.ofJson().convertValue(insight, Map.class));
+        }
+
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("mediaId", mediaId);
+        row.put("insights", insights);
+        row.put("error", null);
+        return List.of(row);
+    }
+
+    private static Map<String, Object> errorRow(String mediaId, InsightParsing parsing, String error) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("mediaId", mediaId);
+        if (parsing == InsightParsing.LONG) {
+            row.put("metric", null);
+            row.put("period", null);
+            row.put("endTime", null);
+            row.put("breakdown", null);
+            row.put("value", null);
+        } else {
+            row.put("insights", null);
+        }
+        row.put("error", error);
+        return row;
+    }
+
+    /**
+     * @return one row per value of an insights response, see {@link InsightRows}, prefixed with the media ID
+     */
+    static List<Map<String, Object>> longRows(String mediaId, JsonNode responseJson) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Map<String, Object> value : InsightRows.rows(responseJson, null)) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("mediaId", mediaId);
+            row.putAll(value);
+            row.put("error", null);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    static List<Insight> insights(JsonNode responseJson) {
+        JsonNode dataNode = responseJson.get("data");
+
+        List<Insight> insights = new ArrayList<>();
+        if (dataNode != null && dataNode.isArray()) {
+            for (JsonNode insightNode : dataNode) {
+                String name = insightNode.has("name") ? insightNode.get("name").asText() : null;
+                String period = insightNode.has("period") ? insightNode.get("period").asText() : null;
+                String title = insightNode.has("title") ? insightNode.get("title").asText() : null;
+                String description = insightNode.has("description") ? insightNode.get("description").asText()
+                    : null;
+
+                Integer value = null;
+                JsonNode valuesNode = insightNode.get("values");
+                if (valuesNode != null && valuesNode.isArray() && !valuesNode.isEmpty()) {
+                    JsonNode firstValue = valuesNode.get(0);
+                    if (firstValue.has("value")) {
+                        value = firstValue.get("value").asInt();
+                    }
+                }
+
+                Insight insight = Insight.builder()
+                    .name(name)
+                    .period(period)
+                    .title(title)
+                    .description(description)
+                    .value(value)
+                    .build();
+                insights.add(insight);
+            }
+        }
+
+        return insights;
+    }
+
+    /**
+     * @return the media IDs listed in {@code mediaIds}, then those of the {@code from} file, read as they are consumed
+     */
+    static Flux<String> mediaIds(RunContext runContext, List<String> mediaIds, Optional<String> from) {
+        Flux<String> fromFile = from
+            .map(uri -> Flux.using(
+                    () -> new BufferedReader(new InputStreamReader(runContext.storage().getFile(URI.create(uri)), StandardCharsets.UTF_8), FileSerde.BUFFER_SIZE),
+                    reader -> uri.endsWith(".ion")
+                        ? FileSerde.readAll(reader)
+                            // rows without an id are skipped rather than queried as "null"
+                            .filter(row -> row instanceof Map<?, ?> map ? map.get("id") != null : row != null)
+                            .map(row -> row instanceof Map<?, ?> map ? String.valueOf(map.get("id")) : String.valueOf(row))
+                        : Flux.fromStream(reader.lines()).map(String::trim),
+                    throwConsumer(BufferedReader::close)
+                )
+                .filter(id -> !id.isBlank())
+            )
+            .orElse(Flux.empty());
+
+        return Flux.concat(Flux.fromIterable(mediaIds), fromFile);
+    }
+
     @Builder
     @Getter
     public static class Insight {
@@ -165,7 +522,7 @@ public class GetInsights extends AbstractInstagramTask {
         @JsonProperty("description")
         private final String description;
 
-        @Schema(title = "Metric value")
+        @Schema(title = "Metric value", description = "First value of the metric; use LONG parsing for counts beyond the integer range.")
         @JsonProperty("value")
         private final Integer value;
     }
@@ -184,5 +541,21 @@ public class GetInsights extends AbstractInstagramTask {
         @Schema(title = "Total insights")
         @JsonProperty("totalInsights")
         private final Integer totalInsights;
+
+        @Schema(
+            title = "URI of the Ion file of insights (batch mode or LONG parsing)",
+            description = "One row per media with `mediaId`, `insights` and `error`, which is set when the insights of this media could not be read; " +
+                "with LONG parsing, one row per value with `mediaId`, `metric`, `period`, `endTime`, `breakdown`, `value` and `error`."
+        )
+        @JsonProperty("uri")
+        private final URI uri;
+
+        @Schema(title = "Number of rows of the Ion file (batch mode or LONG parsing)")
+        @JsonProperty("size")
+        private final Long size;
+
+        @Schema(title = "Number of media whose insights could not be read (batch mode)")
+        @JsonProperty("errors")
+        private final Long errors;
     }
 }
@@ -5,24 +5,22 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.OutputStream;
 import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.JsonNode;
 
 import io.kestra.core.http.HttpRequest;
-import io.kestra.core.http.HttpResponse;
-import io.kestra.core.http.client.HttpClient;
 import io.kestra.core.models.annotations.Example;
 import io.kestra.core.models.annotations.Plugin;
 import io.kestra.core.models.property.Property;
 import io.kestra.core.models.tasks.common.FetchType;
 import io.kestra.core.runners.RunContext;
 import io.kestra.core.serializers.FileSerde;
-import io.kestra.core.serializers.JacksonMapper;
+import io.kestra.plugin.meta.MetaHttpClient;
 import io.kestra.plugin.meta.instagram.AbstractInstagramTask;
 import io.kestra.plugin.meta.instagram.enums.MediaField;
 
@@ -77,7 +75,11 @@ public class List extends AbstractInstagramTask {
     @PluginProperty(group = "processing")
     protected Property<Integer> limit = Property.ofValue(DEFAULT_MEDIA_LIMIT);
 
-    @Schema(title = "Fields", description = "Fields to return for each media item (Graph field names).")
+    @Schema(
+        title = "Fields",
+        description = "Fields to request and return for each media item. Only these fields are transferred, and each row has exactly these keys, in camelCase: " +
+            "counts as numbers, flags as booleans. CHILDREN expands the items of a carousel with `childrenFields`."
+    )
     @Builder.Default
     protected Property<java.util.List<MediaField>> fields = Property.ofValue(
         java.util.List.of(
@@ -91,6 +93,12 @@ public class List extends AbstractInstagramTask {
         )
     );
 
+    @Schema(title = "Children fields", description = "Fields returned for each item of a carousel when CHILDREN is requested.")
+    @Builder.Default
+    protected Property<java.util.List<MediaField>> childrenFields = Property.ofValue(
+        java.util.List.of(MediaField.ID, MediaField.MEDIA_TYPE, MediaField.MEDIA_URL)
+    );
+
     @Schema(
         title = "Fetch strategy",
         description = "FETCH (default) returns all rows; FETCH_ONE returns the first; STORE writes rows to storage as Ion and returns the URI; NONE only counts items."
@@ -105,36 +113,23 @@ public class List extends AbstractInstagramTask {
         String rToken = runContext.render(this.accessToken).as(String.class).orElseThrow();
         Integer rLimit = runContext.render(this.limit).as(Integer.class).orElse(DEFAULT_MEDIA_LIMIT);
         java.util.List<MediaField> rFields = runContext.render(this.fields).asList(MediaField.class);
+        java.util.List<MediaField> rChildrenFields = runContext.render(this.childrenFields).asList(MediaField.class);
         FetchType rFetchType = runContext.render(this.fetchType).as(FetchType.class).orElse(FetchType.FETCH);
 
-        String fieldsParam = rFields.stream()
-            .map(field -> field.name().toLowerCase())
-            .collect(Collectors.joining(","));
+        MediaProjection projection = new MediaProjection(rFields, rChildrenFields);
 
         String url = buildApiUrl(runContext, rIgId + "/media");
 
-        HttpRequest request = HttpRequest.builder()
+        HttpRequest.HttpRequestBuilder request = HttpRequest.builder()
             .method("GET")
-            .uri(URI.create(url + "?fields=" + fieldsParam + "&limit=" + rLimit))
+            .uri(URI.create(url + "?fields=" + URLEncoder.encode(projection.fieldsParam(), StandardCharsets.UTF_8) + "&limit=" + rLimit))
             .addHeader("Content-Type", "application/json")
-            .addHeader("Authorization", "Bearer " + rToken)
-            .build();
+            .addHeader("Authorization", "Bearer " + rToken);
 
         try (
-            HttpClient httpClient = HttpClient.builder()
-                .runContext(runContext)
-                .build()
+            MetaHttpClient httpClient = createHttpClient(runContext)
         ) {
-            HttpResponse<String> response = httpClient.request(request, String.class);
-
-            if (response.getStatus().getCode() != 200) {
-                throw new RuntimeException(
-                    "Failed to list media: " + response.getStatus().getCode() + " - "
-                        + response.getBody()
-                );
-            }
-
-            JsonNode responseJson = JacksonMapper.ofJson().readTree(response.getBody());
+            JsonNode responseJson = httpClient.read(request, "media/list");
             JsonNode dataNode = responseJson.get("data");
 
             Output.OutputBuilder output = Output.builder();
@@ -144,7 +139,7 @@ public class List extends AbstractInstagramTask {
                 case FETCH_ONE -> {
                     Map<String, Object> result = null;
                     if (dataNode != null && dataNode.isArray() && !dataNode.isEmpty()) {
-                        result = convertNodeToMap(dataNode.get(0));
+                        result = projection.project(dataNode.get(0));
                     }
                     size = result == null ? 0L : 1L;
                     output.row(result);
@@ -159,7 +154,7 @@ public class List extends AbstractInstagramTask {
                     ) {
                         if (dataNode != null && dataNode.isArray()) {
                             for (JsonNode mediaNode : dataNode) {
-                                Map<String, Object> map = convertNodeToMap(mediaNode);
+                                Map<String, Object> map = projection.project(mediaNode);
                                 FileSerde.write(fileOutputStream, map);
                                 size++;
                             }
@@ -171,7 +166,7 @@ public class List extends AbstractInstagramTask {
                     java.util.List<Map<String, Object>> maps = new ArrayList<>();
                     if (dataNode != null && dataNode.isArray()) {
                         for (JsonNode mediaNode : dataNode) {
-                            maps.add(convertNodeToMap(mediaNode));
+                            maps.add(projection.project(mediaNode));
                             size++;
                         }
                     }
@@ -185,24 +180,13 @@ public class List extends AbstractInstagramTask {
             }
 
             output.size(size);
+            httpClient.rows("media/list", size);
             runContext.logger().info("Successfully retrieved {} media items", size);
 
             return output.build();
         }
     }
 
-    private Map<String, Object> convertNodeToMap(JsonNode mediaNode) {
-        Map<String, Object> map = new HashMap<>();
-        map.put("id", mediaNode.has("id") ? mediaNode.get("id").asText() : null);
-        map.put("mediaType", mediaNode.has("media_type") ? mediaNode.get("media_type").asText() : null);
-        map.put("mediaUrl", mediaNode.has("media_url") ? mediaNode.get("media_url").asText() : null);
-        map.put("permalink", mediaNode.has("permalink") ? mediaNode.get("permalink").asText() : null);
-        map.put("thumbnailUrl", mediaNode.has("thumbnail_url") ? mediaNode.get("thumbnail_url").asText() : null);
-        map.put("timestamp", mediaNode.has("timestamp") ? mediaNode.get("timestamp").asText() : null);
-        map.put("caption", mediaNode.has("caption") ? mediaNode.get("caption").asText() : null);
-        return map;
-    }
-
     @Builder
     @Getter
     public static class Output implements io.kestra.core.models.tasks.Output {
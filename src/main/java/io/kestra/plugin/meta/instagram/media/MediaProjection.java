@@ -0,0 +1,86 @@
+package io.kestra.plugin.meta.instagram.media;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.kestra.core.serializers.JacksonMapper;
+import io.kestra.plugin.meta.instagram.enums.MediaField;
+
+/**
+ * Projection of Graph media objects onto the requested {@link MediaField}s: builds the {@code fields} parameter so
+ * that only those fields are transferred, and maps each of them to a camelCase key with a typed value.
+ * <p>
+ * {@link MediaField#CHILDREN} expands the items of a carousel as {@code children{...}} with their own fields.
+ */
+final class MediaProjection {
+    private final java.util.List<MediaField> fields;
+    private final java.util.List<MediaField> childFields;
+
+    MediaProjection(java.util.List<MediaField> fields, java.util.List<MediaField> childFields) {
+        this.fields = fields.stream().distinct().toList();
+        // carousel items cannot have children of their own
+        this.childFields = childFields.stream().distinct().filter(field -> field != MediaField.CHILDREN).toList();
+    }
+
+    /**
+     * @return the value of the Graph API {@code fields} parameter, for example {@code id,media_type,children{id,media_url}}
+     */
+    String fieldsParam() {
+        return fields.stream()
+            .map(field -> field == MediaField.CHILDREN ? "children{" + join(childFields) + "}" : graphName(field))
+            .collect(Collectors.joining(","));
+    }
+
+    /**
+     * @return the requested fields of a media object, {@code null} for those the API did not return
+     */
+    Map<String, Object> project(JsonNode media) {
+        return project(media, fields);
+    }
+
+    private Map<String, Object> project(JsonNode media, java.util.List<MediaField> projected) {
+        Map<String, Object> row = new LinkedHashMap<>(projected.size() * 2);
+        for (MediaField field : projected) {
+            JsonNode value = media.get(graphName(field));
+            row.put(key(field), value == null || value.isNull() ? null : value(field, value));
+        }
+        return row;
+    }
+
+    private Object value(MediaField field, JsonNode value) {
+        return switch (field) {
+            case COMMENTS_COUNT, LIKE_COUNT, VIEW_COUNT -> value.asLong();
+            case IS_SHARED_TO_FEED, IS_COMMENT_ENABLED -> value.asBoolean();
+            case BOOST_ADS_LIST, BOOST_ELIGIBILITY_INFO -> JacksonMapper.ofJson().convertValue(value, Object.class);
+            case CHILDREN -> {
+                java.util.List<Map<String, Object>> children = new ArrayList<>();
+                for (JsonNode child : value.path("data")) {
+                    children.add(project(child, childFields));
+                }
+                yield children;
+            }
+            default -> value.asText();
+        };
+    }
+
+    private static String join(java.util.List<MediaField> fields) {
+        return fields.stream().map(MediaProjection::graphName).collect(Collectors.joining(","));
+    }
+
+    private static String graphName(MediaField field) {
+        return field.name().toLowerCase();
+    }
+
+    static String key(MediaField field) {
+        String[] words = field.name().toLowerCase().split("_");
+        StringBuilder key = new StringBuilder(words[0]);
+        for (int i = 1; i < words.length; i++) {
+            key.append(Character.toUpperCase(words[i].charAt(0))).append(words[i].substring(1));
+        }
+        return key.toString();
+    }
+}
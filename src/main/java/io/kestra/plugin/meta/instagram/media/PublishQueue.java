@@ -0,0 +1,496 @@
+package io.kestra.plugin.meta.instagram.media;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.kestra.core.http.HttpRequest;
+import io.kestra.core.http.HttpResponse;
+import io.kestra.core.http.client.HttpClientResponseException;
+import io.kestra.core.models.annotations.Example;
+import io.kestra.core.models.annotations.Plugin;
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.serializers.JacksonMapper;
+import io.kestra.core.utils.Await;
+import io.kestra.plugin.meta.KvQueue;
+import io.kestra.plugin.meta.MetaHttpClient;
+import io.kestra.plugin.meta.MetaKv;
+import io.kestra.plugin.meta.instagram.AbstractInstagramTask;
+import io.kestra.plugin.meta.instagram.enums.MediaType;
+import io.kestra.plugin.meta.instagram.enums.VideoType;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import lombok.extern.jackson.Jacksonized;
+
+@SuperBuilder
+@ToString
+@EqualsAndHashCode
+@Getter
+@NoArgsConstructor
+@Schema(
+    title = "Publish Instagram posts within the publishing quota",
+    description = "Queues posts in the namespace KV store and publishes them as the rolling 24-hour publishing limit of the account allows. " +
+        "The remaining quota is read once from `/{ig-user-id}/content_publishing_limit`; containers are created up front for the posts " +
+        "that fit in it only, so that no upload is processed for a post that cannot be published. Posts beyond the quota stay queued " +
+        "for later runs, which also drain the queue when called without new `posts`.\n\n" +
+        "Each post is claimed before its container is created and until it is published, so that runs of the same queue that overlap, " +
+        "such as a scheduled drain and a run adding posts, never create or publish it twice: a post claimed by another run is left to it. " +
+        "A run that crashes holds its posts until its claim expires, after `processingTimeout` per post it claimed."
+)
+@Plugin(
+    examples = {
+        @Example(
+            title = "Queue an image and a reel, publishing them now if the quota allows.",
+            full = true,
+            code = """
+                id: instagram_publish_queue
+                namespace: company.team
+
+                tasks:
+                  - id: publish
+                    type: io.kestra.plugin.meta.instagram.media.PublishQueue
+                    igId: "{{ secret('INSTAGRAM_ACCOUNT_ID') }}"
+                    accessToken: "{{ secret('INSTAGRAM_ACCESS_TOKEN') }}"
+                    posts:
+                      - imageUrl: "https://example.com/image.jpg"
+                        caption: "New collection"
+                      - videoUrl: "https://example.com/video.mp4"
+                        videoType: REELS
+                        caption: "Behind the scenes"
+                """
+        ),
+        @Example(
+            title = "Drain the queue every hour, as the rolling publishing limit frees up.",
+            full = true,
+            code = """
+                id: instagram_publish_queue_drain
+                namespace: company.team
+
+                tasks:
+                  - id: drain
+                    type: io.kestra.plugin.meta.instagram.media.PublishQueue
+                    igId: "{{ secret('INSTAGRAM_ACCOUNT_ID') }}"
+                    accessToken: "{{ secret('INSTAGRAM_ACCESS_TOKEN') }}"
+
+                triggers:
+                  - id: hourly
+                    type: io.kestra.plugin.core.trigger.Schedule
+                    cron: "0 * * * *"
+                """
+        )
+    }
+)
+public class PublishQueue extends AbstractInstagramTask {
+    private static final String QUEUE_PREFIX = "meta_publish";
+    private static final String DEAD_LETTER_PREFIX = "meta_publish_deadletter";
+    // containers that are not published within 24 hours expire
+    private static final Duration CONTAINER_LIFETIME = Duration.ofHours(23);
+    // added to the claim of the posts of a run, for the requests around container processing
+    private static final Duration CLAIM_MARGIN = Duration.ofMinutes(10);
+
+    @Schema(
+        title = "Posts",
+        description = "Posts to add to the queue, each with either an `imageUrl`, a `videoUrl` with its `videoType`, or the `mediaUrls` of a carousel, " +
+            "and an optional `caption`. Queued posts are published oldest first."
+    )
+    @PluginProperty(group = "main")
+    private Property<java.util.List<Post>> posts;
+
+    @Schema(title = "Queue", description = "Name of the queue, to keep several independent queues for the same account.")
+    @Builder.Default
+    @PluginProperty(group = "main")
+    private Property<String> queue = Property.ofValue("default");
+
+    @Schema(title = "Max attempts", description = "Number of failed publications after which a post is moved to a dead-letter KV key.")
+    @Builder.Default
+    @PluginProperty(group = "processing")
+    private Property<Integer> maxAttempts = Property.ofValue(3);
+
+    @Schema(title = "Poll interval", description = "Interval between two checks of the processing status of a container.")
+    @Builder.Default
+    @PluginProperty(group = "processing")
+    private Property<Duration> pollInterval = Property.ofValue(Duration.ofSeconds(10));
+
+    @Schema(title = "Processing timeout", description = "How long to wait for a container to be processed before trying again on the next run.")
+    @Builder.Default
+    @PluginProperty(group = "processing")
+    private Property<Duration> processingTimeout = Property.ofValue(Duration.ofMinutes(5));
+
+    @Override
+    public Output run(RunContext runContext) throws Exception {
+        String rIgId = runContext.render(this.igId).as(String.class).orElseThrow();
+        String rToken = runContext.render(this.accessToken).as(String.class).orElseThrow();
+        java.util.List<Post> rPosts = runContext.render(this.posts).asList(Post.class);
+        String rQueue = runContext.render(this.queue).as(String.class).orElse("default");
+        int rMaxAttempts = runContext.render(this.maxAttempts).as(Integer.class).orElse(3);
+        Duration rPollInterval = runContext.render(this.pollInterval).as(Duration.class).orElse(Duration.ofSeconds(10));
+        Duration rProcessingTimeout = runContext.render(this.processingTimeout).as(Duration.class).orElse(Duration.ofMinutes(5));
+
+        String queueKey = MetaKv.key(QUEUE_PREFIX, rIgId, rQueue);
+        String deadLetterKey = MetaKv.key(DEAD_LETTER_PREFIX, rIgId, rQueue);
+        enqueue(runContext, queueKey, rPosts);
+
+        java.util.List<String> keys = KvQueue.keys(runContext, queueKey);
+
+        java.util.List<String> published = new ArrayList<>();
+        java.util.List<KvQueue.Lease> leases = new ArrayList<>();
+        int containersCreated = 0;
+        int failed = 0;
+        int remaining;
+
+        try (MetaHttpClient httpClient = createHttpClient(runContext)) {
+            remaining = remainingQuota(runContext, httpClient, rIgId, rToken);
+            Duration claim = rProcessingTimeout.multipliedBy(Math.min(remaining, keys.size())).plus(CLAIM_MARGIN);
+
+            try {
+                // every container is created before the first publication, so that their processing overlaps
+                Map<String, Map<String, Object>> entries = new LinkedHashMap<>();
+                for (String key : keys) {
+                    if (entries.size() >= remaining) {
+                        break;
+                    }
+
+                    Optional<KvQueue.Lease> lease = KvQueue.claim(runContext, key, claim);
+                    if (lease.isEmpty()) {
+                        runContext.logger().debug("Queued post {} is claimed by another run, skipping it", key);
+                        continue;
+                    }
+                    leases.add(lease.get());
+
+                    // published by another run since the queue was read
+                    Optional<Map<String, Object>> value = KvQueue.get(runContext, key);
+                    if (value.isEmpty()) {
+                        continue;
+                    }
+
+                    Map<String, Object> entry = new HashMap<>(value.get());
+                    if (!hasLiveContainer(entry)) {
+                        try {
+                            entry.put("containerId", createContainer(runContext, httpClient, rIgId, rToken, post(entry)));
+                            entry.put("containerCreatedAt", Instant.now().toString());
+                            containersCreated++;
+                        } catch (QuotaExceededException e) {
+                            runContext.logger().warn("Publishing limit reached, the remaining posts stay queued: {}", e.getMessage());
+                            remaining = 0;
+                            entries.clear();
+                            break;
+                        } catch (RuntimeException e) {
+                            entry.put("containerId", null);
+                            entry.put("lastError", e.getMessage());
+                        }
+                        KvQueue.update(runContext, key, entry);
+                    }
+                    entries.put(key, entry);
+                }
+
+                for (Map.Entry<String, Map<String, Object>> queued : entries.entrySet()) {
+                    String key = queued.getKey();
+                    Map<String, Object> entry = queued.getValue();
+
+                    try {
+                        if (entry.get("containerId") == null) {
+                            throw new RuntimeException((String) entry.get("lastError"));
+                        }
+                        String containerId = (String) entry.get("containerId");
+                        String status = waitForContainer(runContext, httpClient, rToken, containerId, rPollInterval, rProcessingTimeout);
+                        if (!"FINISHED".equals(status)) {
+                            // a container that failed or expired is created again on the next attempt
+                            entry.put("containerId", null);
+                            throw new RuntimeException("Container " + containerId + " is " + status);
+                        }
+
+                        String mediaId = publish(runContext, httpClient, rIgId, rToken, containerId);
+                        KvQueue.remove(runContext, key);
+                        published.add(mediaId);
+                        remaining--;
+                    } catch (QuotaExceededException e) {
+                        runContext.logger().warn("Publishing limit reached, the remaining posts stay queued: {}", e.getMessage());
+                        remaining = 0;
+                        break;
+                    } catch (Exception e) {
+                        int attempts = ((Number) entry.getOrDefault("attempts", 0)).intValue() + 1;
+                        entry.put("attempts", attempts);
+                        entry.put("lastError", e.getMessage());
+
+                        if (attempts >= rMaxAttempts) {
+                            runContext.logger().error("Failed to publish queued post after {} attempts, moving it to the dead-letter queue: {}", attempts, e.getMessage());
+                            KvQueue.append(runContext, deadLetterKey, entry);
+                            KvQueue.remove(runContext, key);
+                            failed++;
+                        } else {
+                            runContext.logger().warn("Failed to publish queued post (attempt {}/{}): {}", attempts, rMaxAttempts, e.getMessage());
+                            KvQueue.update(runContext, key, entry);
+                        }
+                    }
+                }
+            } finally {
+                for (KvQueue.Lease lease : leases) {
+                    KvQueue.release(runContext, lease);
+                }
+            }
+        }
+
+        // read again, as other runs may have added or published posts meanwhile
+        int pending = KvQueue.keys(runContext, queueKey).size();
+        runContext.logger().info("Published {} Instagram posts, {} still queued, {} left in the publishing quota", published.size(), pending, remaining);
+
+        return Output.builder()
+            .mediaIds(published)
+            .pending(pending)
+            .failed(failed)
+            .containersCreated(containersCreated)
+            .quotaRemaining(Math.max(remaining, 0))
+            .build();
+    }
+
+    /**
+     * Adds posts to the queue, see {@link KvQueue}.
+     */
+    private static void enqueue(RunContext runContext, String queue, java.util.List<Post> posts) throws Exception {
+        for (Post post : posts) {
+            post.validate();
+        }
+
+        for (Post post : posts) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("post", JacksonMapper.ofJson().convertValue(post, Map.class));
+            entry.put("containerId", null);
+            entry.put("attempts", 0);
+            entry.put("enqueuedAt", Instant.now().toString());
+
+            KvQueue.append(runContext, queue, entry);
+        }
+    }
+
+    private int remainingQuota(RunContext runContext, MetaHttpClient httpClient, String igId, String token) throws Exception {
+        JsonNode response = httpClient.read(
+            HttpRequest.builder()
+                .uri(URI.create(buildApiUrl(runContext, igId + "/content_publishing_limit") + "?fields=quota_usage,config"))
+                .method("GET")
+                .addHeader("Authorization", "Bearer " + token),
+            "media/quota"
+        );
+
+        JsonNode limit = response.path("data").path(0);
+        int total = limit.path("config").path("quota_total").asInt(100);
+        int usage = limit.path("quota_usage").asInt();
+        return Math.max(total - usage, 0);
+    }
+
+    private String createContainer(RunContext runContext, MetaHttpClient httpClient, String igId, String token, Post post) throws Exception {
+        Map<String, Object> containerData = new HashMap<>();
+
+        if (post.getImageUrl() != null) {
+            containerData.put("image_url", post.getImageUrl());
+        } else if (post.getVideoUrl() != null) {
+            containerData.put("video_url", post.getVideoUrl());
+            containerData.put("media_type", (post.getVideoType() != null ? post.getVideoType() : VideoType.VIDEO).name());
+        } else {
+            java.util.List<String> children = new ArrayList<>();
+            for (String mediaUrl : post.getMediaUrls()) {
+                Map<String, Object> child = new HashMap<>();
+                child.put("is_carousel_item", true);
+                if (mediaUrl.toLowerCase().endsWith(".mp4") || mediaUrl.toLowerCase().endsWith(".mov")) {
+                    child.put("video_url", mediaUrl);
+                    child.put("media_type", "VIDEO");
+                } else {
+                    child.put("image_url", mediaUrl);
+                }
+                children.add(postContainer(runContext, httpClient, igId, token, child));
+            }
+
+            containerData.put("media_type", MediaType.CAROUSEL.name());
+            containerData.put("children", String.join(",", children));
+        }
+
+        if (post.getCaption() != null) {
+            containerData.put("caption", post.getCaption());
+        }
+
+        return postContainer(runContext, httpClient, igId, token, containerData);
+    }
+
+    private String postContainer(RunContext runContext, MetaHttpClient httpClient, String igId, String token, Map<String, Object> containerData) throws Exception {
+        HttpResponse<String> response;
+        try {
+            response = httpClient.request(json(buildApiUrl(runContext, igId + "/media"), token, containerData), "media/container");
+        } catch (HttpClientResponseException e) {
+            throw graphError("Failed to create media container", e);
+        }
+
+        return JacksonMapper.ofJson().readTree(response.getBody()).get("id").asText();
+    }
+
+    /**
+     * @return the final status of the container: FINISHED, ERROR or EXPIRED
+     */
+    private String waitForContainer(
+        RunContext runContext,
+        MetaHttpClient httpClient,
+        String token,
+        String containerId,
+        Duration pollInterval,
+        Duration timeout
+    ) throws Exception {
+        HttpRequest request = HttpRequest.builder()
+            .method("GET")
+            .uri(URI.create(buildApiUrl(runContext, containerId) + "?fields=status_code"))
+            .addHeader("Authorization", "Bearer " + token)
+            .build();
+
+        AtomicReference<String> status = new AtomicReference<>();
+        Await.until(
+            () -> {
+                try {
+                    HttpResponse<String> response = httpClient.request(request, "media/status");
+                    if (response.getStatus().getCode() == 200) {
+                        status.set(JacksonMapper.ofJson().readTree(response.getBody()).path("status_code").asText(null));
+                    }
+                } catch (Exception e) {
+                    runContext.logger().debug("Failed to read the status of container {}: {}", containerId, e.getMessage());
+                }
+                return "FINISHED".equals(status.get()) || "ERROR".equals(status.get()) || "EXPIRED".equals(status.get());
+            },
+            pollInterval,
+            timeout
+        );
+
+        return status.get();
+    }
+
+    private String publish(RunContext runContext, MetaHttpClient httpClient, String igId, String token, String containerId) throws Exception {
+        HttpResponse<String> response;
+        try {
+            response = httpClient.request(
+                json(buildApiUrl(runContext, igId + "/media_publish"), token, Map.of("creation_id", containerId)),
+                "media/publish"
+            );
+        } catch (HttpClientResponseException e) {
+            throw graphError("Failed to publish media", e);
+        }
+
+        return JacksonMapper.ofJson().readTree(response.getBody()).get("id").asText();
+    }
+
+    /**
+     * @return a {@link QuotaExceededException} when the account reached its publishing limit since the quota was read,
+     * a {@link RuntimeException} with the status and body of the error response otherwise
+     */
+    private static Exception graphError(String message, HttpClientResponseException e) {
+        int code = e.getResponse() != null ? e.getResponse().getStatus().getCode() : 0;
+        String body = MetaHttpClient.errorBody(e);
+
+        JsonNode error;
+        try {
+            error = body != null ? JacksonMapper.ofJson().readTree(body).path("error") : JacksonMapper.ofJson().missingNode();
+        } catch (Exception parse) {
+            error = JacksonMapper.ofJson().missingNode();
+        }
+
+        if (error.path("code").asInt() == 9 || error.path("error_subcode").asInt() == 2207042) {
+            return new QuotaExceededException(error.path("message").asText());
+        }
+        return new RuntimeException(message + ": " + code + " - " + body, e);
+    }
+
+    private static HttpRequest json(String url, String token, Map<String, Object> body) throws Exception {
+        return HttpRequest.builder()
+            .method("POST")
+            .uri(URI.create(url))
+            .addHeader("Content-Type", "application/json")
+            .addHeader("Authorization", "Bearer " + token)
+            .body(
+                HttpRequest.StringRequestBody.builder()
+                    .content(JacksonMapper.ofJson().writeValueAsString(body))
+                    .build()
+            )
+            .build();
+    }
+
+    private static Post post(Map<String, Object> entry) {
+        return JacksonMapper.ofJson().convertValue(entry.get("post"), Post.class);
+    }
+
+    /**
+     * @return whether the entry has a container that will not expire before it is published
+     */
+    private static boolean hasLiveContainer(Map<String, Object> entry) {
+        return entry.get("containerId") != null
+            && Instant.parse((String) entry.get("containerCreatedAt")).plus(CONTAINER_LIFETIME).isAfter(Instant.now());
+    }
+
+    private static class QuotaExceededException extends Exception {
+        QuotaExceededException(String message) {
+            super(message);
+        }
+    }
+
+    @Builder
+    @Getter
+    @Jacksonized
+    public static class Post {
+        @Schema(title = "Image URL", description = "Public HTTPS URL of a JPEG image, for an image post.")
+        @JsonProperty("imageUrl")
+        private final String imageUrl;
+
+        @Schema(title = "Video URL", description = "Public HTTPS URL of a video, for a video post.")
+        @JsonProperty("videoUrl")
+        private final String videoUrl;
+
+        @Schema(title = "Video type", description = "Type of a video post. Defaults to VIDEO.")
+        @JsonProperty("videoType")
+        private final VideoType videoType;
+
+        @Schema(title = "Carousel media URLs", description = "Image or video URLs of a carousel post; videos are recognized by their .mp4 or .mov extension.")
+        @JsonProperty("mediaUrls")
+        private final java.util.List<String> mediaUrls;
+
+        @Schema(title = "Caption")
+        @JsonProperty("caption")
+        private final String caption;
+
+        void validate() {
+            int kinds = (imageUrl != null ? 1 : 0) + (videoUrl != null ? 1 : 0) + (mediaUrls != null && !mediaUrls.isEmpty() ? 1 : 0);
+            if (kinds != 1) {
+                throw new IllegalArgumentException("Each post needs exactly one of imageUrl, videoUrl or mediaUrls");
+            }
+        }
+    }
+
+    @Builder
+    @Getter
+    public static class Output implements io.kestra.core.models.tasks.Output {
+        @Schema(title = "IDs of the media published by this run")
+        @JsonProperty("mediaIds")
+        private final java.util.List<String> mediaIds;
+
+        @Schema(title = "Number of posts still queued")
+        @JsonProperty("pending")
+        private final Integer pending;
+
+        @Schema(title = "Number of posts moved to the dead-letter queue by this run")
+        @JsonProperty("failed")
+        private final Integer failed;
+
+        @Schema(title = "Number of containers created by this run")
+        @JsonProperty("containersCreated")
+        private final Integer containersCreated;
+
+        @Schema(title = "Publications left in the rolling 24-hour limit of the account")
+        @JsonProperty("quotaRemaining")
+        private final Integer quotaRemaining;
+    }
+}
@@ -0,0 +1,345 @@
+package io.kestra.plugin.meta.instagram.stories;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.kestra.core.http.HttpRequest;
+import io.kestra.core.http.client.HttpClientException;
+import io.kestra.core.models.annotations.Example;
+import io.kestra.core.models.annotations.Plugin;
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.serializers.FileSerde;
+import io.kestra.plugin.meta.GraphPaging;
+import io.kestra.plugin.meta.GraphTime;
+import io.kestra.plugin.meta.MetaHttpClient;
+import io.kestra.plugin.meta.MetaKv;
+import io.kestra.plugin.meta.ParallelIonWriter;
+import io.kestra.plugin.meta.instagram.AbstractInstagramTask;
+import io.kestra.plugin.meta.instagram.InsightRows;
+import io.kestra.plugin.meta.instagram.enums.InsightMetric;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+@SuperBuilder
+@ToString
+@EqualsAndHashCode
+@Getter
+@NoArgsConstructor
+@Schema(
+    title = "Archive Instagram Stories before they expire",
+    description = "Lists the live stories of the account from `/{ig-user-id}/stories`, downloads the media file of each new one " +
+        "into internal storage, several at a time, and reads its insights. Archived story IDs are indexed in the namespace KV store, " +
+        "so a poll only downloads new stories; stories about to expire have their insights read once more as final. " +
+        "Schedule it more often than `finalInsightsWindow`."
+)
+@Plugin(
+    examples = {
+        @Example(
+            title = "Archive stories every 30 minutes, capturing their final insights in their last hour.",
+            full = true,
+            code = """
+                id: instagram_story_archive
+                namespace: company.team
+
+                tasks:
+                  - id: archive
+                    type: io.kestra.plugin.meta.instagram.stories.Archive
+                    igId: "{{ secret('INSTAGRAM_ACCOUNT_ID') }}"
+                    accessToken: "{{ secret('INSTAGRAM_ACCESS_TOKEN') }}"
+                    finalInsightsWindow: PT1H
+
+                triggers:
+                  - id: every_30_minutes
+                    type: io.kestra.plugin.core.trigger.Schedule
+                    cron: "*/30 * * * *"
+                """
+        )
+    }
+)
+public class Archive extends AbstractInstagramTask {
+    private static final String FIELDS = "id,media_type,media_url,thumbnail_url,permalink,timestamp";
+    private static final Duration STORY_LIFETIME = Duration.ofHours(24);
+    // index entries outlive their story so that a late poll still sees it as archived
+    private static final Duration INDEX_TTL = Duration.ofDays(2);
+
+    @Schema(title = "Metrics", description = "Story metrics to capture. Defaults to reach, views, replies, shares and total interactions.")
+    @Builder.Default
+    @PluginProperty(group = "main")
+    private Property<List<InsightMetric>> metrics = Property.ofValue(List.of(
+        InsightMetric.REACH, InsightMetric.VIEWS, InsightMetric.REPLIES, InsightMetric.SHARES, InsightMetric.TOTAL_INTERACTIONS
+    ));
+
+    @Schema(
+        title = "Final insights window",
+        description = "Stories expiring within this duration have their insights read again and flagged as final. " +
+            "Must be longer than the interval between two runs, so that every story is seen at least once in it."
+    )
+    @Builder.Default
+    @PluginProperty(group = "processing")
+    private Property<Duration> finalInsightsWindow = Property.ofValue(Duration.ofHours(1));
+
+    @Schema(title = "Concurrency", description = "Maximum number of stories downloaded at the same time.")
+    @Builder.Default
+    @PluginProperty(group = "processing")
+    private Property<Integer> concurrency = Property.ofValue(4);
+
+    @Override
+    public Output run(RunContext runContext) throws Exception {
+        String rIgId = runContext.render(this.igId).as(String.class).orElseThrow();
+        String rToken = runContext.render(this.accessToken).as(String.class).orElseThrow();
+        List<InsightMetric> rMetrics = runContext.render(this.metrics).asList(InsightMetric.class);
+        Duration rFinalInsightsWindow = runContext.render(this.finalInsightsWindow).as(Duration.class).orElse(Duration.ofHours(1));
+        int rConcurrency = runContext.render(this.concurrency).as(Integer.class).orElse(4);
+
+        String metricsParam = rMetrics.stream().map(metric -> metric.name().toLowerCase()).collect(Collectors.joining(","));
+        Instant now = Instant.now();
+
+        try (MetaHttpClient httpClient = createHttpClient(runContext)) {
+            List<Story> stories = new ArrayList<>();
+            GraphPaging.forEachRow(
+                httpClient,
+                buildApiUrl(runContext, rIgId + "/stories") + "?fields=" + FIELDS,
+                rToken,
+                "stories/list",
+                0,
+                node -> {
+                    String key = MetaKv.key("meta_story", rIgId, node.path("id").asText());
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> archived = (Map<String, Object>) MetaKv.get(runContext, key).orElse(null);
+                    Instant expiresAt = GraphTime.parse(node.path("timestamp").asText()).plus(STORY_LIFETIME);
+                    boolean last = !now.plus(rFinalInsightsWindow).isBefore(expiresAt);
+
+                    // new stories are archived, archived ones only come back for their final insights
+                    if (archived == null || (last && !Boolean.TRUE.equals(archived.get("finalInsights")))) {
+                        stories.add(new Story(node, key, archived, expiresAt, last));
+                    }
+                }
+            );
+
+            AtomicInteger archivedCount = new AtomicInteger();
+            AtomicInteger finalizedCount = new AtomicInteger();
+            AtomicInteger errorCount = new AtomicInteger();
+            // indexed once the output is stored, so that a failed run never hides stories from the next poll
+            Map<String, Map<String, Object>> index = new ConcurrentHashMap<>();
+
+            ParallelIonWriter.Result result = ParallelIonWriter.write(
+                runContext,
+                stories,
+                rConcurrency,
+                (story, output) -> {
+                    Map<String, Object> entry;
+                    if (story.archived() != null) {
+                        entry = new LinkedHashMap<>(story.archived());
+                    } else {
+                        try {
+                            entry = archive(runContext, httpClient, story);
+                        } catch (InterruptedException e) {
+                            throw e;
+                        } catch (Exception e) {
+                            // not indexed, so the next poll archives it again
+                            runContext.logger().warn("Failed to archive story {}: {}", story.id(), e.getMessage());
+                            errorCount.incrementAndGet();
+                            FileSerde.write(output, errorRow(story, e.getMessage()));
+                            return 1;
+                        }
+                    }
+
+                    Map<String, Object> insights = insights(
+                        runContext,
+                        httpClient,
+                        rToken,
+                        buildApiUrl(runContext, story.id() + "/insights") + "?metric=" + metricsParam,
+                        story.id()
+                    );
+
+                    entry.put("finalInsights", story.last() && insights != null);
+                    index.put(story.key(), entry);
+
+                    if (story.archived() == null) {
+                        archivedCount.incrementAndGet();
+                    }
+                    if (Boolean.TRUE.equals(entry.get("finalInsights"))) {
+                        finalizedCount.incrementAndGet();
+                    }
+
+                    FileSerde.write(output, row(story, entry, insights));
+                    return 1;
+                }
+            );
+
+            URI uri = runContext.storage().putFile(result.file());
+            for (Map.Entry<String, Map<String, Object>> indexed : index.entrySet()) {
+                MetaKv.put(runContext, indexed.getKey(), indexed.getValue(), INDEX_TTL);
+            }
+
+            httpClient.rows("stories/list", result.rows());
+            runContext.logger().info(
+                "Archived {} new Instagram stories, captured final insights of {}, {} failed",
+                archivedCount.get(), finalizedCount.get(), errorCount.get()
+            );
+
+            return Output.builder()
+                .uri(uri)
+                .size(result.rows())
+                .archived(archivedCount.get())
+                .finalized(finalizedCount.get())
+                .errors(errorCount.get())
+                .build();
+        }
+    }
+
+    /**
+     * Downloads the media file and the thumbnail of a story into internal storage.
+     *
+     * @return the index entry of the story
+     */
+    private static Map<String, Object> archive(RunContext runContext, MetaHttpClient httpClient, Story story) throws Exception {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("mediaUri", download(runContext, httpClient, story.id(), story.node().path("media_url").asText(null)));
+        entry.put("thumbnailUri", download(runContext, httpClient, story.id(), story.node().path("thumbnail_url").asText(null)));
+        entry.put("archivedAt", Instant.now().toString());
+        return entry;
+    }
+
+    private static String download(RunContext runContext, MetaHttpClient httpClient, String storyId, String url) throws Exception {
+        // the media URL is missing for stories with copyrighted content
+        if (url == null || url.isBlank()) {
+            return null;
+        }
+
+        File file = runContext.workingDir().createTempFile(extension(url)).toFile();
+        MetaHttpClient.Download download;
+        try (OutputStream output = new BufferedOutputStream(new FileOutputStream(file))) {
+            download = httpClient.download(HttpRequest.builder().uri(URI.create(url)).method("GET").build(), "stories/download", output);
+        }
+
+        if (download.error() != null) {
+            throw new RuntimeException("Failed to download story " + storyId + ": " + download.status() + " - " + download.error());
+        }
+
+        return runContext.storage().putFile(file).toString();
+    }
+
+    /**
+     * @return the lifetime value of each metric, or {@code null} when the insights could not be read, in which case
+     * the next poll reads them again
+     */
+    private static Map<String, Object> insights(
+        RunContext runContext,
+        MetaHttpClient httpClient,
+        String token,
+        String url,
+        String storyId
+    ) throws Exception {
+        JsonNode response;
+        try {
+            response = httpClient.read(
+                HttpRequest.builder()
+                    .uri(URI.create(url))
+                    .method("GET")
+                    .addHeader("Authorization", "Bearer " + token),
+                "insights/story"
+            );
+        } catch (HttpClientException | RuntimeException e) {
+            // such as insights refused for a story with too few viewers
+            runContext.logger().warn("Failed to read the insights of story {}: {}", storyId, e.getMessage());
+            return null;
+        }
+
+        Map<String, Object> insights = new LinkedHashMap<>();
+        for (Map<String, Object> value : InsightRows.rows(response, null)) {
+            if (value.get("breakdown") == null) {
+                insights.put((String) value.get("metric"), value.get("value"));
+            }
+        }
+        return insights;
+    }
+
+    static Map<String, Object> row(Story story, Map<String, Object> entry, Map<String, Object> insights) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("storyId", story.id());
+        row.put("mediaType", story.node().path("media_type").asText(null));
+        row.put("permalink", story.node().path("permalink").asText(null));
+        row.put("timestamp", story.node().path("timestamp").asText(null));
+        row.put("expiresAt", story.expiresAt().toString());
+        row.put("mediaUri", entry.get("mediaUri"));
+        row.put("thumbnailUri", entry.get("thumbnailUri"));
+        row.put("insights", insights);
+        row.put("finalInsights", entry.get("finalInsights"));
+        row.put("error", null);
+        return row;
+    }
+
+    static Map<String, Object> errorRow(Story story, String error) {
+        Map<String, Object> row = row(story, Map.of(), null);
+        row.put("finalInsights", false);
+        row.put("error", error);
+        return row;
+    }
+
+    private static String extension(String url) {
+        String path = URI.create(url).getPath();
+        int dot = path.lastIndexOf('.');
+        return dot > path.lastIndexOf('/') ? path.substring(dot) : "";
+    }
+
+    /**
+     * @param key the KV index key of the story
+     * @param archived its index entry, {@code null} when it was not archived yet
+     * @param last whether it expires within the final insights window
+     */
+    record Story(JsonNode node, String key, Map<String, Object> archived, Instant expiresAt, boolean last) {
+        String id() {
+            return node.path("id").asText();
+        }
+    }
+
+    @Builder
+    @Getter
+    public static class Output implements io.kestra.core.models.tasks.Output {
+        @Schema(
+            title = "URI of the Ion file of processed stories",
+            description = "One row per story archived or finalized by this run, with `storyId`, `mediaType`, `permalink`, `timestamp`, " +
+                "`expiresAt`, the internal storage `mediaUri` and `thumbnailUri`, `insights` by metric, `finalInsights` and `error`. " +
+                "`insights` is null when they could not be read; `error` is set when the story could not be archived, " +
+                "in which case it is not indexed and the next poll tries again."
+        )
+        @JsonProperty("uri")
+        private final URI uri;
+
+        @Schema(title = "Number of processed stories")
+        @JsonProperty("size")
+        private final Long size;
+
+        @Schema(title = "Number of newly archived stories")
+        @JsonProperty("archived")
+        private final Integer archived;
+
+        @Schema(title = "Number of stories whose final insights were captured")
+        @JsonProperty("finalized")
+        private final Integer finalized;
+
+        @Schema(title = "Number of stories that could not be archived")
+        @JsonProperty("errors")
+        private final Integer errors;
+    }
+}
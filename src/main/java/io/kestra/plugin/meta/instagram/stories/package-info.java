@@ -0,0 +1,8 @@
+@PluginSubGroup(
+    title = "Instagram Stories",
+    description = "This sub-group of plugins contains tasks to archive Instagram Stories and their insights before they expire.",
+    categories = PluginSubGroup.PluginCategory.BUSINESS
+)
+package io.kestra.plugin.meta.instagram.stories;
+
+import io.kestra.core.models.annotations.PluginSubGroup;
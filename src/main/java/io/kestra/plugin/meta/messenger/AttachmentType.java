@@ -0,0 +1,8 @@
+package io.kestra.plugin.meta.messenger;
+
+public enum AttachmentType {
+    IMAGE,
+    VIDEO,
+    AUDIO,
+    FILE
+}
@@ -1,28 +1,40 @@
 package io.kestra.plugin.meta.messenger;
 
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import org.apache.commons.io.IOUtils;
 
+import com.fasterxml.jackson.databind.JsonNode;
+
 import io.kestra.core.http.HttpRequest;
 import io.kestra.core.http.HttpResponse;
-import io.kestra.core.http.client.HttpClient;
 import io.kestra.core.models.property.Property;
 import io.kestra.core.models.tasks.VoidOutput;
 import io.kestra.core.runners.RunContext;
+import io.kestra.core.serializers.FileSerde;
 import io.kestra.core.serializers.JacksonMapper;
 import io.kestra.plugin.meta.AbstractMetaConnection;
+import io.kestra.plugin.meta.MetaHttpClient;
+import io.kestra.plugin.meta.UploadCache;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
+import reactor.core.publisher.Flux;
 import io.kestra.core.models.annotations.PluginProperty;
 
+import static io.kestra.core.utils.Rethrow.throwConsumer;
+
 @SuperBuilder
 @ToString(exclude = { "accessToken" })
 @EqualsAndHashCode
@@ -40,11 +52,18 @@ public abstract class MessengerTemplate extends AbstractMetaConnection {
     @PluginProperty(group = "main", secret = true)
     protected Property<String> accessToken;
 
-    @Schema(title = "Recipient PSIDs", description = "Page-scoped recipient IDs; at least one is required or the task fails.")
-    @NotNull
+    @Schema(title = "Recipient PSIDs", description = "Page-scoped recipient IDs; at least one recipient is required, from this list or `recipientsUri`, or the task fails.")
     @PluginProperty(group = "main")
     protected Property<List<String>> recipientIds;
 
+    @Schema(
+        title = "Recipient PSIDs file",
+        description = "Internal storage URI of page-scoped recipient IDs, either an Ion file (`.ion`) of IDs or of rows with an `id` field, or a text file with one ID per line. " +
+            "The file is read lazily while sending, so large broadcasts never hold the recipient list in memory. Combined with `recipientIds` when both are set."
+    )
+    @PluginProperty(internalStorageURI = true, group = "main")
+    protected Property<String> recipientsUri;
+
     @Schema(title = "Messaging type", description = "Messaging type passed to the Graph API (RESPONSE, UPDATE, MESSAGE_TAG). Defaults to UPDATE.")
     @Builder.Default
     @PluginProperty(group = "advanced")
@@ -62,19 +81,34 @@ public abstract class MessengerTemplate extends AbstractMetaConnection {
     @PluginProperty(group = "advanced")
     protected Property<String> textBody;
 
+    @Schema(
+        title = "Attachment",
+        description = "Internal storage URI of an image, video, audio or file sent as a separate message after the text. " +
+            "The file is uploaded once as a reusable attachment and its `attachment_id` is cached in the namespace KV store by content hash, so sending the same file again never re-uploads it. " +
+            "Cannot be combined with `outbox`, since the upload would still block the task."
+    )
+    @PluginProperty(internalStorageURI = true, group = "main")
+    protected Property<String> attachment;
+
+    @Schema(title = "Attachment type", description = "Messenger type of `attachment`. Defaults to FILE.")
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    protected Property<AttachmentType> attachmentType = Property.ofValue(AttachmentType.FILE);
+
     @Schema(title = "Override URL for testing", description = "Optional Graph API endpoint override; defaults to https://graph.facebook.com/v23.0/{pageId}/messages.")
     @PluginProperty(group = "connection")
     protected Property<String> url;
 
     @Override
     public VoidOutput run(RunContext runContext) throws Exception {
-        final var rRecipientIds = runContext.render(this.recipientIds).asList(String.class);
+        final var rRecipientIds = this.recipientIds != null ? runContext.render(this.recipientIds).asList(String.class) : List.<String>of();
+        final var rRecipientsUri = runContext.render(this.recipientsUri).as(String.class);
         final var rAccessToken = runContext.render(this.accessToken).as(String.class).orElseThrow();
         final var rPageId = runContext.render(this.pageId);
         final var rMessagingType = runContext.render(this.messagingType).as(MessagingType.class).orElse(MessagingType.UPDATE);
         final var rUrl = runContext.render(this.url).as(String.class);
 
-        if (rRecipientIds.isEmpty()) {
+        if (rRecipientIds.isEmpty() && rRecipientsUri.isEmpty()) {
             throw new IllegalArgumentException("Atleast one RecipientId is required");
         }
 
@@ -86,45 +120,170 @@ public abstract class MessengerTemplate extends AbstractMetaConnection {
                 )
             );
 
+        var rOutbox = outboxQueue(runContext);
+        if (rOutbox.isPresent() && this.attachment != null) {
+            throw new IllegalArgumentException("attachment cannot be used with outbox: the upload would block the task and fail it on an upload error");
+        }
+
         String messageText = getMessageText(runContext);
+        Optional<Map<String, Object>> attachmentMessage = attachmentMessage(runContext, apiUrl, rPageId, rAccessToken);
 
-        try (HttpClient client = new HttpClient(runContext, super.httpClientConfigurationWithOptions())) {
-            for (String recipientId : rRecipientIds) {
-                Map<String, Object> messagePayload = new HashMap<>();
-                messagePayload.put("recipient", Map.of("id", recipientId));
-                messagePayload.put("messaging_type", rMessagingType);
-                messagePayload.put("message", Map.of("text", messageText));
+        List<Map<String, Object>> messages = new ArrayList<>();
+        if (attachmentMessage.isEmpty() || !messageText.isBlank()) {
+            messages.add(Map.of("text", messageText));
+        }
+        attachmentMessage.ifPresent(messages::add);
 
-                String payload = JacksonMapper.ofJson().writeValueAsString(messagePayload);
+        // recipients are pulled one at a time while sending, the file is never loaded as a whole
+        Flux<String> recipients = recipients(runContext, rRecipientIds, rRecipientsUri);
+        int recipientCount = 0;
 
-                runContext.logger().debug("Sending Messenger message to {}", recipientId);
+        if (rOutbox.isPresent()) {
+            for (String recipientId : recipients.toIterable()) {
+                recipientCount++;
+                for (Map<String, Object> message : messages) {
+                    enqueue(runContext, rOutbox.get(), apiUrl, payload(recipientId, rMessagingType, message), true);
+                }
+            }
+            checkRecipients(recipientCount);
+            return null;
+        }
+
+        try (MetaHttpClient client = createHttpClient(runContext)) {
+            for (String recipientId : recipients.toIterable()) {
+                recipientCount++;
+                for (Map<String, Object> message : messages) {
+                    String payload = payload(recipientId, rMessagingType, message);
+
+                    runContext.logger().debug("Sending Messenger message to {}", recipientId);
 
-                HttpRequest request = createRequestBuilder(runContext)
-                    .addHeader("Content-Type", "application/json")
-                    .addHeader("Authorization", "Bearer " + rAccessToken)
-                    .uri(URI.create(apiUrl))
-                    .method("POST")
-                    .body(HttpRequest.StringRequestBody.builder().content(payload).build())
-                    .build();
+                    HttpRequest request = createRequestBuilder(runContext)
+                        .addHeader("Content-Type", "application/json")
+                        .addHeader("Authorization", "Bearer " + rAccessToken)
+                        .uri(URI.create(apiUrl))
+                        .method("POST")
+                        .body(HttpRequest.StringRequestBody.builder().content(payload).build())
+                        .build();
 
-                HttpResponse<String> response = client.request(request, String.class);
+                    HttpResponse<String> response = client.request(request, "messages/messenger");
 
-                runContext.logger().debug("Response: {}", response.getBody());
+                    runContext.logger().debug("Response: {}", response.getBody());
 
-                if (response.getStatus().getCode() == 200) {
-                    runContext.logger().info("Messenger message sent successfully to {}", recipientId);
-                } else {
-                    runContext.logger().error(
-                        "Failed to send Messenger message to {}: {}", recipientId,
-                        response.getBody()
-                    );
+                    if (response.getStatus().getCode() == 200) {
+                        runContext.logger().info("Messenger message sent successfully to {}", recipientId);
+                    } else {
+                        runContext.logger().error(
+                            "Failed to send Messenger message to {}: {}", recipientId,
+                            response.getBody()
+                        );
+                    }
                 }
             }
         }
+        checkRecipients(recipientCount);
 
         return null;
     }
 
+    private static Flux<String> recipients(RunContext runContext, List<String> recipientIds, Optional<String> recipientsUri) {
+        Flux<String> fromFile = recipientsUri
+            .map(uri -> Flux.using(
+                    () -> new BufferedReader(new InputStreamReader(runContext.storage().getFile(URI.create(uri)), StandardCharsets.UTF_8), FileSerde.BUFFER_SIZE),
+                    reader -> uri.endsWith(".ion")
+                        ? FileSerde.readAll(reader).map(MessengerTemplate::recipientId)
+                        : Flux.fromStream(reader.lines()).map(String::trim),
+                    throwConsumer(BufferedReader::close)
+                )
+                .filter(id -> !id.isBlank())
+            )
+            .orElse(Flux.empty());
+
+        return Flux.concat(Flux.fromIterable(recipientIds), fromFile);
+    }
+
+    private static String recipientId(Object row) {
+        if (row instanceof Map<?, ?> map) {
+            return String.valueOf(map.get("id"));
+        }
+        return String.valueOf(row);
+    }
+
+    private static void checkRecipients(int recipientCount) {
+        if (recipientCount == 0) {
+            throw new IllegalArgumentException("Atleast one RecipientId is required");
+        }
+    }
+
+    private static String payload(String recipientId, MessagingType messagingType, Map<String, Object> message) throws Exception {
+        Map<String, Object> messagePayload = new HashMap<>();
+        messagePayload.put("recipient", Map.of("id", recipientId));
+        messagePayload.put("messaging_type", messagingType);
+        messagePayload.put("message", message);
+
+        return JacksonMapper.ofJson().writeValueAsString(messagePayload);
+    }
+
+    private Optional<Map<String, Object>> attachmentMessage(RunContext runContext, String apiUrl, String pageId, String accessToken) throws Exception {
+        final var rAttachment = runContext.render(this.attachment).as(String.class);
+        if (rAttachment.isEmpty()) {
+            return Optional.empty();
+        }
+
+        final var rAttachmentType = runContext.render(this.attachmentType).as(AttachmentType.class).orElse(AttachmentType.FILE);
+        final var type = rAttachmentType.name().toLowerCase();
+
+        // attachment IDs are owned by the page, so the cache is scoped by page
+        UploadCache.Upload upload = UploadCache.resolve(
+            runContext,
+            "meta_messenger_attachment",
+            pageId,
+            URI.create(rAttachment.get()),
+            null,
+            file -> uploadAttachment(runContext, attachmentUploadUrl(apiUrl), accessToken, type, file)
+        );
+
+        return Optional.of(Map.of("attachment", Map.of("type", type, "payload", Map.of("attachment_id", upload.id()))));
+    }
+
+    private String uploadAttachment(RunContext runContext, String uploadUrl, String accessToken, String type, File file) throws Exception {
+        String message = JacksonMapper.ofJson().writeValueAsString(
+            Map.of("attachment", Map.of("type", type, "payload", Map.of("is_reusable", true)))
+        );
+
+        HttpRequest request = createRequestBuilder(runContext)
+            .addHeader("Authorization", "Bearer " + accessToken)
+            .uri(URI.create(uploadUrl))
+            .method("POST")
+            .body(
+                HttpRequest.MultipartRequestBody.builder()
+                    .content(Map.of("message", message, "filedata", file))
+                    .build()
+            )
+            .build();
+
+        try (MetaHttpClient client = createHttpClient(runContext)) {
+            HttpResponse<String> response = client.request(request, "uploads/messenger");
+
+            if (response.getStatus().getCode() != 200) {
+                throw new RuntimeException("Failed to upload Messenger attachment: " + response.getStatus().getCode() + " - " + response.getBody());
+            }
+
+            JsonNode responseJson = JacksonMapper.ofJson().readTree(response.getBody());
+            if (!responseJson.hasNonNull("attachment_id")) {
+                throw new RuntimeException("Failed to upload Messenger attachment: no attachment_id in " + response.getBody());
+            }
+
+            return responseJson.get("attachment_id").asText();
+        }
+    }
+
+    private static String attachmentUploadUrl(String apiUrl) {
+        if (apiUrl.endsWith("/messages")) {
+            return apiUrl.substring(0, apiUrl.length() - "/messages".length()) + "/message_attachments";
+        }
+        return apiUrl + "/message_attachments";
+    }
+
     private String getMessageText(RunContext runContext) throws Exception {
         final var rTextBody = runContext.render(this.textBody).as(String.class);
         final var rTemplateUri = runContext.render(this.templateUri).as(String.class);
@@ -0,0 +1,245 @@
+package io.kestra.plugin.meta.outbox;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import io.kestra.core.http.HttpRequest;
+import io.kestra.core.http.HttpResponse;
+import io.kestra.core.models.annotations.Example;
+import io.kestra.core.models.annotations.Plugin;
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.models.tasks.RunnableTask;
+import io.kestra.core.models.tasks.Task;
+import io.kestra.core.runners.RunContext;
+import io.kestra.plugin.meta.KvQueue;
+import io.kestra.plugin.meta.MetaHttpClient;
+import io.kestra.plugin.meta.NotificationOutbox;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+@SuperBuilder
+@ToString(exclude = { "accessToken" })
+@EqualsAndHashCode
+@Getter
+@NoArgsConstructor
+@Schema(
+    title = "Deliver queued WhatsApp and Messenger notifications",
+    description = "Sends the requests queued by notification tasks configured with `outbox`, in concurrent batches. " +
+        "Delivered entries are removed from the queue; failed ones are retried on the next run and moved to a dead-letter KV key after `maxAttempts`. " +
+        "Each entry is claimed before it is sent, so that concurrent runs never deliver it twice. " +
+        "Stops early when every delivery of a batch fails, so that an unavailable endpoint does not burn the attempts of the remaining entries."
+)
+@Plugin(
+    examples = {
+        @Example(
+            title = "Queue failure alerts from the error handler and deliver them every minute.",
+            full = true,
+            code = """
+                id: drain_alerts
+                namespace: company.team
+
+                tasks:
+                  - id: drain
+                    type: io.kestra.plugin.meta.outbox.Drain
+                    queue: alerts
+                    accessToken: "{{ secret('MESSENGER_ACCESS_TOKEN') }}"
+                    batchSize: 20
+
+                triggers:
+                  - id: every_minute
+                    type: io.kestra.plugin.core.trigger.Schedule
+                    cron: "* * * * *"
+                """
+        )
+    }
+)
+public class Drain extends Task implements RunnableTask<Drain.Output> {
+
+    @Schema(title = "Queue", description = "Outbox queue to deliver; must match the `outbox` property of the notification tasks.")
+    @NotNull
+    @PluginProperty(group = "main")
+    private Property<String> queue;
+
+    @Schema(title = "Access token", description = "Page access token added as a Bearer header to queued Messenger requests; tokens are never written to the queue.")
+    @PluginProperty(group = "main", secret = true)
+    private Property<String> accessToken;
+
+    @Schema(
+        title = "HTTP headers",
+        description = "HTTP headers added to every queued request. Headers of the notification tasks are not queued, as they often carry credentials."
+    )
+    @PluginProperty(group = "advanced")
+    private Property<Map<String, String>> headers;
+
+    @Schema(title = "Batch size", description = "Number of queued requests sent concurrently.")
+    @Builder.Default
+    @PluginProperty(group = "processing")
+    private Property<Integer> batchSize = Property.ofValue(10);
+
+    @Schema(title = "Maximum attempts", description = "Delivery attempts, across runs, before an entry is moved to the dead-letter key.")
+    @Builder.Default
+    @PluginProperty(group = "processing")
+    private Property<Integer> maxAttempts = Property.ofValue(5);
+
+    @Override
+    public Output run(RunContext runContext) throws Exception {
+        String rQueue = runContext.render(this.queue).as(String.class).orElseThrow();
+        Optional<String> rToken = runContext.render(this.accessToken).as(String.class);
+        int rBatchSize = runContext.render(this.batchSize).as(Integer.class).orElse(10);
+        int rMaxAttempts = runContext.render(this.maxAttempts).as(Integer.class).orElse(5);
+        Map<String, String> rHeaders = runContext.render(this.headers).asMap(String.class, String.class);
+
+        List<String> keys = NotificationOutbox.keys(runContext, rQueue);
+        Map<Result, Integer> counts = new HashMap<>();
+
+        try (
+            MetaHttpClient httpClient = MetaHttpClient.builder()
+                .runContext(runContext)
+                .build()
+        ) {
+            for (int from = 0; from < keys.size(); from += rBatchSize) {
+                List<String> batch = keys.subList(from, Math.min(from + rBatchSize, keys.size()));
+
+                List<Result> results = Flux.fromIterable(batch)
+                    .flatMap(
+                        key -> Mono.fromCallable(() -> deliver(runContext, httpClient, rQueue, key, rToken, rHeaders, rMaxAttempts))
+                            .subscribeOn(Schedulers.boundedElastic()),
+                        rBatchSize
+                    )
+                    .collectList()
+                    .block();
+
+                Objects.requireNonNull(results).forEach(result -> counts.merge(result, 1, Integer::sum));
+
+                // skipped entries say nothing about the endpoint, only failed deliveries stop the run
+                if (!results.contains(Result.SENT) && (results.contains(Result.RETRYING) || results.contains(Result.DEAD_LETTERED))) {
+                    runContext.logger().warn("No request of the batch could be delivered, stopping until the next run");
+                    break;
+                }
+            }
+        }
+
+        int sent = counts.getOrDefault(Result.SENT, 0);
+        int deadLettered = counts.getOrDefault(Result.DEAD_LETTERED, 0);
+
+        runContext.logger().info("Delivered {} of {} queued requests from outbox '{}'", sent, keys.size(), rQueue);
+
+        return Output.builder()
+            .sent(sent)
+            .retrying(counts.getOrDefault(Result.RETRYING, 0))
+            .deadLettered(deadLettered)
+            .remaining(keys.size() - sent - deadLettered)
+            .build();
+    }
+
+    private Result deliver(RunContext runContext, MetaHttpClient httpClient, String queue, String key, Optional<String> token,
+        Map<String, String> headers, int maxAttempts) throws Exception {
+        Optional<KvQueue.Lease> lease = NotificationOutbox.claim(runContext, key);
+        if (lease.isEmpty()) {
+            // being delivered by a concurrent run
+            return Result.SKIPPED;
+        }
+
+        try {
+            return send(runContext, httpClient, queue, key, token, headers, maxAttempts);
+        } finally {
+            NotificationOutbox.release(runContext, lease.get());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Result send(RunContext runContext, MetaHttpClient httpClient, String queue, String key, Optional<String> token,
+        Map<String, String> headers, int maxAttempts) throws Exception {
+        Optional<Map<String, Object>> queued = NotificationOutbox.get(runContext, key);
+        if (queued.isEmpty()) {
+            // already delivered by a concurrent run
+            return Result.SKIPPED;
+        }
+
+        Map<String, Object> entry = new HashMap<>(queued.get());
+        boolean bearer = Boolean.TRUE.equals(entry.get("bearer"));
+        if (bearer && token.isEmpty()) {
+            runContext.logger().error("Queued request {} needs an accessToken to be delivered", key);
+            return Result.SKIPPED;
+        }
+
+        try {
+            HttpRequest.HttpRequestBuilder builder = HttpRequest.builder()
+                .uri(URI.create(NotificationOutbox.uri(runContext, entry)))
+                .method("POST")
+                .body(
+                    HttpRequest.StringRequestBody.builder()
+                        .content(Objects.toString(entry.get("body"), ""))
+                        .build()
+                );
+            ((Map<String, String>) entry.getOrDefault("headers", Map.of())).forEach(builder::addHeader);
+            headers.forEach(builder::addHeader);
+            if (bearer) {
+                builder.addHeader("Authorization", "Bearer " + token.get());
+            }
+
+            HttpResponse<String> response = httpClient.request(builder.build(), "messages/outbox");
+            int statusCode = response.getStatus().getCode();
+            if (statusCode < 200 || statusCode >= 300) {
+                throw new RuntimeException("Unexpected response: " + statusCode + " - " + response.getBody());
+            }
+
+            NotificationOutbox.remove(runContext, key);
+            return Result.SENT;
+        } catch (Exception e) {
+            int attempts = ((Number) entry.getOrDefault("attempts", 0)).intValue() + 1;
+            entry.put("attempts", attempts);
+            entry.put("lastError", e.getMessage());
+
+            if (attempts >= maxAttempts) {
+                runContext.logger().error("Giving up on queued request {} after {} attempts: {}", key, attempts, e.getMessage());
+                NotificationOutbox.deadLetter(runContext, queue, key, entry);
+                return Result.DEAD_LETTERED;
+            }
+
+            runContext.logger().warn("Failed to deliver queued request {} (attempt {}): {}", key, attempts, e.getMessage());
+            NotificationOutbox.update(runContext, key, entry);
+            return Result.RETRYING;
+        }
+    }
+
+    private enum Result {
+        SENT,
+        RETRYING,
+        DEAD_LETTERED,
+        SKIPPED
+    }
+
+    @Builder
+    @Getter
+    public static class Output implements io.kestra.core.models.tasks.Output {
+        @Schema(title = "Requests delivered")
+        @JsonProperty("sent")
+        private final Integer sent;
+
+        @Schema(title = "Requests that failed and stay queued for the next run")
+        @JsonProperty("retrying")
+        private final Integer retrying;
+
+        @Schema(title = "Requests moved to the dead-letter key")
+        @JsonProperty("deadLettered")
+        private final Integer deadLettered;
+
+        @Schema(title = "Requests still queued")
+        @JsonProperty("remaining")
+        private final Integer remaining;
+    }
+}
@@ -0,0 +1,7 @@
+@PluginSubGroup(
+    description = "This sub-group of plugins contains tasks to deliver queued WhatsApp and Messenger notifications.",
+    categories = PluginSubGroup.PluginCategory.BUSINESS
+)
+package io.kestra.plugin.meta.outbox;
+
+import io.kestra.core.models.annotations.PluginSubGroup;
\ No newline at end of file
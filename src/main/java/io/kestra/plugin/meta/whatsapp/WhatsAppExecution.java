@@ -1,6 +1,9 @@
 package io.kestra.plugin.meta.whatsapp;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import io.kestra.core.models.annotations.Example;
 import io.kestra.core.models.annotations.Plugin;
@@ -9,6 +12,7 @@ import io.kestra.core.models.tasks.VoidOutput;
 import io.kestra.core.plugins.notifications.ExecutionInterface;
 import io.kestra.core.plugins.notifications.ExecutionService;
 import io.kestra.core.runners.RunContext;
+import io.kestra.plugin.meta.NotificationDigest;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.*;
@@ -69,11 +73,62 @@ public class WhatsAppExecution extends WhatsAppTemplate implements ExecutionInte
     @PluginProperty(group = "destination")
     private Property<String> customMessage;
 
+    @Schema(
+        title = "Digest window",
+        description = "Coalesces alerts sent to the same recipients. The first alert of a window is sent right away, alerts received while the window is open are buffered in the namespace KV store, and the next alert after the window elapsed sends them all as one digest message. " +
+            "Alerts buffered at the end of a storm are sent by a run with `flushDigest`."
+    )
+    @PluginProperty(group = "advanced")
+    private Property<Duration> digestWindow;
+
+    @Schema(
+        title = "Flush the digest",
+        description = "When true, no execution is reported: the alerts buffered in a `digestWindow` that elapsed are sent as one digest, if any. " +
+            "Run it on a schedule with the same recipients and `digestWindow` as the alerting task, so that the last alerts of a window are delivered even when no later alert arrives."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<Boolean> flushDigest = Property.ofValue(false);
+
     @Override
     public VoidOutput run(RunContext runContext) throws Exception {
+        Map<String, Object> executionMap = ExecutionService.executionMap(runContext, this);
+
+        var rDigestWindow = runContext.render(this.digestWindow).as(Duration.class);
+        boolean rFlushDigest = runContext.render(this.flushDigest).as(Boolean.class).orElse(false);
+        if (rFlushDigest && rDigestWindow.isEmpty()) {
+            throw new IllegalArgumentException("flushDigest requires a digestWindow");
+        }
+
+        if (rDigestWindow.isPresent()) {
+            NotificationDigest.Digest digest = rFlushDigest
+                ? NotificationDigest.flush(runContext, digestScope(runContext), rDigestWindow.get())
+                : NotificationDigest.offer(runContext, digestScope(runContext), executionMap, rDigestWindow.get());
+
+            if (digest.isBuffered()) {
+                if (rFlushDigest) {
+                    runContext.logger().info("No buffered alert to flush");
+                }
+                return null;
+            }
+
+            if (rFlushDigest || digest.isDigest()) {
+                runContext.logger().info("Sending a digest of {} executions", digest.alerts().size());
+                this.templateUri = Property.ofValue("whatsapp-digest-template.peb");
+                this.templateRenderMap = Property.ofValue(digest.renderMap(executionMap));
+                return super.run(runContext);
+            }
+        }
+
         this.templateUri = Property.ofValue("whatsapp-template.peb");
-        this.templateRenderMap = Property.ofValue(ExecutionService.executionMap(runContext, this));
+        this.templateRenderMap = Property.ofValue(executionMap);
 
         return super.run(runContext);
     }
+
+    private String digestScope(RunContext runContext) throws Exception {
+        List<String> rWhatsAppIds = runContext.render(this.whatsAppIds).asList(String.class);
+
+        return "whatsapp/" + runContext.render(this.url) + "/" + rWhatsAppIds.stream().sorted().collect(Collectors.joining(","));
+    }
 }
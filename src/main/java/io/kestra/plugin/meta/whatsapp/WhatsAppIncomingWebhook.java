@@ -4,7 +4,6 @@ import java.net.URI;
 
 import io.kestra.core.http.HttpRequest;
 import io.kestra.core.http.HttpResponse;
-import io.kestra.core.http.client.HttpClient;
 import io.kestra.core.models.annotations.Example;
 import io.kestra.core.models.annotations.Plugin;
 import io.kestra.core.models.annotations.PluginProperty;
@@ -12,6 +11,7 @@ import io.kestra.core.models.property.Property;
 import io.kestra.core.models.tasks.VoidOutput;
 import io.kestra.core.runners.RunContext;
 import io.kestra.plugin.meta.AbstractMetaConnection;
+import io.kestra.plugin.meta.MetaHttpClient;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotBlank;
@@ -102,7 +102,13 @@ public class WhatsAppIncomingWebhook extends AbstractMetaConnection {
     public VoidOutput run(RunContext runContext) throws Exception {
         String url = runContext.render(this.url);
 
-        try (HttpClient client = new HttpClient(runContext, super.httpClientConfigurationWithOptions())) {
+        var rOutbox = outboxQueue(runContext);
+        if (rOutbox.isPresent()) {
+            enqueue(runContext, rOutbox.get(), url, this.url, runContext.render(this.payload).as(String.class).orElse(null), false);
+            return null;
+        }
+
+        try (MetaHttpClient client = createHttpClient(runContext)) {
             String payload = runContext.render(this.payload).as(String.class).orElse(null);
 
             runContext.logger().debug("Send WhatsApp webhook: {}", payload);
@@ -118,7 +124,7 @@ public class WhatsAppIncomingWebhook extends AbstractMetaConnection {
 
             HttpRequest request = requestBuilder.build();
 
-            HttpResponse<String> response = client.request(request, String.class);
+            HttpResponse<String> response = client.request(request, "messages/whatsapp");
 
             runContext.logger().debug("Response: {}", response.getBody());
 
@@ -0,0 +1,243 @@
+package io.kestra.plugin.meta.whatsapp;
+
+import java.io.File;
+import java.net.URI;
+import java.net.URLConnection;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.kestra.core.http.HttpRequest;
+import io.kestra.core.http.HttpResponse;
+import io.kestra.core.models.annotations.Example;
+import io.kestra.core.models.annotations.Plugin;
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.models.tasks.VoidOutput;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.serializers.JacksonMapper;
+import io.kestra.plugin.meta.AbstractMetaConnection;
+import io.kestra.plugin.meta.MetaHttpClient;
+import io.kestra.plugin.meta.UploadCache;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+@SuperBuilder
+@ToString(exclude = { "accessToken" })
+@EqualsAndHashCode
+@Getter
+@NoArgsConstructor
+@Schema(
+    title = "Send a media message via the WhatsApp Cloud API",
+    description = "Uploads a file from internal storage to `/{phone-number-id}/media` and sends it to each recipient. " +
+        "The returned media ID is cached in the namespace KV store by content hash, so the same report or image sent again is referenced by ID instead of being uploaded again."
+)
+@Plugin(
+    examples = {
+        @Example(
+            title = "Send a daily PDF report to a list of WhatsApp numbers.",
+            full = true,
+            code = """
+                id: daily_report
+                namespace: company.team
+
+                tasks:
+                  - id: report
+                    type: io.kestra.plugin.core.http.Download
+                    uri: https://example.com/reports/daily.pdf
+
+                  - id: send_report
+                    type: io.kestra.plugin.meta.whatsapp.WhatsAppMediaMessage
+                    phoneNumberId: "{{ secret('WHATSAPP_PHONE_NUMBER_ID') }}"
+                    accessToken: "{{ secret('WHATSAPP_ACCESS_TOKEN') }}"
+                    recipients:
+                      - "380999999999"
+                    media: "{{ outputs.report.uri }}"
+                    mediaType: DOCUMENT
+                    filename: daily.pdf
+                    caption: "Daily report"
+                """
+        )
+    }
+)
+public class WhatsAppMediaMessage extends AbstractMetaConnection {
+
+    @Schema(title = "Phone number ID", description = "WhatsApp Business phone number ID that sends the messages.")
+    @NotNull
+    @PluginProperty(group = "main")
+    private Property<String> phoneNumberId;
+
+    @Schema(title = "Access token", description = "System user or app access token with the `whatsapp_business_messaging` permission.")
+    @NotNull
+    @PluginProperty(group = "main", secret = true)
+    private Property<String> accessToken;
+
+    @Schema(title = "Recipients", description = "WhatsApp IDs or phone numbers in international format.")
+    @NotNull
+    @PluginProperty(group = "main")
+    private Property<List<String>> recipients;
+
+    @Schema(title = "Media", description = "Internal storage URI of the file to send.")
+    @NotNull
+    @PluginProperty(internalStorageURI = true, group = "main")
+    private Property<String> media;
+
+    @Schema(title = "Media type", description = "WhatsApp message type of the file. Defaults to DOCUMENT.")
+    @Builder.Default
+    @PluginProperty(group = "main")
+    private Property<WhatsAppMediaType> mediaType = Property.ofValue(WhatsAppMediaType.DOCUMENT);
+
+    @Schema(title = "Caption", description = "Text shown under images, videos and documents.")
+    @PluginProperty(group = "destination")
+    private Property<String> caption;
+
+    @Schema(title = "File name", description = "File name shown to the recipient of a document; defaults to the name of the stored file.")
+    @PluginProperty(group = "destination")
+    private Property<String> filename;
+
+    @Schema(title = "Content type", description = "MIME type sent with the upload; guessed from the file name when not set.")
+    @PluginProperty(group = "advanced")
+    private Property<String> contentType;
+
+    @Schema(
+        title = "Media ID cache TTL",
+        description = "How long an uploaded media ID is reused. Meta deletes uploaded media after 30 days, so keep it below that."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<Duration> cacheTtl = Property.ofValue(Duration.ofDays(29));
+
+    @Schema(title = "API Version", description = "Graph API version to call. Defaults to v24.0.")
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<String> apiVersion = Property.ofValue("v24.0");
+
+    @Schema(title = "Base API URL", description = "Base Graph API URL. Defaults to `https://graph.facebook.com`.")
+    @Builder.Default
+    @PluginProperty(group = "connection")
+    private Property<String> apiBaseUrl = Property.ofValue("https://graph.facebook.com");
+
+    @Override
+    public VoidOutput run(RunContext runContext) throws Exception {
+        String rPhoneNumberId = runContext.render(this.phoneNumberId).as(String.class).orElseThrow();
+        String rAccessToken = runContext.render(this.accessToken).as(String.class).orElseThrow();
+        List<String> rRecipients = runContext.render(this.recipients).asList(String.class);
+        URI rMedia = URI.create(runContext.render(this.media).as(String.class).orElseThrow());
+        WhatsAppMediaType rMediaType = runContext.render(this.mediaType).as(WhatsAppMediaType.class).orElse(WhatsAppMediaType.DOCUMENT);
+        Optional<String> rCaption = runContext.render(this.caption).as(String.class);
+        String rFilename = runContext.render(this.filename).as(String.class).orElse(UploadCache.fileName(rMedia));
+        String rContentType = runContext.render(this.contentType).as(String.class)
+            .or(() -> Optional.ofNullable(URLConnection.guessContentTypeFromName(UploadCache.fileName(rMedia))))
+            .orElse("application/octet-stream");
+        Duration rCacheTtl = runContext.render(this.cacheTtl).as(Duration.class).orElse(Duration.ofDays(29));
+        String rVersion = runContext.render(this.apiVersion).as(String.class).orElse("v24.0");
+        String rBaseUrl = runContext.render(this.apiBaseUrl).as(String.class).orElse("https://graph.facebook.com");
+
+        if (rRecipients.isEmpty()) {
+            throw new IllegalArgumentException("At least one recipient is required");
+        }
+
+        String baseUrl = String.format("%s/%s/%s", rBaseUrl, rVersion, rPhoneNumberId);
+
+        try (MetaHttpClient client = createHttpClient(runContext)) {
+            // media IDs belong to the phone number that uploaded them
+            UploadCache.Upload upload = UploadCache.resolve(
+                runContext,
+                "meta_whatsapp_media",
+                rPhoneNumberId,
+                rMedia,
+                rCacheTtl,
+                file -> uploadMedia(runContext, client, baseUrl + "/media", rAccessToken, rContentType, file)
+            );
+
+            String messagesUrl = baseUrl + "/messages";
+            var rOutbox = outboxQueue(runContext);
+
+            for (String recipient : rRecipients) {
+                String payload = payload(recipient, rMediaType, upload.id(), rCaption.orElse(null), rFilename);
+
+                if (rOutbox.isPresent()) {
+                    enqueue(runContext, rOutbox.get(), messagesUrl, payload, true);
+                    continue;
+                }
+
+                HttpRequest request = createRequestBuilder(runContext)
+                    .addHeader("Content-Type", "application/json")
+                    .addHeader("Authorization", "Bearer " + rAccessToken)
+                    .uri(URI.create(messagesUrl))
+                    .method("POST")
+                    .body(HttpRequest.StringRequestBody.builder().content(payload).build())
+                    .build();
+
+                HttpResponse<String> response = client.request(request, "messages/whatsapp");
+
+                if (response.getStatus().getCode() != 200) {
+                    throw new RuntimeException("Failed to send WhatsApp media message: " + response.getStatus().getCode() + " - " + response.getBody());
+                }
+
+                runContext.logger().info("WhatsApp media message sent to {}", recipient);
+            }
+        }
+
+        return null;
+    }
+
+    private String uploadMedia(RunContext runContext, MetaHttpClient client, String uploadUrl, String accessToken, String contentType, File file) throws Exception {
+        HttpRequest request = createRequestBuilder(runContext)
+            .addHeader("Authorization", "Bearer " + accessToken)
+            .uri(URI.create(uploadUrl))
+            .method("POST")
+            .body(
+                HttpRequest.MultipartRequestBody.builder()
+                    .content(Map.of(
+                        "messaging_product", "whatsapp",
+                        "type", contentType,
+                        "file", file
+                    ))
+                    .build()
+            )
+            .build();
+
+        HttpResponse<String> response = client.request(request, "uploads/whatsapp");
+
+        if (response.getStatus().getCode() != 200) {
+            throw new RuntimeException("Failed to upload WhatsApp media: " + response.getStatus().getCode() + " - " + response.getBody());
+        }
+
+        JsonNode responseJson = JacksonMapper.ofJson().readTree(response.getBody());
+        if (!responseJson.hasNonNull("id")) {
+            throw new RuntimeException("Failed to upload WhatsApp media: no id in " + response.getBody());
+        }
+
+        return responseJson.get("id").asText();
+    }
+
+    static String payload(String recipient, WhatsAppMediaType mediaType, String mediaId, String caption, String filename) throws Exception {
+        String type = mediaType.name().toLowerCase();
+
+        Map<String, Object> media = new HashMap<>();
+        media.put("id", mediaId);
+        if (caption != null && mediaType != WhatsAppMediaType.AUDIO && mediaType != WhatsAppMediaType.STICKER) {
+            media.put("caption", caption);
+        }
+        if (mediaType == WhatsAppMediaType.DOCUMENT) {
+            media.put("filename", filename);
+        }
+
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("messaging_product", "whatsapp");
+        payload.put("recipient_type", "individual");
+        payload.put("to", recipient);
+        payload.put("type", type);
+        payload.put(type, media);
+
+        return JacksonMapper.ofJson().writeValueAsString(payload);
+    }
+}
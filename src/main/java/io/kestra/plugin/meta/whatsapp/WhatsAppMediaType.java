@@ -0,0 +1,9 @@
+package io.kestra.plugin.meta.whatsapp;
+
+public enum WhatsAppMediaType {
+    IMAGE,
+    VIDEO,
+    AUDIO,
+    DOCUMENT,
+    STICKER
+}
@@ -86,10 +86,9 @@ public abstract class WhatsAppTemplate extends WhatsAppIncomingWebhook {
     @PluginProperty(group = "advanced")
     protected Property<String> recipientId;
 
-    @SuppressWarnings("unchecked")
     @Override
     public VoidOutput run(RunContext runContext) throws Exception {
-        Map<String, Object> map = new HashMap<>();
+        String rendered = null;
 
         final var renderedTemplateUri = runContext.render(this.templateUri).as(String.class);
         if (renderedTemplateUri.isPresent()) {
@@ -98,20 +97,44 @@ public abstract class WhatsAppTemplate extends WhatsAppIncomingWebhook {
                 StandardCharsets.UTF_8
             );
 
-            String render = runContext.render(
+            rendered = runContext.render(
                 template, templateRenderMap != null ? runContext.render(templateRenderMap).asMap(String.class, Object.class) : Map.of()
             );
-            map = (Map<String, Object>) JacksonMapper.ofJson().readValue(render, Object.class);
         }
 
-        final var renderedProfileName = runContext.render(this.profileName).as(String.class);
-        final var renderedWhatsAppIds = runContext.render(this.whatsAppIds).asList(String.class);
-        if (renderedProfileName.isPresent() && !renderedWhatsAppIds.isEmpty()) {
-            List<Map<String, Object>> profiles = renderedWhatsAppIds.stream()
+        this.payload = Property.ofValue(
+            payload(
+                rendered,
+                runContext.render(this.profileName).as(String.class).orElse(null),
+                runContext.render(this.whatsAppIds).asList(String.class),
+                runContext.render(this.from).as(String.class).orElse(null),
+                runContext.render(this.messageId).as(String.class).orElse(null),
+                runContext.render(this.textBody).as(String.class).orElse(null),
+                runContext.render(this.recipientId).as(String.class).orElse(null)
+            )
+        );
+
+        return super.run(runContext);
+    }
+
+    /**
+     * Builds the webhook payload from the rendered template, overriding its contacts, message and recipient with the task properties that are set.
+     */
+    @SuppressWarnings("unchecked")
+    static String payload(String renderedTemplate, String profileName, List<String> whatsAppIds, String from, String messageId, String textBody,
+        String recipientId) throws Exception {
+        Map<String, Object> map = new HashMap<>();
+
+        if (renderedTemplate != null) {
+            map = (Map<String, Object>) JacksonMapper.ofJson().readValue(renderedTemplate, Object.class);
+        }
+
+        if (profileName != null && !whatsAppIds.isEmpty()) {
+            List<Map<String, Object>> profiles = whatsAppIds.stream()
                 .map(
                     throwFunction(
                         WhatsAppId -> Map.of(
-                            "profile", Map.of("name", renderedProfileName.get()),
+                            "profile", Map.of("name", profileName),
                             "wa_id", WhatsAppId
                         )
                     )
@@ -121,14 +144,15 @@ public abstract class WhatsAppTemplate extends WhatsAppIncomingWebhook {
             map.put("contacts", profiles);
         }
 
-        final var renderedFrom = runContext.render(this.from).as(String.class);
-        if (renderedFrom.isPresent()) {
-            Map<String, Object> message = new HashMap<>(Map.of("from", renderedFrom.get()));
+        if (from != null) {
+            Map<String, Object> message = new HashMap<>(Map.of("from", from));
 
-            runContext.render(this.messageId).as(String.class).ifPresent(id -> message.put("id", id));
+            if (messageId != null) {
+                message.put("id", messageId);
+            }
 
-            if (runContext.render(this.textBody).as(String.class).isPresent()) {
-                message.put("text", Map.of("body", runContext.render(this.textBody).as(String.class).get()));
+            if (textBody != null) {
+                message.put("text", Map.of("body", textBody));
             } else {
                 message.put("text", ((List<Map<String, Object>>) map.get("messages")).getFirst().getOrDefault("text", ""));
             }
@@ -138,13 +162,10 @@ public abstract class WhatsAppTemplate extends WhatsAppIncomingWebhook {
             map.put("messages", List.of(message));
         }
 
-        if (runContext.render(recipientId).as(String.class).isPresent()) {
-            map.put("recipient_id", runContext.render(recipientId).as(String.class).get());
+        if (recipientId != null) {
+            map.put("recipient_id", recipientId);
         }
 
-        this.payload = Property.ofValue(JacksonMapper.ofJson().writeValueAsString(map));
-
-        return super.run(runContext);
+        return JacksonMapper.ofJson().writeValueAsString(map);
     }
-
 }
@@ -0,0 +1,57 @@
+package io.kestra.plugin.meta;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CircuitBreakerTest {
+
+    @Test
+    void openAfterConsecutiveFailures() {
+        AtomicLong clock = new AtomicLong();
+        CircuitBreaker breaker = new CircuitBreaker("insights@graph.facebook.com", 3, Duration.ofSeconds(30), clock::get);
+
+        for (int i = 0; i < 2; i++) {
+            breaker.acquire();
+            breaker.failure();
+        }
+        breaker.acquire();
+        breaker.success();
+        assertThat(breaker.state(), is(CircuitState.CLOSED));
+
+        for (int i = 0; i < 3; i++) {
+            breaker.acquire();
+            breaker.failure();
+        }
+        assertThat(breaker.state(), is(CircuitState.OPEN));
+        assertThrows(IllegalStateException.class, breaker::acquire);
+    }
+
+    @Test
+    void probeOnceWhenHalfOpen() {
+        AtomicLong clock = new AtomicLong();
+        CircuitBreaker breaker = new CircuitBreaker("feed@graph.facebook.com", 1, Duration.ofSeconds(30), clock::get);
+
+        breaker.acquire();
+        breaker.failure();
+        assertThat(breaker.state(), is(CircuitState.OPEN));
+
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+        breaker.acquire();
+        assertThat(breaker.state(), is(CircuitState.HALF_OPEN));
+        assertThrows(IllegalStateException.class, breaker::acquire);
+
+        breaker.failure();
+        assertThat(breaker.state(), is(CircuitState.OPEN));
+
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+        breaker.acquire();
+        breaker.success();
+        assertThat(breaker.state(), is(CircuitState.CLOSED));
+    }
+}
@@ -0,0 +1,35 @@
+package io.kestra.plugin.meta;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DateRangeTest {
+
+    @Test
+    void splitInWindows() {
+        DateRange range = new DateRange(LocalDate.parse("2025-01-01"), LocalDate.parse("2025-03-15"));
+
+        assertThat(range.split(30), contains(
+            new DateRange(LocalDate.parse("2025-01-01"), LocalDate.parse("2025-01-30")),
+            new DateRange(LocalDate.parse("2025-01-31"), LocalDate.parse("2025-03-01")),
+            new DateRange(LocalDate.parse("2025-03-02"), LocalDate.parse("2025-03-15"))
+        ));
+    }
+
+    @Test
+    void singleDay() {
+        DateRange day = new DateRange(LocalDate.parse("2025-01-01"), LocalDate.parse("2025-01-01"));
+
+        assertThat(day.split(90), contains(day));
+    }
+
+    @Test
+    void rejectReversedRange() {
+        assertThrows(IllegalArgumentException.class, () -> new DateRange(LocalDate.parse("2025-02-01"), LocalDate.parse("2025-01-01")));
+    }
+}
@@ -2,6 +2,7 @@ package io.kestra.plugin.meta;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import io.micronaut.http.HttpRequest;
 import io.micronaut.http.HttpResponse;
@@ -9,12 +10,16 @@ import io.micronaut.http.MediaType;
 import io.micronaut.http.annotation.Body;
 import io.micronaut.http.annotation.Consumes;
 import io.micronaut.http.annotation.Controller;
+import io.micronaut.http.annotation.Part;
+import io.micronaut.http.annotation.PathVariable;
 import io.micronaut.http.annotation.Post;
+import io.micronaut.http.multipart.CompletedFileUpload;
 
 @Controller("/webhook-unit-test")
 public class FakeWebhookController {
     public static String data;
     public static Map<String, String> headers = new HashMap<>();
+    public static final AtomicInteger mediaUploads = new AtomicInteger();
 
     @Post
     @Consumes({ MediaType.APPLICATION_JSON, MediaType.APPLICATION_FORM_URLENCODED })
@@ -37,4 +42,24 @@ public class FakeWebhookController {
 
         return HttpResponse.ok("ok");
     }
+
+    @Post("/v24.0/{phoneNumberId}/media")
+    @Consumes(MediaType.MULTIPART_FORM_DATA)
+    public HttpResponse<String> uploadMedia(
+        @PathVariable String phoneNumberId,
+        @Part("messaging_product") String messagingProduct,
+        @Part("file") CompletedFileUpload file) {
+        if (!"whatsapp".equals(messagingProduct) || file.getSize() == 0) {
+            return HttpResponse.badRequest("{\"error\":{\"message\":\"invalid upload\"}}");
+        }
+
+        return HttpResponse.ok("{\"id\":\"media-" + mediaUploads.incrementAndGet() + "\"}");
+    }
+
+    @Post("/v24.0/{phoneNumberId}/messages")
+    @Consumes(MediaType.APPLICATION_JSON)
+    public HttpResponse<String> sendMessage(@PathVariable String phoneNumberId, @Body String data) {
+        FakeWebhookController.data = data;
+        return HttpResponse.ok("{\"messaging_product\":\"whatsapp\",\"messages\":[{\"id\":\"wamid.1\"}]}");
+    }
 }
@@ -0,0 +1,253 @@
+package io.kestra.plugin.meta;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.kestra.core.serializers.JacksonMapper;
+
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.MutableHttpResponse;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Makes the mock Graph API controllers behave like the real API under load: response latency, {@code X-App-Usage}
+ * headers, injected throttling and server errors, and cursor-paginated list responses.
+ * <p>
+ * Disabled by default, in which case the mocks answer their canned responses instantly.
+ */
+public final class GraphApiSimulator {
+    private static volatile Settings settings = Settings.builder().build();
+
+    private static final AtomicLong REQUESTS = new AtomicLong();
+    private static final AtomicLong ERRORS = new AtomicLong();
+    private static final AtomicLong NOT_MODIFIED = new AtomicLong();
+
+    private GraphApiSimulator() {
+    }
+
+    public static void configure(Settings settings) {
+        GraphApiSimulator.settings = settings;
+        REQUESTS.set(0);
+        ERRORS.set(0);
+        NOT_MODIFIED.set(0);
+    }
+
+    public static void reset() {
+        configure(Settings.builder().build());
+    }
+
+    public static long requests() {
+        return REQUESTS.get();
+    }
+
+    public static long errors() {
+        return ERRORS.get();
+    }
+
+    public static long notModified() {
+        return NOT_MODIFIED.get();
+    }
+
+    /**
+     * Answers a mock request: waits for the simulated latency, then returns either an injected error or the given body.
+     */
+    public static HttpResponse<String> respond(Supplier<String> body) {
+        Settings current = settings;
+        REQUESTS.incrementAndGet();
+
+        sleep(current.getLatency().sample());
+
+        Optional<MutableHttpResponse<String>> error = injectedError(current);
+        if (error.isPresent()) {
+            ERRORS.incrementAndGet();
+            return withUsage(error.get(), current);
+        }
+
+        return withUsage(HttpResponse.ok(body.get()), current);
+    }
+
+    /**
+     * Answers a conditional read like the Graph API: the body is tagged with an {@code ETag} derived from its content,
+     * and a request whose {@code If-None-Match} matches it gets an empty {@code 304 Not Modified}.
+     */
+    public static HttpResponse<String> respond(Supplier<String> body, String ifNoneMatch) {
+        String content = body.get();
+        String etag = "\"" + MetaKv.sha256(content).substring(0, 32) + "\"";
+
+        if (etag.equals(ifNoneMatch)) {
+            Settings current = settings;
+            REQUESTS.incrementAndGet();
+            NOT_MODIFIED.incrementAndGet();
+            sleep(current.getLatency().sample());
+
+            return withUsage(HttpResponse.<String>status(HttpStatus.NOT_MODIFIED).header("ETag", etag), current);
+        }
+
+        HttpResponse<String> response = respond(() -> content);
+        if (response.getStatus() == HttpStatus.OK) {
+            ((MutableHttpResponse<String>) response).header("ETag", etag);
+        }
+        return response;
+    }
+
+    /**
+     * Serves a recorded list response as pages of {@link Settings#getPageSize()} rows out of {@link Settings#getTotalRows()},
+     * linked by {@code paging.cursors.after} and {@code paging.next} like the Graph API.
+     *
+     * @param resource the recorded response, whose {@code data} rows are repeated
+     * @param after the cursor of the requested page, {@code null} for the first one
+     * @param nextUrl the URL of the next page without the {@code after} parameter
+     */
+    public static String page(String resource, String after, String nextUrl) {
+        Settings current = settings;
+        JsonNode recorded = recorded(resource);
+
+        if (current.getTotalRows() <= 0) {
+            return recorded.toString();
+        }
+
+        ArrayNode rows = (ArrayNode) recorded.get("data");
+        int from = after != null ? Integer.parseInt(after) : 0;
+        int to = Math.min(from + current.getPageSize(), current.getTotalRows());
+
+        ObjectNode page = JacksonMapper.ofJson().createObjectNode();
+        ArrayNode data = page.putArray("data");
+        for (int i = from; i < to; i++) {
+            ObjectNode row = rows.get(i % rows.size()).deepCopy();
+            row.put("id", row.path("id").asText() + "_" + i);
+            data.add(row);
+        }
+
+        ObjectNode paging = page.putObject("paging");
+        paging.putObject("cursors")
+            .put("before", String.valueOf(from))
+            .put("after", String.valueOf(to));
+        if (to < current.getTotalRows()) {
+            paging.put("next", nextUrl + (nextUrl.contains("?") ? "&" : "?") + "after=" + to);
+        }
+
+        return page.toString();
+    }
+
+    private static Optional<MutableHttpResponse<String>> injectedError(Settings current) {
+        if (current.getErrorRate() <= 0 || current.getErrorCodes().isEmpty() || ThreadLocalRandom.current().nextDouble() >= current.getErrorRate()) {
+            return Optional.empty();
+        }
+
+        int code = current.getErrorCodes().get(ThreadLocalRandom.current().nextInt(current.getErrorCodes().size()));
+
+        // values of 500 and above are HTTP statuses, lower ones Graph API error codes
+        if (code >= 500) {
+            return Optional.of(
+                HttpResponse.<String>status(HttpStatus.valueOf(code))
+                    .body("{\"error\":{\"message\":\"An unexpected error has occurred. Please retry your request later.\",\"type\":\"OAuthException\",\"code\":2}}")
+            );
+        }
+
+        return Optional.of(
+            HttpResponse.<String>status(HttpStatus.BAD_REQUEST)
+                .header("Retry-After", String.valueOf(current.getRetryAfterSeconds()))
+                .body("{\"error\":{\"message\":\"(#" + code + ") Application request limit reached\",\"type\":\"OAuthException\",\"code\":" + code + "}}")
+        );
+    }
+
+    private static MutableHttpResponse<String> withUsage(MutableHttpResponse<String> response, Settings current) {
+        if (current.getAppUsage() >= 0) {
+            int usage = current.getAppUsage();
+            response.header("X-App-Usage", "{\"call_count\":" + usage + ",\"total_cputime\":" + usage / 2 + ",\"total_time\":" + usage / 2 + "}");
+        }
+        return response;
+    }
+
+    private static JsonNode recorded(String resource) {
+        try (InputStream inputStream = GraphApiSimulator.class.getClassLoader().getResourceAsStream(resource)) {
+            return JacksonMapper.ofJson().readTree(Objects.requireNonNull(inputStream, resource));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read recorded response " + resource, e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Getter
+    @Builder
+    public static class Settings {
+        @Builder.Default
+        private final Latency latency = Latency.fixed(0);
+
+        /**
+         * Share of requests answered with one of {@link #errorCodes}.
+         */
+        @Builder.Default
+        private final double errorRate = 0;
+
+        /**
+         * Graph API error codes (4, 17, 613...) returned as HTTP 400, or HTTP statuses from 500.
+         */
+        @Builder.Default
+        private final List<Integer> errorCodes = List.of();
+
+        @Builder.Default
+        private final int retryAfterSeconds = 0;
+
+        /**
+         * Percentage reported in the {@code X-App-Usage} header, negative to omit the header.
+         */
+        @Builder.Default
+        private final int appUsage = -1;
+
+        /**
+         * Rows served across all pages of list endpoints, 0 to serve the recorded response as is.
+         */
+        @Builder.Default
+        private final int totalRows = 0;
+
+        @Builder.Default
+        private final int pageSize = 25;
+    }
+
+    /**
+     * Response latency distribution, in milliseconds.
+     */
+    @FunctionalInterface
+    public interface Latency {
+        long sample();
+
+        static Latency fixed(long millis) {
+            return () -> millis;
+        }
+
+        static Latency uniform(long minMillis, long maxMillis) {
+            return () -> ThreadLocalRandom.current().nextLong(minMillis, maxMillis + 1);
+        }
+
+        /**
+         * Long-tailed latency, as observed on the Graph API: most calls close to the median, a few much slower.
+         */
+        static Latency logNormal(long medianMillis, double sigma) {
+            return () -> Math.round(medianMillis * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian()));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package io.kestra.plugin.meta;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs a task repeatedly from concurrent callers against the simulated Graph API and reports end-to-end throughput.
+ */
+public final class LoadTestSupport {
+    private static final Logger log = LoggerFactory.getLogger(LoadTestSupport.class);
+
+    private LoadTestSupport() {
+    }
+
+    /**
+     * @param operation one task run, returning {@code false} when the task reports a failure in its output
+     */
+    public static Result measure(String name, int runs, int concurrency, Callable<Boolean> operation) throws Exception {
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>(runs));
+        AtomicInteger failures = new AtomicInteger();
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newFixedThreadPool(concurrency)) {
+            List<Future<?>> futures = new ArrayList<>(runs);
+            for (int i = 0; i < runs; i++) {
+                futures.add(executor.submit(() -> {
+                    long runStart = System.nanoTime();
+                    try {
+                        if (!operation.call()) {
+                            failures.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    }
+                    latencies.add(System.nanoTime() - runStart);
+                    return null;
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+
+        Result result = new Result(
+            name,
+            runs,
+            failures.get(),
+            runs / (elapsed.toNanos() / 1e9),
+            Duration.ofNanos(sorted.get(sorted.size() / 2)),
+            Duration.ofNanos(sorted.get((int) Math.min(sorted.size() - 1, Math.round(sorted.size() * 0.95))))
+        );
+
+        log.info(
+            "{}: {} runs, {} failed, {} runs/s, p50 {} ms, p95 {} ms, {} simulated requests, {} injected errors",
+            name, result.runs(), result.failures(), String.format("%.1f", result.throughput()),
+            result.p50().toMillis(), result.p95().toMillis(), GraphApiSimulator.requests(), GraphApiSimulator.errors()
+        );
+
+        return result;
+    }
+
+    public record Result(String name, int runs, int failures, double throughput, Duration p50, Duration p95) {
+    }
+}
@@ -0,0 +1,49 @@
+package io.kestra.plugin.meta;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class MetaHttpClientTest {
+
+    @Test
+    void retryThrottledCallsWithBackoff() {
+        String throttled = "{\"error\":{\"message\":\"Application request limit reached\",\"code\":4}}";
+
+        assertThat(MetaHttpClient.isThrottlingError(throttled), is(true));
+        assertThat(MetaHttpClient.retryDelay("POST", 400, throttled, 0, null), is(Optional.of(Duration.ofSeconds(1))));
+        assertThat(MetaHttpClient.retryDelay("POST", 400, throttled, 2, null), is(Optional.of(Duration.ofSeconds(4))));
+        assertThat(MetaHttpClient.retryDelay("POST", 429, null, 1, null), is(Optional.of(Duration.ofSeconds(2))));
+        assertThat(MetaHttpClient.retryDelay("POST", 400, throttled, MetaHttpClient.MAX_RETRIES, null), is(Optional.empty()));
+    }
+
+    @Test
+    void boundRetryAfter() {
+        assertThat(MetaHttpClient.retryDelay("GET", 429, null, 0, "30"), is(Optional.of(Duration.ofSeconds(30))));
+        assertThat(MetaHttpClient.retryDelay("GET", 429, null, 0, "60"), is(Optional.of(MetaHttpClient.MAX_RETRY_AFTER)));
+        assertThat(MetaHttpClient.retryDelay("GET", 429, null, 0, "86400"), is(Optional.empty()));
+        // unparseable and negative values fall back to the backoff
+        assertThat(MetaHttpClient.retryDelay("GET", 429, null, 1, "soon"), is(Optional.of(Duration.ofSeconds(2))));
+        assertThat(MetaHttpClient.retryDelay("GET", 429, null, 1, "-5"), is(Optional.of(Duration.ofSeconds(2))));
+    }
+
+    @Test
+    void retryServerErrorsOnlyForIdempotentMethods() {
+        assertThat(MetaHttpClient.retryDelay("GET", 503, null, 0, null).isPresent(), is(true));
+        assertThat(MetaHttpClient.retryDelay("DELETE", 500, null, 0, null).isPresent(), is(true));
+        assertThat(MetaHttpClient.retryDelay("POST", 500, null, 0, null).isPresent(), is(false));
+    }
+
+    @Test
+    void doNotRetryOtherErrors() {
+        String invalid = "{\"error\":{\"message\":\"Invalid OAuth access token\",\"code\":190}}";
+
+        assertThat(MetaHttpClient.isThrottlingError(invalid), is(false));
+        assertThat(MetaHttpClient.retryDelay("GET", 400, invalid, 0, null), is(Optional.empty()));
+        assertThat(MetaHttpClient.family("insights/post"), is("insights"));
+    }
+}
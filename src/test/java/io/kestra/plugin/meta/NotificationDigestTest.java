@@ -0,0 +1,132 @@
+package io.kestra.plugin.meta;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.serializers.JacksonMapper;
+import io.kestra.core.utils.IdUtils;
+import io.kestra.core.utils.TestsUtils;
+import io.kestra.plugin.meta.whatsapp.WhatsAppIncomingWebhook;
+
+import jakarta.inject.Inject;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+@KestraTest
+class NotificationDigestTest {
+
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @Test
+    void bufferAlertsUntilWindowElapsed() throws Exception {
+        RunContext runContext = runContext();
+
+        String scope = "test/" + IdUtils.create();
+        Duration window = Duration.ofMillis(500);
+
+        NotificationDigest.Digest first = NotificationDigest.offer(runContext, scope, executionMap("first"), window);
+        assertThat(first.isBuffered(), is(false));
+        assertThat(first.isDigest(), is(false));
+
+        assertThat(NotificationDigest.offer(runContext, scope, executionMap("second"), window).isBuffered(), is(true));
+        assertThat(NotificationDigest.offer(runContext, scope, executionMap("third"), window).isBuffered(), is(true));
+
+        Thread.sleep(window.toMillis() + 100);
+
+        NotificationDigest.Digest digest = NotificationDigest.offer(runContext, scope, executionMap("fourth"), window);
+        assertThat(digest.isDigest(), is(true));
+        assertThat(digest.alerts(), hasSize(3));
+        assertThat(digest.alerts().getFirst().get("link"), is("https://mysuperhost.com/kestra/ui/second"));
+    }
+
+    @Test
+    void flushBufferedAlertsOnceWindowElapsed() throws Exception {
+        RunContext runContext = runContext();
+
+        String scope = "test/" + IdUtils.create();
+        Duration window = Duration.ofMillis(500);
+
+        NotificationDigest.offer(runContext, scope, executionMap("first"), window);
+        assertThat(NotificationDigest.offer(runContext, scope, executionMap("second"), window).isBuffered(), is(true));
+        assertThat(NotificationDigest.flush(runContext, scope, window).isBuffered(), is(true));
+
+        Thread.sleep(window.toMillis() + 100);
+
+        NotificationDigest.Digest flushed = NotificationDigest.flush(runContext, scope, window);
+        assertThat(flushed.alerts(), hasSize(1));
+        assertThat(flushed.alerts().getFirst().get("link"), is("https://mysuperhost.com/kestra/ui/second"));
+        assertThat(NotificationDigest.flush(runContext, scope, window).isBuffered(), is(true));
+
+        // the window was closed by the flush, so the next alert is sent right away
+        NotificationDigest.Digest next = NotificationDigest.offer(runContext, scope, executionMap("third"), window);
+        assertThat(next.alerts(), hasSize(1));
+        assertThat(next.alerts().getFirst().get("link"), is("https://mysuperhost.com/kestra/ui/third"));
+    }
+
+    @Test
+    void renderDigestTemplates() throws Exception {
+        RunContext runContext = runContext();
+
+        NotificationDigest.Digest digest = new NotificationDigest.Digest(
+            Instant.parse("2025-01-01T00:00:00Z"),
+            List.of(NotificationDigest.alert(executionMap("first")), NotificationDigest.alert(executionMap("second")))
+        );
+        Map<String, Object> renderMap = digest.renderMap(Map.of("customMessage", "myCustomMessage"));
+
+        String messenger = runContext.render(template("messenger-digest-template.peb"), renderMap);
+        assertThat(messenger, containsString("2 executions reported since 2025-01-01T00:00:00Z"));
+        assertThat(messenger, containsString("[io.kestra.tests] main-flow-that-fails ➛ FAILED (failed on task `failed`) after PT1S"));
+        assertThat(messenger, containsString("https://mysuperhost.com/kestra/ui/second"));
+        assertThat(messenger, containsString("myCustomMessage"));
+
+        JsonNode whatsApp = JacksonMapper.ofJson().readTree(runContext.render(template("whatsapp-digest-template.peb"), renderMap));
+        JsonNode body = whatsApp.at("/messages/0/text/body");
+        assertThat(body.size(), is(3));
+        assertThat(body.get(0).asText(), is("2 executions reported since 2025-01-01T00:00:00Z"));
+        assertThat(body.get(2).asText(), containsString("https://mysuperhost.com/kestra/ui/second"));
+        assertThat(body.get(2).asText(), containsString("Failed on task `failed`"));
+    }
+
+    private RunContext runContext() {
+        WhatsAppIncomingWebhook task = WhatsAppIncomingWebhook.builder()
+            .id("digest")
+            .type(WhatsAppIncomingWebhook.class.getName())
+            .url("http://localhost:59443/webhook-unit-test")
+            .build();
+        return TestsUtils.mockRunContext(runContextFactory, task, Map.of());
+    }
+
+    private static String template(String name) throws Exception {
+        return IOUtils.toString(Objects.requireNonNull(NotificationDigest.class.getClassLoader().getResourceAsStream(name)), StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, Object> executionMap(String id) {
+        return Map.of(
+            "execution", Map.of(
+                "id", id,
+                "namespace", "io.kestra.tests",
+                "flowId", "main-flow-that-fails",
+                "state", Map.of("current", "FAILED")
+            ),
+            "link", "https://mysuperhost.com/kestra/ui/" + id,
+            "duration", "PT1S",
+            "firstFailed", Map.of("taskId", "failed")
+        );
+    }
+}
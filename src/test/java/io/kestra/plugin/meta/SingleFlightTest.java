@@ -0,0 +1,68 @@
+package io.kestra.plugin.meta;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class SingleFlightTest {
+
+    @Test
+    void shareInFlightReads() throws Exception {
+        SingleFlight<String> singleFlight = new SingleFlight<>();
+        AtomicInteger reads = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<SingleFlight.Result<String>> leader = CompletableFuture.supplyAsync(() -> run(singleFlight, "media", null, () -> {
+            reads.incrementAndGet();
+            started.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return "body";
+        }));
+        started.await(10, TimeUnit.SECONDS);
+
+        CompletableFuture<SingleFlight.Result<String>> follower = CompletableFuture.supplyAsync(() -> run(singleFlight, "media", null, () -> {
+            reads.incrementAndGet();
+            return "other";
+        }));
+        Thread.sleep(100);
+        release.countDown();
+
+        assertThat(leader.get().shared(), is(false));
+        assertThat(follower.get().shared(), is(true));
+        assertThat(follower.get().value(), is("body"));
+        assertThat(reads.get(), is(1));
+
+        // once completed and without a reuse window, the next read is sent again
+        assertThat(singleFlight.run("media", null, () -> "fresh").value(), is("fresh"));
+    }
+
+    @Test
+    void reuseCompletedReadsWithinWindow() throws Exception {
+        SingleFlight<String> singleFlight = new SingleFlight<>();
+
+        assertThat(singleFlight.run("insights", Duration.ofMinutes(1), () -> "first").shared(), is(false));
+
+        SingleFlight.Result<String> reused = singleFlight.run("insights", Duration.ofMinutes(1), () -> "second");
+        assertThat(reused.shared(), is(true));
+        assertThat(reused.value(), is("first"));
+
+        assertThat(singleFlight.run("other-token insights", Duration.ofMinutes(1), () -> "third").value(), is("third"));
+    }
+
+    private static SingleFlight.Result<String> run(SingleFlight<String> singleFlight, String key, Duration window, Callable<String> read) {
+        try {
+            return singleFlight.run(key, window, read);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
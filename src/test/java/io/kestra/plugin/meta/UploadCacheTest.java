@@ -0,0 +1,69 @@
+package io.kestra.plugin.meta;
+
+import java.io.File;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.utils.IdUtils;
+import io.kestra.core.utils.TestsUtils;
+import io.kestra.plugin.meta.whatsapp.WhatsAppIncomingWebhook;
+
+import jakarta.inject.Inject;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+@KestraTest
+class UploadCacheTest {
+
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @Test
+    void uploadOncePerContent() throws Exception {
+        WhatsAppIncomingWebhook task = WhatsAppIncomingWebhook.builder()
+            .id("upload")
+            .type(WhatsAppIncomingWebhook.class.getName())
+            .url("http://localhost:59443/webhook-unit-test")
+            .build();
+        RunContext runContext = TestsUtils.mockRunContext(runContextFactory, task, Map.of());
+
+        URI report = put(runContext, "report.pdf", "runbook");
+        URI sameContent = put(runContext, "copy.pdf", "runbook");
+        URI otherContent = put(runContext, "chart.png", "chart");
+
+        String scope = "page-" + IdUtils.create();
+        AtomicInteger uploads = new AtomicInteger();
+        UploadCache.UploadFunction upload = file -> "id-" + uploads.incrementAndGet() + "-" + Files.readString(file.toPath());
+
+        UploadCache.Upload first = UploadCache.resolve(runContext, "meta_test_upload", scope, report, null, upload);
+        assertThat(first.cached(), is(false));
+        assertThat(first.id(), is("id-1-runbook"));
+
+        UploadCache.Upload second = UploadCache.resolve(runContext, "meta_test_upload", scope, sameContent, null, upload);
+        assertThat(second.cached(), is(true));
+        assertThat(second.id(), is("id-1-runbook"));
+
+        UploadCache.Upload other = UploadCache.resolve(runContext, "meta_test_upload", scope, otherContent, null, upload);
+        assertThat(other.cached(), is(false));
+        assertThat(other.id(), is("id-2-chart"));
+
+        assertThat(uploads.get(), is(2));
+    }
+
+    private static URI put(RunContext runContext, String name, String content) throws Exception {
+        Path path = runContext.workingDir().createFile(name);
+        Files.writeString(path, content);
+        File file = path.toFile();
+
+        return runContext.storage().putFile(file);
+    }
+}
@@ -0,0 +1,122 @@
+package io.kestra.plugin.meta.facebook;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContextFactory;
+import io.kestra.plugin.meta.GraphApiSimulator;
+import io.kestra.plugin.meta.LoadTestSupport;
+import io.kestra.plugin.meta.facebook.enums.PostMetric;
+import io.kestra.plugin.meta.facebook.posts.Create;
+import io.kestra.plugin.meta.facebook.posts.Delete;
+import io.kestra.plugin.meta.facebook.posts.GetInsights;
+
+import jakarta.inject.Inject;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+@Tag("load")
+@KestraTest
+class FacebookLoadTest extends AbstractFacebookTest {
+    private static final int RUNS = 200;
+    private static final int CONCURRENCY = 16;
+
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @BeforeEach
+    void simulate() {
+        GraphApiSimulator.configure(
+            GraphApiSimulator.Settings.builder()
+                .latency(GraphApiSimulator.Latency.logNormal(40, 0.6))
+                .errorRate(0.05)
+                .errorCodes(List.of(4, 17, 613, 503))
+                .appUsage(42)
+                .totalRows(500)
+                .build()
+        );
+    }
+
+    @AfterEach
+    void stopSimulating() {
+        GraphApiSimulator.reset();
+    }
+
+    @Test
+    void list() throws Exception {
+        var result = LoadTestSupport.measure("facebook.posts.List", RUNS, CONCURRENCY, () -> {
+            io.kestra.plugin.meta.facebook.posts.List task = io.kestra.plugin.meta.facebook.posts.List.builder()
+                .apiBaseUrl(Property.ofValue(embeddedServer.getURL().toString()))
+                .pageId(Property.ofValue("123456789"))
+                .accessToken(Property.ofValue("test_access_token"))
+                .build();
+
+            return task.run(runContextFactory.of()).getSize() > 0;
+        });
+
+        assertThat(result.failures(), is(0));
+        assertThat(result.throughput(), greaterThan(0.0));
+    }
+
+    @Test
+    void insights() throws Exception {
+        var result = LoadTestSupport.measure("facebook.posts.GetInsights", RUNS, CONCURRENCY, () -> {
+            GetInsights task = GetInsights.builder()
+                .apiBaseUrl(Property.ofValue(embeddedServer.getURL().toString()))
+                .pageId(Property.ofValue("123456789"))
+                .accessToken(Property.ofValue("test_access_token"))
+                .postIds(Property.ofValue(List.of("123456789_987654321", "123456789_987654322")))
+                .metrics(Property.ofValue(List.of(PostMetric.POST_IMPRESSIONS)))
+                .build();
+
+            return task.run(runContextFactory.of()).getPosts().stream().allMatch(post -> post.getError() == null);
+        });
+
+        assertThat(result.failures(), is(0));
+        assertThat(result.throughput(), greaterThan(0.0));
+    }
+
+    @Test
+    void delete() throws Exception {
+        var result = LoadTestSupport.measure("facebook.posts.Delete", RUNS, CONCURRENCY, () -> {
+            Delete task = Delete.builder()
+                .apiBaseUrl(Property.ofValue(embeddedServer.getURL().toString()))
+                .pageId(Property.ofValue("123456789"))
+                .accessToken(Property.ofValue("test_access_token"))
+                .postIds(Property.ofValue(List.of("123456789_1", "123456789_2", "123456789_3")))
+                .build();
+
+            return task.run(runContextFactory.of()).getAllSuccess();
+        });
+
+        assertThat(result.failures(), is(0));
+        assertThat(result.throughput(), greaterThan(0.0));
+    }
+
+    @Test
+    void publish() throws Exception {
+        var result = LoadTestSupport.measure("facebook.posts.Create", RUNS, CONCURRENCY, () -> {
+            Create task = Create.builder()
+                .apiBaseUrl(Property.ofValue(embeddedServer.getURL().toString()))
+                .pageId(Property.ofValue("123456789"))
+                .accessToken(Property.ofValue("test_access_token"))
+                .message(Property.ofValue("Load test post"))
+                .build();
+
+            return task.run(runContextFactory.of()).getPostId() != null;
+        });
+
+        // server errors are not retried for POST, so only the injected 503s may fail
+        assertThat(result.failures(), lessThanOrEqualTo(RUNS / 10));
+        assertThat(result.throughput(), greaterThan(0.0));
+    }
+}
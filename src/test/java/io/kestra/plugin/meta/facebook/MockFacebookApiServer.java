@@ -1,62 +1,182 @@
 package io.kestra.plugin.meta.facebook;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
 
 import org.apache.commons.io.IOUtils;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.kestra.core.serializers.JacksonMapper;
+import io.kestra.plugin.meta.GraphApiSimulator;
+
 import io.micronaut.context.annotation.Requires;
 import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.HttpRequest;
 import io.micronaut.http.HttpResponse;
 import io.micronaut.http.annotation.*;
+import io.micronaut.scheduling.TaskExecutors;
+import io.micronaut.scheduling.annotation.ExecuteOn;
 import jakarta.annotation.Nullable;
 
 @Controller("/v24.0")
+// simulated latency sleeps, keep it off the event loop
+@ExecuteOn(TaskExecutors.BLOCKING)
 @Requires(property = "mock.facebook.enabled", value = "true", defaultValue = "true")
 @Requires(property = "mock.instagram.enabled", value = "false", defaultValue = "false")
 public class MockFacebookApiServer {
+    private static final Map<String, AtomicInteger> REPORT_POLLS = new ConcurrentHashMap<>();
+
+    /**
+     * Events received by the Conversions API mock, decompressed.
+     */
+    public static final List<JsonNode> CONVERSION_EVENTS = new CopyOnWriteArrayList<>();
+
+    /**
+     * {@code Accept-Encoding} of the last list posts request, the server compresses its response accordingly.
+     */
+    public static volatile String feedAcceptEncoding;
 
     @Post("/{pageId}/feed")
     public HttpResponse<String> createPost(@PathVariable String pageId,
         @Header(HttpHeaders.AUTHORIZATION) @Nullable String authorization) {
-        return HttpResponse.ok("{\"id\": \"123456789_987654321\"}");
+        return GraphApiSimulator.respond(() -> "{\"id\": \"123456789_987654321\"}");
     }
 
     @Delete("/{postId}")
     public HttpResponse<String> deletePost(@PathVariable String postId,
         @Header(HttpHeaders.AUTHORIZATION) @Nullable String authorization) {
-        return HttpResponse.ok("{\"success\": true}");
+        return GraphApiSimulator.respond(() -> "{\"success\": true}");
     }
 
     @Get("/{pageId}/feed")
-    public HttpResponse<String> listPosts(@PathVariable String pageId,
-        @Header(HttpHeaders.AUTHORIZATION) @Nullable String authorization)
-        throws IOException {
-        return HttpResponse.ok(
-            IOUtils.toString(
-                Objects.requireNonNull(
-                    MockFacebookApiServer.class.getClassLoader().getResourceAsStream(
-                        "responses/facebook/list-posts.json"
-                    )
-                ),
-                StandardCharsets.UTF_8
-            )
+    public HttpResponse<String> listPosts(HttpRequest<?> request, @PathVariable String pageId,
+        @Header(HttpHeaders.AUTHORIZATION) @Nullable String authorization,
+        @Header(HttpHeaders.HOST) @Nullable String host,
+        @Header(HttpHeaders.IF_NONE_MATCH) @Nullable String ifNoneMatch,
+        @Header(HttpHeaders.ACCEPT_ENCODING) @Nullable String acceptEncoding,
+        @Nullable @QueryValue String after) {
+        feedAcceptEncoding = acceptEncoding;
+        return GraphApiSimulator.respond(
+            () -> GraphApiSimulator.page("responses/facebook/list-posts.json", after, "http://" + host + request.getPath()),
+            ifNoneMatch
+        );
+    }
+
+    @Get("/{postId}/comments")
+    public HttpResponse<String> listComments(HttpRequest<?> request, @PathVariable String postId,
+        @Header(HttpHeaders.AUTHORIZATION) @Nullable String authorization,
+        @Header(HttpHeaders.HOST) @Nullable String host,
+        @Header(HttpHeaders.IF_NONE_MATCH) @Nullable String ifNoneMatch,
+        @Nullable @QueryValue String after) {
+        return GraphApiSimulator.respond(
+            () -> GraphApiSimulator.page("responses/facebook/post-comments.json", after, "http://" + host + request.getPath()),
+            ifNoneMatch
         );
     }
 
     @Get("/{postId}/insights")
-    public HttpResponse<String> getPostInsights(@PathVariable String postId,
-        @Header(HttpHeaders.AUTHORIZATION) @Nullable String authorization)
-        throws IOException {
-        return HttpResponse.ok(
-            IOUtils.toString(
-                Objects.requireNonNull(
-                    MockFacebookApiServer.class.getClassLoader()
-                        .getResourceAsStream("responses/facebook/post-insights.json")
-                ),
-                StandardCharsets.UTF_8
-            )
+    public HttpResponse<String> getPostInsights(HttpRequest<?> request, @PathVariable String postId,
+        @Header(HttpHeaders.AUTHORIZATION) @Nullable String authorization,
+        @Header(HttpHeaders.HOST) @Nullable String host,
+        @Header(HttpHeaders.IF_NONE_MATCH) @Nullable String ifNoneMatch,
+        @Nullable @QueryValue String after,
+        @Nullable @QueryValue String metric,
+        @Nullable @QueryValue String since,
+        @Nullable @QueryValue String until) {
+        if (metric != null && metric.startsWith("page_") && since != null && until != null) {
+            return GraphApiSimulator.respond(() -> pageInsights(metric, LocalDate.parse(since), LocalDate.parse(until)), ifNoneMatch);
+        }
+        if (postId.startsWith("report_")) {
+            return GraphApiSimulator.respond(
+                () -> GraphApiSimulator.page("responses/facebook/ads-insights.json", after, "http://" + host + request.getPath()),
+                ifNoneMatch
+            );
+        }
+        return GraphApiSimulator.respond(() -> resource("responses/facebook/post-insights.json"), ifNoneMatch);
+    }
+
+    // report run IDs carry the start of their date range, so that tests can check the order of the chunks
+    @Post("/{accountId}/insights")
+    public HttpResponse<String> createAdsReport(@PathVariable String accountId, @Body String body,
+        @Header(HttpHeaders.AUTHORIZATION) @Nullable String authorization) throws IOException {
+        String since = JacksonMapper.ofJson().readTree(body).path("time_range").path("since").asText();
+        return GraphApiSimulator.respond(() -> "{\"report_run_id\": \"report_" + since + "\"}");
+    }
+
+    // a report is running on its first status check, and completed from the second one
+    @Get("/{reportRunId}")
+    public HttpResponse<String> getAdsReportStatus(@PathVariable String reportRunId,
+        @Header(HttpHeaders.AUTHORIZATION) @Nullable String authorization) {
+        int polls = REPORT_POLLS.computeIfAbsent(reportRunId, id -> new AtomicInteger()).incrementAndGet();
+        return GraphApiSimulator.respond(() -> polls < 2
+            ? "{\"id\": \"" + reportRunId + "\", \"async_status\": \"Job Running\", \"async_percent_completion\": 50}"
+            : "{\"id\": \"" + reportRunId + "\", \"async_status\": \"Job Completed\", \"async_percent_completion\": 100}"
         );
     }
+
+    @Post("/{pixelId}/events")
+    public HttpResponse<String> sendConversionEvents(@PathVariable String pixelId, @Body byte[] body,
+        @Header(HttpHeaders.AUTHORIZATION) @Nullable String authorization,
+        @Header(HttpHeaders.CONTENT_ENCODING) @Nullable String contentEncoding) throws IOException {
+        InputStream content = new ByteArrayInputStream(body);
+        // the server may already have inflated the body, so look at the gzip magic bytes rather than the header
+        if (body.length > 1 && (body[0] & 0xff) == 0x1f && (body[1] & 0xff) == 0x8b) {
+            content = new GZIPInputStream(content);
+        }
+
+        JsonNode data = JacksonMapper.ofJson().readTree(content).path("data");
+        for (JsonNode event : data) {
+            if (event.path("event_name").asText().equals("Invalid")) {
+                return HttpResponse.badRequest("{\"error\": {\"message\": \"Invalid parameter\", \"type\": \"OAuthException\", \"code\": 100}}");
+            }
+        }
+        data.forEach(CONVERSION_EVENTS::add);
+
+        return GraphApiSimulator.respond(() -> "{\"events_received\": " + data.size() + ", \"messages\": [], \"fbtrace_id\": \"AbCdEfGh\"}");
+    }
+
+    // one daily value per metric, ending at the start of the next day like the Graph API, grouped by metric
+    private static String pageInsights(String metrics, LocalDate since, LocalDate until) {
+        ObjectNode response = JacksonMapper.ofJson().createObjectNode();
+        ArrayNode data = response.putArray("data");
+
+        for (String metric : metrics.split(",")) {
+            ObjectNode insight = data.addObject()
+                .put("name", metric)
+                .put("period", "day");
+            ArrayNode values = insight.putArray("values");
+            for (LocalDate day = since; day.isBefore(until); day = day.plusDays(1)) {
+                values.addObject()
+                    .put("value", day.getDayOfYear())
+                    .put("end_time", day.plusDays(1) + "T08:00:00+0000");
+            }
+        }
+
+        return response.toString();
+    }
+
+    private static String resource(String name) {
+        try {
+            return IOUtils.toString(
+                Objects.requireNonNull(MockFacebookApiServer.class.getClassLoader().getResourceAsStream(name)),
+                StandardCharsets.UTF_8
+            );
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
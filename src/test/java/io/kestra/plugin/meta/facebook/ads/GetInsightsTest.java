@@ -0,0 +1,64 @@
+package io.kestra.plugin.meta.facebook.ads;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.serializers.FileSerde;
+import io.kestra.plugin.meta.GraphApiSimulator;
+import io.kestra.plugin.meta.facebook.AbstractFacebookTest;
+
+import jakarta.inject.Inject;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@KestraTest
+class GetInsightsTest extends AbstractFacebookTest {
+
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @Test
+    void runChunkedReportsAndMergeInOrder() throws Exception {
+        GraphApiSimulator.configure(GraphApiSimulator.Settings.builder().totalRows(120).pageSize(50).build());
+
+        try {
+            RunContext runContext = runContextFactory.of();
+
+            GetInsights task = GetInsights.builder()
+                .apiBaseUrl(Property.ofValue(embeddedServer.getURL().toString()))
+                .accessToken(Property.ofValue("mock-access-token"))
+                .adAccountId(Property.ofValue("1234567890"))
+                .since(Property.ofValue("2025-01-01"))
+                .until(Property.ofValue("2025-03-15"))
+                .chunkDays(Property.ofValue(30))
+                .pollInterval(Property.ofValue(Duration.ofMillis(10)))
+                .build();
+
+            GetInsights.Output output = task.run(runContext);
+
+            assertThat(output.getReportRunIds(), contains("report_2025-01-01", "report_2025-01-31", "report_2025-03-02"));
+            assertThat(output.getSize(), is(360L));
+
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(runContext.storage().getFile(output.getUri())))) {
+                List<Object> rows = FileSerde.readAll(reader).collectList().block();
+
+                assertThat(rows, hasSize(360));
+                @SuppressWarnings("unchecked")
+                Map<String, Object> first = (Map<String, Object>) rows.getFirst();
+                assertThat(first.get("campaign_name"), is("Autumn sale"));
+            }
+        } finally {
+            GraphApiSimulator.reset();
+        }
+    }
+}
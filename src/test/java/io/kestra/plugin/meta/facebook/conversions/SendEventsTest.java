@@ -0,0 +1,128 @@
+package io.kestra.plugin.meta.facebook.conversions;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.flows.State;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.serializers.FileSerde;
+import io.kestra.plugin.meta.MetaKv;
+import io.kestra.plugin.meta.facebook.AbstractFacebookTest;
+import io.kestra.plugin.meta.facebook.MockFacebookApiServer;
+
+import jakarta.inject.Inject;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@KestraTest
+class SendEventsTest extends AbstractFacebookTest {
+
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @Test
+    void sendBatchesOfHashedCompressedEvents() throws Exception {
+        MockFacebookApiServer.CONVERSION_EVENTS.clear();
+
+        RunContext runContext = runContextFactory.of();
+        URI events = events(runContext, 2500);
+
+        SendEvents task = SendEvents.builder()
+            .apiBaseUrl(Property.ofValue(embeddedServer.getURL().toString()))
+            .accessToken(Property.ofValue("mock-access-token"))
+            .pixelId(Property.ofValue("mock-pixel-id"))
+            .from(Property.ofValue(events.toString()))
+            .build();
+
+        SendEvents.Output output = task.run(runContext);
+
+        assertThat(output.getEventsSent(), is(2500L));
+        assertThat(output.getEventsReceived(), is(2500L));
+        assertThat(output.getBatches(), is(3));
+        assertThat(MockFacebookApiServer.CONVERSION_EVENTS, hasSize(2500));
+        // each event takes about 200 bytes of JSON, repeated events compress far below that
+        assertThat(metric(runContext, "request.bytes"), lessThan(2500 * 20.0));
+        assertThat(
+            MockFacebookApiServer.CONVERSION_EVENTS.getFirst().path("user_data").path("em").asText(),
+            is(MetaKv.sha256("customer@example.com"))
+        );
+    }
+
+    @Test
+    void reportFailedBatchesAndKeepSendingTheOthers() throws Exception {
+        MockFacebookApiServer.CONVERSION_EVENTS.clear();
+
+        RunContext runContext = runContextFactory.of();
+        URI events = events(runContext, 2500, 1200);
+
+        SendEvents task = SendEvents.builder()
+            .apiBaseUrl(Property.ofValue(embeddedServer.getURL().toString()))
+            .accessToken(Property.ofValue("mock-access-token"))
+            .pixelId(Property.ofValue("mock-pixel-id"))
+            .from(Property.ofValue(events.toString()))
+            .build();
+
+        SendEvents.Output output = task.run(runContext);
+
+        assertThat(output.getEventsSent(), is(2000L));
+        assertThat(output.getEventsFailed(), is(500L));
+        assertThat(output.getBatches(), is(3));
+        assertThat(output.finalState(), is(Optional.of(State.Type.FAILED)));
+        assertThat(output.getFailedBatches(), hasSize(1));
+        assertThat(output.getFailedBatches().getFirst().getIndex(), is(1));
+        assertThat(output.getFailedBatches().getFirst().getFirstEvent(), is(1000L));
+        assertThat(MockFacebookApiServer.CONVERSION_EVENTS, hasSize(2000));
+
+        List<Object> failed;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(runContext.storage().getFile(output.getFailedEvents())))) {
+            failed = FileSerde.readAll(reader).collectList().block();
+        }
+        assertThat(failed, hasSize(500));
+        // resent as read, not hashed
+        assertThat(failed.getFirst().toString(), containsString("Customer@Example.com"));
+    }
+
+    private static double metric(RunContext runContext, String name) {
+        return runContext.metrics().stream()
+            .filter(metric -> metric.getName().equals(name))
+            .mapToDouble(metric -> ((Number) metric.getValue()).doubleValue())
+            .sum();
+    }
+
+    private static URI events(RunContext runContext, int count) throws Exception {
+        return events(runContext, count, -1);
+    }
+
+    // the event at position invalid, if any, makes Meta reject its batch
+    private static URI events(RunContext runContext, int count, int invalid) throws Exception {
+        Path path = runContext.workingDir().createTempFile(".ion");
+
+        try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(path))) {
+            for (int i = 0; i < count; i++) {
+                FileSerde.write(output, Map.of(
+                    "event_name", i == invalid ? "Invalid" : "Purchase",
+                    "event_time", 1735689600L + i,
+                    "action_source", "website",
+                    "user_data", Map.of("em", " Customer@Example.com "),
+                    "custom_data", Map.of("currency", "EUR", "value", 42.5)
+                ));
+            }
+        }
+
+        return runContext.storage().putFile(path.toFile());
+    }
+}
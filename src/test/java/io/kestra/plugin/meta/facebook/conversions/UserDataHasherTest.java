@@ -0,0 +1,42 @@
+package io.kestra.plugin.meta.facebook.conversions;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.kestra.plugin.meta.MetaKv;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class UserDataHasherTest {
+
+    @Test
+    void normalizeThenHash() {
+        Map<String, Object> userData = new LinkedHashMap<>();
+        userData.put("em", List.of(" John.Doe@Example.com "));
+        userData.put("ph", "+33 (0)6 12-34-56-78");
+        userData.put("ct", "New York");
+        userData.put("ge", "Female");
+        userData.put("client_ip_address", "203.0.113.7");
+
+        Map<String, Object> hashed = UserDataHasher.hash(userData);
+
+        assertThat(hashed.get("em"), is(List.of(MetaKv.sha256("john.doe@example.com"))));
+        assertThat(hashed.get("ph"), is(MetaKv.sha256("330612345678")));
+        assertThat(hashed.get("ct"), is(MetaKv.sha256("newyork")));
+        assertThat(hashed.get("ge"), is(MetaKv.sha256("f")));
+        assertThat(hashed.get("client_ip_address"), is("203.0.113.7"));
+    }
+
+    @Test
+    void keepAlreadyHashedValues() {
+        String hash = MetaKv.sha256("john.doe@example.com");
+
+        Map<String, Object> event = Map.of("event_name", "Purchase", "user_data", Map.of("em", hash));
+
+        assertThat(UserDataHasher.hashEvent(event).get("user_data"), is(Map.of("em", hash)));
+    }
+}
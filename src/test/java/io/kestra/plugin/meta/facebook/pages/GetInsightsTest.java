@@ -0,0 +1,72 @@
+package io.kestra.plugin.meta.facebook.pages;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.serializers.FileSerde;
+import io.kestra.plugin.meta.facebook.AbstractFacebookTest;
+import io.kestra.plugin.meta.facebook.enums.DatePreset;
+import io.kestra.plugin.meta.facebook.enums.PageMetric;
+
+import jakarta.inject.Inject;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@KestraTest
+class GetInsightsTest extends AbstractFacebookTest {
+
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @Test
+    void splitRangeInWindows() {
+        assertThat(
+            GetInsights.windows("2024-01-01", "2024-04-15", null, 90),
+            contains("&since=2024-01-01&until=2024-03-31", "&since=2024-03-31&until=2024-04-16")
+        );
+        assertThat(GetInsights.windows(null, null, DatePreset.LAST_7D, 90), contains("&date_preset=last_7d"));
+        assertThrows(IllegalArgumentException.class, () -> GetInsights.windows("2024-01-01", null, null, 90));
+    }
+
+    @Test
+    void mergeWindowsInOneSortedTimeSeries() throws Exception {
+        RunContext runContext = runContextFactory.of();
+
+        GetInsights task = GetInsights.builder()
+            .apiBaseUrl(Property.ofValue(embeddedServer.getURL().toString()))
+            .pageId(Property.ofValue("mock-page-id"))
+            .accessToken(Property.ofValue("mock-access-token"))
+            .metrics(Property.ofValue(List.of(PageMetric.PAGE_IMPRESSIONS, PageMetric.PAGE_POST_ENGAGEMENTS)))
+            .since(Property.ofValue("2024-01-01"))
+            .until(Property.ofValue("2024-12-31"))
+            .build();
+
+        GetInsights.Output output = task.run(runContext);
+
+        assertThat(output.getWindows(), is(5));
+        assertThat(output.getSize(), is(732L));
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(runContext.storage().getFile(output.getUri())))) {
+            @SuppressWarnings("unchecked")
+            List<String> endTimes = FileSerde.readAll(reader)
+                .map(row -> (String) ((Map<String, Object>) row).get("endTime"))
+                .collectList()
+                .block();
+
+            assertThat(endTimes, hasSize(732));
+            assertThat(endTimes.getFirst(), is("2024-01-02T08:00:00+0000"));
+            assertThat(endTimes.getLast(), is("2025-01-01T08:00:00+0000"));
+            assertThat(endTimes, is(endTimes.stream().sorted().toList()));
+        }
+    }
+}
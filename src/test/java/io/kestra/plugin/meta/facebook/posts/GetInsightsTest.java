@@ -13,6 +13,9 @@ import io.kestra.core.models.property.Property;
 import io.kestra.core.queues.QueueException;
 import io.kestra.core.runners.RunContext;
 import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.utils.IdUtils;
+import io.kestra.plugin.meta.GraphApiSimulator;
+import io.kestra.plugin.meta.ResponseCache;
 import io.kestra.plugin.meta.facebook.AbstractFacebookTest;
 import io.kestra.plugin.meta.facebook.enums.DatePreset;
 import io.kestra.plugin.meta.facebook.enums.PostMetric;
@@ -73,4 +76,26 @@ class GetInsightsTest extends AbstractFacebookTest {
         assertThat(output.getPosts().size(), greaterThan(0));
         assertThat(output.getTotalInsights(), greaterThan(0));
     }
+
+    @Test
+    void revalidateCachedInsights() throws Exception {
+        GraphApiSimulator.reset();
+
+        // the cache is shared by the worker, a token of its own keeps this test's entries apart
+        GetInsights task = GetInsights.builder()
+            .apiBaseUrl(Property.ofValue(embeddedServer.getURL().toString()))
+            .pageId(Property.ofValue("mock-page-id"))
+            .accessToken(Property.ofValue("mock-access-token-" + IdUtils.create()))
+            .postIds(Property.ofValue(List.of("123456789_987654321")))
+            .responseCache(Property.ofValue(ResponseCache.MEMORY))
+            .build();
+
+        GetInsights.Output first = task.run(runContextFactory.of());
+        assertThat(GraphApiSimulator.notModified(), is(0L));
+
+        GetInsights.Output second = task.run(runContextFactory.of());
+        assertThat(GraphApiSimulator.notModified(), is(1L));
+        assertThat(second.getTotalInsights(), is(first.getTotalInsights()));
+        assertThat(second.getPosts().getFirst().getInsights(), is(first.getPosts().getFirst().getInsights()));
+    }
 }
@@ -0,0 +1,84 @@
+package io.kestra.plugin.meta.facebook.posts;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.time.Instant;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.serializers.FileSerde;
+import io.kestra.plugin.meta.facebook.AbstractFacebookTest;
+
+import jakarta.inject.Inject;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@KestraTest
+class ListCommentsTest extends AbstractFacebookTest {
+
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @Test
+    void exportCommentsOfSeveralPosts() throws Exception {
+        RunContext runContext = runContextFactory.of();
+
+        ListComments.Output output = task(null).run(runContext);
+
+        assertThat(output.getSize(), is(6L));
+        assertThat(output.getLastCommentTime(), is(Instant.parse("2025-01-15T12:00:00Z")));
+
+        java.util.List<Map<String, Object>> rows = rows(runContext, output);
+        assertThat(rows.getFirst().get("postId"), is("1234567890_1"));
+        assertThat(rows.get(1).get("parentCommentId"), is("987654321_1001"));
+        assertThat(rows.get(3).get("postId"), is("1234567890_2"));
+    }
+
+    @Test
+    void exportOnlyCommentsSince() throws Exception {
+        RunContext runContext = runContextFactory.of();
+
+        ListComments.Output output = task("2025-01-11").run(runContext);
+
+        assertThat(output.getSize(), is(4L));
+        assertThat(
+            rows(runContext, output).stream().map(row -> row.get("commentId")).distinct().toList(),
+            contains("987654321_1002", "987654321_1003")
+        );
+    }
+
+    @Test
+    void keepCommentsOfTheSinceSecond() throws Exception {
+        RunContext runContext = runContextFactory.of();
+
+        // the lastCommentTime of a previous run
+        ListComments.Output output = task("2025-01-15T12:00:00Z").run(runContext);
+
+        assertThat(
+            rows(runContext, output).stream().map(row -> row.get("commentId")).distinct().toList(),
+            contains("987654321_1003")
+        );
+    }
+
+    private ListComments task(String since) {
+        return ListComments.builder()
+            .apiBaseUrl(Property.ofValue(embeddedServer.getURL().toString()))
+            .accessToken(Property.ofValue("mock-access-token"))
+            .postIds(Property.ofValue(java.util.List.of("1234567890_1", "1234567890_2")))
+            .since(since == null ? null : Property.ofValue(since))
+            .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static java.util.List<Map<String, Object>> rows(RunContext runContext, ListComments.Output output) throws Exception {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(runContext.storage().getFile(output.getUri())))) {
+            return FileSerde.readAll(reader).map(row -> (Map<String, Object>) row).collectList().block();
+        }
+    }
+}
@@ -1,10 +1,13 @@
 package io.kestra.plugin.meta.facebook.posts;
 
+import java.time.Duration;
 import java.util.Map;
 import java.util.concurrent.TimeoutException;
 
 import org.junit.jupiter.api.Test;
 
+import com.google.common.base.Throwables;
+
 import io.kestra.core.junit.annotations.KestraTest;
 import io.kestra.core.models.executions.Execution;
 import io.kestra.core.models.flows.State;
@@ -12,12 +15,17 @@ import io.kestra.core.models.property.Property;
 import io.kestra.core.queues.QueueException;
 import io.kestra.core.runners.RunContext;
 import io.kestra.core.runners.RunContextFactory;
+import io.kestra.plugin.meta.AbstractMetaConnection;
+import io.kestra.plugin.meta.GraphApiSimulator;
+import io.kestra.plugin.meta.ResponseCache;
 import io.kestra.plugin.meta.facebook.AbstractFacebookTest;
+import io.kestra.plugin.meta.facebook.MockFacebookApiServer;
 
 import jakarta.inject.Inject;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @KestraTest
 class ListTest extends AbstractFacebookTest {
@@ -57,4 +65,69 @@ class ListTest extends AbstractFacebookTest {
         assertThat(output.getRows(), notNullValue());
         assertThat(output.getSize(), greaterThan(0L));
     }
+
+    @Test
+    void listPostsCompressed() throws Exception {
+        GraphApiSimulator.configure(GraphApiSimulator.Settings.builder().totalRows(500).pageSize(500).build());
+
+        try {
+            RunContext runContext = runContextFactory.of();
+
+            List task = List.builder()
+                .apiBaseUrl(Property.ofValue(embeddedServer.getURL().toString()))
+                .pageId(Property.ofValue("mock-page-id"))
+                .accessToken(Property.ofValue("mock-access-token"))
+                .responseCache(Property.ofValue(ResponseCache.NONE))
+                .build();
+
+            List.Output output = task.run(runContext);
+
+            assertThat(output.getSize(), is(500L));
+            assertThat(MockFacebookApiServer.feedAcceptEncoding, containsString("gzip"));
+            // only emitted when a gzip body was inflated by MetaHttpClient
+            assertThat(metric(runContext, "response.compressed.bytes"), greaterThan(0.0));
+            assertThat(metric(runContext, "response.compressed.bytes"), lessThan(metric(runContext, "response.bytes")));
+        } finally {
+            GraphApiSimulator.reset();
+        }
+    }
+
+    @Test
+    void failResponsesOverMaxContentLength() {
+        List task = List.builder()
+            .apiBaseUrl(Property.ofValue(embeddedServer.getURL().toString()))
+            .pageId(Property.ofValue("mock-page-id"))
+            .accessToken(Property.ofValue("mock-access-token"))
+            .responseCache(Property.ofValue(ResponseCache.NONE))
+            .options(AbstractMetaConnection.RequestOptions.builder().maxContentLength(Property.ofValue(64)).build())
+            .build();
+
+        Exception exception = assertThrows(Exception.class, () -> task.run(runContextFactory.of()));
+        assertThat(Throwables.getRootCause(exception).getMessage(), containsString("maxContentLength"));
+    }
+
+    @Test
+    void failAttemptsOverRequestTimeout() {
+        GraphApiSimulator.configure(GraphApiSimulator.Settings.builder().latency(GraphApiSimulator.Latency.fixed(2000)).build());
+
+        try {
+            List task = List.builder()
+                .apiBaseUrl(Property.ofValue(embeddedServer.getURL().toString()))
+                .pageId(Property.ofValue("mock-page-id"))
+                .accessToken(Property.ofValue("mock-access-token"))
+                .options(AbstractMetaConnection.RequestOptions.builder().requestTimeout(Property.ofValue(Duration.ofMillis(200))).build())
+                .build();
+
+            assertThrows(TimeoutException.class, () -> task.run(runContextFactory.of()));
+        } finally {
+            GraphApiSimulator.reset();
+        }
+    }
+
+    private static double metric(RunContext runContext, String name) {
+        return runContext.metrics().stream()
+            .filter(metric -> metric.getName().equals(name))
+            .mapToDouble(metric -> ((Number) metric.getValue()).doubleValue())
+            .sum();
+    }
 }
@@ -0,0 +1,102 @@
+package io.kestra.plugin.meta.instagram;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContextFactory;
+import io.kestra.plugin.meta.GraphApiSimulator;
+import io.kestra.plugin.meta.LoadTestSupport;
+import io.kestra.plugin.meta.instagram.media.CreateImage;
+import io.kestra.plugin.meta.instagram.media.GetInsights;
+
+import jakarta.inject.Inject;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+@Tag("load")
+@KestraTest
+class InstagramLoadTest extends AbstractInstagramTest {
+    private static final int RUNS = 200;
+    private static final int CONCURRENCY = 16;
+
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @BeforeEach
+    void simulate() {
+        GraphApiSimulator.configure(
+            GraphApiSimulator.Settings.builder()
+                .latency(GraphApiSimulator.Latency.logNormal(40, 0.6))
+                .errorRate(0.05)
+                .errorCodes(List.of(4, 17, 613, 503))
+                .appUsage(42)
+                .totalRows(500)
+                .build()
+        );
+    }
+
+    @AfterEach
+    void stopSimulating() {
+        GraphApiSimulator.reset();
+    }
+
+    @Test
+    void list() throws Exception {
+        var result = LoadTestSupport.measure("instagram.media.List", RUNS, CONCURRENCY, () -> {
+            io.kestra.plugin.meta.instagram.media.List task = io.kestra.plugin.meta.instagram.media.List.builder()
+                .host(Property.ofValue(embeddedServer.getURL().toString()))
+                .igId(Property.ofValue("17841467149546531"))
+                .accessToken(Property.ofValue("test_access_token"))
+                .build();
+
+            return task.run(runContextFactory.of()).getSize() > 0;
+        });
+
+        assertThat(result.failures(), is(0));
+        assertThat(result.throughput(), greaterThan(0.0));
+    }
+
+    @Test
+    void insights() throws Exception {
+        var result = LoadTestSupport.measure("instagram.media.GetInsights", RUNS, CONCURRENCY, () -> {
+            GetInsights task = GetInsights.builder()
+                .host(Property.ofValue(embeddedServer.getURL().toString()))
+                .igId(Property.ofValue("17841467149546531"))
+                .accessToken(Property.ofValue("test_access_token"))
+                .mediaId(Property.ofValue("17954170374002653"))
+                .build();
+
+            return task.run(runContextFactory.of()).getTotalInsights() > 0;
+        });
+
+        assertThat(result.failures(), is(0));
+        assertThat(result.throughput(), greaterThan(0.0));
+    }
+
+    @Test
+    void publish() throws Exception {
+        var result = LoadTestSupport.measure("instagram.media.CreateImage", RUNS, CONCURRENCY, () -> {
+            CreateImage task = CreateImage.builder()
+                .host(Property.ofValue(embeddedServer.getURL().toString()))
+                .igId(Property.ofValue("17841467149546531"))
+                .accessToken(Property.ofValue("test_access_token"))
+                .imageUrl(Property.ofValue("https://example.com/image1.jpg"))
+                .build();
+
+            return task.run(runContextFactory.of()).getMediaId() != null;
+        });
+
+        // a publish makes two POST calls, whose injected 503s are not retried
+        assertThat(result.failures(), lessThanOrEqualTo(RUNS / 5));
+        assertThat(result.throughput(), greaterThan(0.0));
+    }
+}
@@ -1,29 +1,87 @@
 package io.kestra.plugin.meta.instagram;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.io.IOUtils;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.kestra.plugin.meta.GraphApiSimulator;
 
 import io.micronaut.context.annotation.Requires;
 import io.micronaut.core.annotation.Nullable;
 import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.HttpRequest;
 import io.micronaut.http.HttpResponse;
 import io.micronaut.http.annotation.*;
+import io.micronaut.scheduling.TaskExecutors;
+import io.micronaut.scheduling.annotation.ExecuteOn;
+import reactor.core.publisher.Flux;
 
 @Controller("/v24.0")
+// simulated latency sleeps, keep it off the event loop
+@ExecuteOn(TaskExecutors.BLOCKING)
 @Requires(property = "mock.instagram.enabled", value = "true", defaultValue = "true")
 @Requires(property = "mock.facebook.enabled", value = "false", defaultValue = "false")
 public class MockInstagramApiServer {
 
     private static final Map<String, String> containerMediaTypes = new ConcurrentHashMap<>();
     private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final DateTimeFormatter GRAPH_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssZ").withZone(ZoneOffset.UTC);
+
+    // number of CDN downloads by file name
+    public static final Map<String, AtomicInteger> CDN_DOWNLOADS = new ConcurrentHashMap<>();
+    // publications of the rolling 24-hour window and containers created, by account
+    public static final Map<String, AtomicInteger> PUBLISHING_USAGE = new ConcurrentHashMap<>();
+    public static final Map<String, AtomicInteger> CONTAINERS_CREATED = new ConcurrentHashMap<>();
+    public static final int QUOTA_TOTAL = 100;
+
+    // number of Graph batch requests received
+    public static final AtomicInteger BATCH_REQUESTS = new AtomicInteger();
+
+    // Graph batch request (POST / with a JSON batch), media IDs starting with "missing" fail individually,
+    // a media ID starting with "rejected" fails its whole batch and one starting with "expired" its access token
+    @Post
+    public HttpResponse<String> batch(
+        @Header(HttpHeaders.AUTHORIZATION) @Nullable String authorization,
+        @Body String body) throws IOException {
+        BATCH_REQUESTS.incrementAndGet();
+        ArrayNode results = objectMapper.createArrayNode();
+
+        for (JsonNode request : objectMapper.readTree(body).path("batch")) {
+            String id = request.path("relative_url").asText().split("/")[0];
+            if (id.startsWith("rejected")) {
+                return HttpResponse.badRequest("{\"error\":{\"message\":\"Invalid batch\",\"type\":\"OAuthException\",\"code\":100}}");
+            }
+            if (id.startsWith("expired")) {
+                return HttpResponse.badRequest("{\"error\":{\"message\":\"Error validating access token: Session has expired\",\"type\":\"OAuthException\",\"code\":190}}");
+            }
+            if (id.startsWith("missing")) {
+                results.addObject()
+                    .put("code", 400)
+                    .put("body", "{\"error\":{\"message\":\"Unsupported get request. Object with ID '" + id + "' does not exist\",\"type\":\"GraphMethodException\",\"code\":100}}");
+            } else {
+                results.addObject()
+                    .put("code", 200)
+                    .put("body", resource("responses/instagram/instagram-insights.json"));
+            }
+        }
+
+        return GraphApiSimulator.respond(results::toString);
+    }
 
     // Create media container (POST /{ig_id}/media)
     @Post("/{igId}/media")
@@ -31,6 +89,8 @@ public class MockInstagramApiServer {
         @PathVariable String igId,
         @Header(HttpHeaders.AUTHORIZATION) @Nullable String authorization,
         @Body String body) {
+        CONTAINERS_CREATED.computeIfAbsent(igId, key -> new AtomicInteger()).incrementAndGet();
+
         // Parse the body to check media_type and store it
         String containerId = "17910412629238319"; // Container ID
         try {
@@ -42,7 +102,7 @@ public class MockInstagramApiServer {
         } catch (Exception ignored) {
         }
 
-        return HttpResponse.ok("{\"id\": \"" + containerId + "\"}");
+        return GraphApiSimulator.respond(() -> "{\"id\": \"" + containerId + "\"}");
     }
 
     // Publish media (POST /{ig_id}/media_publish)
@@ -53,6 +113,10 @@ public class MockInstagramApiServer {
         @Body String body) {
         String mediaId = "17954170374002653";
 
+        if (PUBLISHING_USAGE.computeIfAbsent(igId, key -> new AtomicInteger()).incrementAndGet() > QUOTA_TOTAL) {
+            return HttpResponse.badRequest("{\"error\":{\"message\":\"Application request limit reached\",\"type\":\"OAuthException\",\"code\":9,\"error_subcode\":2207042}}");
+        }
+
         try {
             JsonNode bodyJson = objectMapper.readTree(body);
             if (bodyJson.has("creation_id")) {
@@ -66,28 +130,26 @@ public class MockInstagramApiServer {
         } catch (Exception ignored) {
         }
 
-        return HttpResponse.ok("{\"id\": \"" + mediaId + "\"}");
+        String publishedId = mediaId;
+        return GraphApiSimulator.respond(() -> "{\"id\": \"" + publishedId + "\"}");
     }
 
     @Get("/{igId}/media")
     public HttpResponse<String> listMedia(
+        HttpRequest<?> request,
         @PathVariable String igId,
         @Header(HttpHeaders.AUTHORIZATION) @Nullable String authorization,
-        @Nullable @QueryValue Integer limit) throws IOException {
+        @Header(HttpHeaders.HOST) @Nullable String host,
+        @Header(HttpHeaders.IF_NONE_MATCH) @Nullable String ifNoneMatch,
+        @Nullable @QueryValue Integer limit,
+        @Nullable @QueryValue String after) {
         String responseFile = (limit != null && limit == 1)
             ? "instagram-list-media-limited.json"
             : "instagram-list-media.json";
 
-        return HttpResponse.ok(
-            IOUtils.toString(
-                Objects.requireNonNull(
-                    MockInstagramApiServer.class.getClassLoader()
-                        .getResourceAsStream(
-                            "responses/instagram/" + responseFile
-                        )
-                ),
-                StandardCharsets.UTF_8
-            )
+        return GraphApiSimulator.respond(
+            () -> GraphApiSimulator.page("responses/instagram/" + responseFile, after, "http://" + host + request.getPath()),
+            ifNoneMatch
         );
     }
 
@@ -95,21 +157,154 @@ public class MockInstagramApiServer {
     public HttpResponse<String> getMediaInsights(
         @PathVariable String mediaId,
         @Header(HttpHeaders.AUTHORIZATION) @Nullable String authorization,
-        @Nullable @QueryValue String metric) throws IOException {
-        String responseFile = (metric != null && metric.contains(","))
-            ? "instagram-insights-multiple.json"
-            : "instagram-insights.json";
-
-        return HttpResponse.ok(
-            IOUtils.toString(
-                Objects.requireNonNull(
-                    MockInstagramApiServer.class.getClassLoader()
-                        .getResourceAsStream(
-                            "responses/instagram/" + responseFile
-                        )
-                ),
-                StandardCharsets.UTF_8
-            )
+        @Header(HttpHeaders.IF_NONE_MATCH) @Nullable String ifNoneMatch,
+        @Nullable @QueryValue String metric,
+        @Nullable @QueryValue String period,
+        @Nullable @QueryValue("metric_type") String metricType,
+        @Nullable @QueryValue Long since,
+        @Nullable @QueryValue Long until) {
+        if (mediaId.startsWith("story-few-viewers")) {
+            return HttpResponse.badRequest("{\"error\":{\"message\":\"(#10) Not enough viewers for the media to show insights\",\"type\":\"OAuthException\",\"code\":10}}");
+        }
+        // account insights, media insights have no period
+        if ("total_value".equals(metricType)) {
+            return GraphApiSimulator.respond(() -> resource("responses/instagram/instagram-account-insights-breakdown.json"), ifNoneMatch);
+        }
+        if (period != null && since != null && until != null) {
+            return GraphApiSimulator.respond(() -> accountInsights(metric, period, since, until), ifNoneMatch);
+        }
+
+        // media IDs starting with "large" have counts beyond the int range, time series and breakdowns
+        String responseFile = mediaId.startsWith("large")
+            ? "instagram-insights-lossless.json"
+            : (metric != null && metric.contains(","))
+                ? "instagram-insights-multiple.json"
+                : "instagram-insights.json";
+
+        return GraphApiSimulator.respond(() -> resource("responses/instagram/" + responseFile), ifNoneMatch);
+    }
+
+    // reply cursors point back to this mock through the {base} placeholder of the recorded response
+    @Get("/{mediaId}/comments")
+    public HttpResponse<String> listComments(
+        @PathVariable String mediaId,
+        @Header(HttpHeaders.AUTHORIZATION) @Nullable String authorization,
+        @Header(HttpHeaders.HOST) @Nullable String host,
+        @Header(HttpHeaders.IF_NONE_MATCH) @Nullable String ifNoneMatch) {
+        return GraphApiSimulator.respond(
+            () -> resource("responses/instagram/instagram-media-comments.json").replace("{base}", "http://" + host + "/v24.0"),
+            ifNoneMatch
+        );
+    }
+
+    @Get("/{commentId}/replies")
+    public HttpResponse<String> listReplies(
+        @PathVariable String commentId,
+        @Header(HttpHeaders.AUTHORIZATION) @Nullable String authorization,
+        @Header(HttpHeaders.IF_NONE_MATCH) @Nullable String ifNoneMatch) {
+        return GraphApiSimulator.respond(() -> resource("responses/instagram/instagram-comment-replies.json"), ifNoneMatch);
+    }
+
+    // one story about to expire and one posted an hour ago, their media served by the CDN endpoint below; accounts starting
+    // with "failing" also have a story whose insights are refused and one whose media file is missing
+    @Get("/{igId}/stories")
+    public HttpResponse<String> listStories(
+        @PathVariable String igId,
+        @Header(HttpHeaders.AUTHORIZATION) @Nullable String authorization,
+        @Header(HttpHeaders.HOST) @Nullable String host) {
+        String cdn = "http://" + host + "/v24.0/cdn/";
+        Instant now = Instant.now();
+
+        ObjectNode response = objectMapper.createObjectNode();
+        ArrayNode data = response.putArray("data");
+        data.addObject()
+            .put("id", "story-expiring")
+            .put("media_type", "IMAGE")
+            .put("media_url", cdn + "story-expiring.jpg")
+            .put("permalink", "https://www.instagram.com/stories/mock/1/")
+            .put("timestamp", GRAPH_TIMESTAMP.format(now.minusSeconds(23 * 3600 + 1800)));
+        data.addObject()
+            .put("id", "story-fresh")
+            .put("media_type", "VIDEO")
+            .put("media_url", cdn + "story-fresh.mp4")
+            .put("thumbnail_url", cdn + "story-fresh-thumb.jpg")
+            .put("permalink", "https://www.instagram.com/stories/mock/2/")
+            .put("timestamp", GRAPH_TIMESTAMP.format(now.minusSeconds(3600)));
+        if (igId.startsWith("failing")) {
+            data.addObject()
+                .put("id", "story-few-viewers")
+                .put("media_type", "IMAGE")
+                .put("media_url", cdn + "story-few-viewers.jpg")
+                .put("permalink", "https://www.instagram.com/stories/mock/3/")
+                .put("timestamp", GRAPH_TIMESTAMP.format(now.minusSeconds(3600)));
+            data.addObject()
+                .put("id", "story-gone")
+                .put("media_type", "IMAGE")
+                .put("media_url", cdn + "gone-story.jpg")
+                .put("permalink", "https://www.instagram.com/stories/mock/4/")
+                .put("timestamp", GRAPH_TIMESTAMP.format(now.minusSeconds(3600)));
+        }
+
+        return GraphApiSimulator.respond(response::toString);
+    }
+
+    // media files, honoring "Range: bytes={start}-", If-Range and If-None-Match; the first download of a "flaky" file breaks
+    // halfway, and so does the one of a "replaced" file, which then serves an older version of the file; "gone" files are missing
+    @Get("/cdn/{name}")
+    public HttpResponse<?> cdn(
+        @PathVariable String name,
+        @Header(HttpHeaders.RANGE) @Nullable String range,
+        @Header(HttpHeaders.IF_RANGE) @Nullable String ifRange,
+        @Header(HttpHeaders.IF_NONE_MATCH) @Nullable String ifNoneMatch) {
+        int downloads = CDN_DOWNLOADS.computeIfAbsent(name, key -> new AtomicInteger()).incrementAndGet();
+
+        if (name.startsWith("gone")) {
+            return HttpResponse.notFound("File not found");
+        }
+
+        byte[] content = cdnContent(name);
+        String etag = "\"" + name.hashCode() + "\"";
+        if (etag.equals(ifNoneMatch)) {
+            return HttpResponse.notModified();
+        }
+
+        if ((name.startsWith("flaky") || name.startsWith("replaced")) && downloads == 1) {
+            byte[] served = name.startsWith("replaced") ? cdnContent("old-" + name) : content;
+            return HttpResponse.ok(Flux.concat(
+                    Flux.just(java.util.Arrays.copyOf(served, served.length / 2)),
+                    Flux.error(new IOException("Connection reset"))
+                ))
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header(HttpHeaders.ETAG, name.startsWith("replaced") ? "\"old\"" : etag);
+        }
+
+        if (range == null || !range.startsWith("bytes=") || (ifRange != null && !ifRange.equals(etag))) {
+            return HttpResponse.ok(content).header(HttpHeaders.ACCEPT_RANGES, "bytes").header(HttpHeaders.ETAG, etag);
+        }
+
+        int start = Integer.parseInt(range.substring("bytes=".length(), range.indexOf('-')));
+        return HttpResponse.<byte[]>status(io.micronaut.http.HttpStatus.PARTIAL_CONTENT)
+            .body(java.util.Arrays.copyOfRange(content, start, content.length))
+            .header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (content.length - 1) + "/" + content.length)
+            .header(HttpHeaders.ETAG, etag);
+    }
+
+    public static byte[] cdnContent(String name) {
+        return ("media file " + name + "\n").repeat(1000).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Get("/{igId}/content_publishing_limit")
+    public HttpResponse<String> contentPublishingLimit(
+        @PathVariable String igId,
+        @Header(HttpHeaders.AUTHORIZATION) @Nullable String authorization) {
+        AtomicInteger counter = PUBLISHING_USAGE.computeIfAbsent(igId, key -> new AtomicInteger());
+        int usage = counter.get();
+        // another app uses up the quota of a "contended" account right after it is read
+        if (igId.startsWith("contended")) {
+            counter.set(QUOTA_TOTAL);
+        }
+        return GraphApiSimulator.respond(
+            () -> "{\"data\":[{\"quota_usage\":" + usage + ",\"config\":{\"quota_total\":" + QUOTA_TOTAL + ",\"quota_duration\":86400}}]}"
         );
     }
 
@@ -118,8 +313,50 @@ public class MockInstagramApiServer {
     public HttpResponse<String> getContainerStatus(
         @PathVariable String containerId,
         @Header(HttpHeaders.AUTHORIZATION) @Nullable String authorization,
+        @Header(HttpHeaders.HOST) @Nullable String host,
         @Nullable @QueryValue String fields) throws IOException {
+        // media files of a single image, each served by the CDN endpoint
+        if (fields != null && fields.contains("media_url")) {
+            ObjectNode media = objectMapper.createObjectNode()
+                .put("id", containerId)
+                .put("media_type", "IMAGE")
+                .put("media_url", "http://" + host + "/v24.0/cdn/" + containerId + ".jpg");
+            return GraphApiSimulator.respond(media::toString);
+        }
+
         // Always return FINISHED status to allow immediate publishing in tests
-        return HttpResponse.ok("{\"status_code\":\"FINISHED\",\"id\":\"" + containerId + "\"}");
+        return GraphApiSimulator.respond(() -> "{\"status_code\":\"FINISHED\",\"id\":\"" + containerId + "\"}");
+    }
+
+    // one value per metric and day of [since, until), grouped by metric like the Graph API
+    private static String accountInsights(String metrics, String period, long since, long until) {
+        ObjectNode response = objectMapper.createObjectNode();
+        ArrayNode data = response.putArray("data");
+
+        for (String metric : metrics.split(",")) {
+            ArrayNode values = data.addObject()
+                .put("name", metric)
+                .put("period", period)
+                .putArray("values");
+            for (long day = since; day < until; day += 86400) {
+                LocalDate end = Instant.ofEpochSecond(day + 86400).atOffset(ZoneOffset.UTC).toLocalDate();
+                values.addObject()
+                    .put("value", 1000L + end.getDayOfYear())
+                    .put("end_time", end + "T07:00:00+0000");
+            }
+        }
+
+        return response.toString();
+    }
+
+    private static String resource(String name) {
+        try {
+            return IOUtils.toString(
+                Objects.requireNonNull(MockInstagramApiServer.class.getClassLoader().getResourceAsStream(name)),
+                StandardCharsets.UTF_8
+            );
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
@@ -0,0 +1,92 @@
+package io.kestra.plugin.meta.instagram.account;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.serializers.FileSerde;
+import io.kestra.plugin.meta.instagram.AbstractInstagramTest;
+import io.kestra.plugin.meta.instagram.enums.InsightBreakdown;
+import io.kestra.plugin.meta.instagram.enums.InsightMetric;
+import io.kestra.plugin.meta.instagram.enums.InsightMetricType;
+import io.kestra.plugin.meta.instagram.enums.InsightPeriod;
+import io.kestra.plugin.meta.instagram.enums.InsightTimeframe;
+
+import jakarta.inject.Inject;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@KestraTest
+class GetInsightsTest extends AbstractInstagramTest {
+
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @Test
+    void fetchWindowsInParallelAsOneTimeSeries() throws Exception {
+        RunContext runContext = runContextFactory.of();
+
+        GetInsights task = GetInsights.builder()
+            .host(Property.ofValue(embeddedServer.getURL().toString()))
+            .igId(Property.ofValue("mock-ig-id"))
+            .accessToken(Property.ofValue("mock-access-token"))
+            .metrics(Property.ofValue(List.of(InsightMetric.REACH, InsightMetric.FOLLOWER_COUNT)))
+            .since(Property.ofValue("2025-01-01"))
+            .until(Property.ofValue("2025-03-31"))
+            .build();
+
+        GetInsights.Output output = task.run(runContext);
+
+        assertThat(output.getWindows(), is(3));
+        assertThat(output.getSize(), is(180L));
+
+        List<Map<String, Object>> rows = rows(runContext, output);
+        assertThat(rows.getFirst().get("endTime"), is("2025-01-02T07:00:00+0000"));
+        assertThat(rows.getFirst().get("metric"), is("follower_count"));
+        assertThat(rows.get(1).get("metric"), is("reach"));
+        assertThat(rows.getLast().get("endTime"), is("2025-04-01T07:00:00+0000"));
+
+        List<String> endTimes = rows.stream().map(row -> (String) row.get("endTime")).toList();
+        assertThat(endTimes, is(endTimes.stream().sorted().toList()));
+    }
+
+    @Test
+    void keepBreakdownsAndLongValues() throws Exception {
+        RunContext runContext = runContextFactory.of();
+
+        GetInsights task = GetInsights.builder()
+            .host(Property.ofValue(embeddedServer.getURL().toString()))
+            .igId(Property.ofValue("mock-ig-id"))
+            .accessToken(Property.ofValue("mock-access-token"))
+            .metrics(Property.ofValue(List.of(InsightMetric.FOLLOWER_DEMOGRAPHICS)))
+            .period(Property.ofValue(InsightPeriod.LIFETIME))
+            .metricType(Property.ofValue(InsightMetricType.TOTAL_VALUE))
+            .timeframe(Property.ofValue(InsightTimeframe.PREV_MONTH))
+            .breakdowns(Property.ofValue(List.of(InsightBreakdown.COUNTRY)))
+            .build();
+
+        GetInsights.Output output = task.run(runContext);
+
+        assertThat(output.getWindows(), is(1));
+        assertThat(output.getSize(), is(2L));
+
+        Map<String, Object> first = rows(runContext, output).getFirst();
+        assertThat(first.get("breakdown"), is(Map.of("country", "US")));
+        assertThat(((Number) first.get("value")).longValue(), is(3000000000L));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> rows(RunContext runContext, GetInsights.Output output) throws Exception {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(runContext.storage().getFile(output.getUri())))) {
+            return FileSerde.readAll(reader).map(row -> (Map<String, Object>) row).collectList().block();
+        }
+    }
+}
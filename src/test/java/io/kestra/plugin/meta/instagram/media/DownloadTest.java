@@ -0,0 +1,102 @@
+package io.kestra.plugin.meta.instagram.media;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.serializers.FileSerde;
+import io.kestra.core.utils.IdUtils;
+import io.kestra.core.utils.TestsUtils;
+import io.kestra.plugin.meta.instagram.AbstractInstagramTest;
+import io.kestra.plugin.meta.instagram.MockInstagramApiServer;
+
+import jakarta.inject.Inject;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@KestraTest
+class DownloadTest extends AbstractInstagramTest {
+
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @Test
+    void resumeInterruptedDownloadsAndSkipUnchangedFiles() throws Exception {
+        String suffix = IdUtils.create();
+        String image = "image-" + suffix;
+        String flaky = "flaky-" + suffix;
+
+        Download task = Download.builder()
+            .id("download")
+            .type(Download.class.getName())
+            .host(Property.ofValue(embeddedServer.getURL().toString()))
+            .igId(Property.ofValue("mock-ig-id"))
+            .accessToken(Property.ofValue("mock-access-token"))
+            .mediaIds(Property.ofValue(List.of(image, flaky)))
+            .build();
+
+        RunContext runContext = TestsUtils.mockRunContext(runContextFactory, task, Map.of());
+        Download.Output first = task.run(runContext);
+
+        assertThat(first.getSize(), is(2L));
+        assertThat(first.getDownloaded(), is(2L));
+        assertThat(MockInstagramApiServer.CDN_DOWNLOADS.get(flaky + ".jpg").get(), is(2));
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(runContext.storage().getFile(first.getUri())))) {
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> rows = FileSerde.readAll(reader).map(row -> (Map<String, Object>) row).collectList().block();
+
+            assertThat(rows.get(1).get("mediaId"), is(flaky));
+            assertThat(rows.get(1).get("status"), is("DOWNLOADED"));
+            try (InputStream file = runContext.storage().getFile(URI.create((String) rows.get(1).get("uri")))) {
+                assertThat(file.readAllBytes(), is(MockInstagramApiServer.cdnContent(flaky + ".jpg")));
+            }
+        }
+
+        Download.Output second = task.run(TestsUtils.mockRunContext(runContextFactory, task, Map.of()));
+
+        assertThat(second.getDownloaded(), is(0L));
+        assertThat(second.getUnchanged(), is(2L));
+        assertThat(second.getBytes(), is(0L));
+    }
+
+    @Test
+    void restartDownloadOfFileReplacedWhileResuming() throws Exception {
+        String replaced = "replaced-" + IdUtils.create();
+
+        Download task = Download.builder()
+            .id("download")
+            .type(Download.class.getName())
+            .host(Property.ofValue(embeddedServer.getURL().toString()))
+            .igId(Property.ofValue("mock-ig-id"))
+            .accessToken(Property.ofValue("mock-access-token"))
+            .mediaIds(Property.ofValue(List.of(replaced)))
+            .build();
+
+        RunContext runContext = TestsUtils.mockRunContext(runContextFactory, task, Map.of());
+        Download.Output output = task.run(runContext);
+
+        assertThat(output.getDownloaded(), is(1L));
+        assertThat(MockInstagramApiServer.CDN_DOWNLOADS.get(replaced + ".jpg").get(), is(2));
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(runContext.storage().getFile(output.getUri())))) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> row = (Map<String, Object>) FileSerde.readAll(reader).blockFirst();
+
+            // the If-Range validator of the old version no longer matches, so the whole new version is sent
+            try (InputStream file = runContext.storage().getFile(URI.create((String) row.get("uri")))) {
+                assertThat(file.readAllBytes(), is(MockInstagramApiServer.cdnContent(replaced + ".jpg")));
+            }
+        }
+    }
+}
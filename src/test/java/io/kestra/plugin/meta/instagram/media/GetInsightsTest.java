@@ -1,10 +1,22 @@
 package io.kestra.plugin.meta.instagram.media;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.TimeoutException;
 
 import org.junit.jupiter.api.Test;
 
+import com.google.common.base.Throwables;
+
+import io.kestra.core.http.client.HttpClientResponseException;
 import io.kestra.core.junit.annotations.KestraTest;
 import io.kestra.core.models.executions.Execution;
 import io.kestra.core.models.flows.State;
@@ -12,13 +24,20 @@ import io.kestra.core.models.property.Property;
 import io.kestra.core.queues.QueueException;
 import io.kestra.core.runners.RunContext;
 import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.serializers.FileSerde;
+import io.kestra.core.utils.IdUtils;
+import io.kestra.core.utils.TestsUtils;
+import io.kestra.plugin.meta.GraphApiSimulator;
 import io.kestra.plugin.meta.instagram.AbstractInstagramTest;
+import io.kestra.plugin.meta.instagram.MockInstagramApiServer;
 import io.kestra.plugin.meta.instagram.enums.InsightMetric;
+import io.kestra.plugin.meta.instagram.enums.InsightParsing;
 
 import jakarta.inject.Inject;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @KestraTest
 class GetInsightsTest extends AbstractInstagramTest {
@@ -68,4 +87,209 @@ class GetInsightsTest extends AbstractInstagramTest {
         assertThat(output.getInsights(), notNullValue());
         assertThat(output.getInsights().size(), greaterThan(0));
     }
-}
\ No newline at end of file
+
+    @Test
+    void serveCachedInsightsFromKv() throws Exception {
+        GraphApiSimulator.reset();
+
+        String mediaId = "media-" + IdUtils.create();
+        GetInsights task = cachedInsights(mediaId, "mock-access-token");
+
+        GetInsights.Output first = task.run(TestsUtils.mockRunContext(runContextFactory, task, Map.of()));
+        GetInsights.Output second = task.run(TestsUtils.mockRunContext(runContextFactory, task, Map.of()));
+
+        assertThat(GraphApiSimulator.requests(), is(1L));
+        assertThat(second.getTotalInsights(), is(first.getTotalInsights()));
+        assertThat(second.getInsights().getFirst().getValue(), is(first.getInsights().getFirst().getValue()));
+
+        // entries are not shared with flows using another token
+        GetInsights otherToken = cachedInsights(mediaId, "other-access-token");
+        otherToken.run(TestsUtils.mockRunContext(runContextFactory, otherToken, Map.of()));
+
+        assertThat(GraphApiSimulator.requests(), is(2L));
+    }
+
+    private GetInsights cachedInsights(String mediaId, String accessToken) {
+        return GetInsights.builder()
+            .id("insights")
+            .type(GetInsights.class.getName())
+            .host(Property.ofValue(embeddedServer.getURL().toString()))
+            .igId(Property.ofValue("mock-ig-id"))
+            .accessToken(Property.ofValue(accessToken))
+            .mediaId(Property.ofValue(mediaId))
+            .cacheTtl(Property.ofValue(Duration.ofHours(1)))
+            .build();
+    }
+
+    @Test
+    void batchInsightsOfManyMedia() throws Exception {
+        RunContext runContext = runContextFactory.of();
+
+        java.util.List<String> mediaIds = new java.util.ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            mediaIds.add(i == 70 ? "missing-70" : "1795417037400" + i);
+        }
+
+        GetInsights task = GetInsights.builder()
+            .host(Property.ofValue(embeddedServer.getURL().toString()))
+            .igId(Property.ofValue("mock-ig-id"))
+            .accessToken(Property.ofValue("mock-access-token"))
+            .mediaIds(Property.ofValue(mediaIds))
+            .build();
+
+        GetInsights.Output output = task.run(runContext);
+
+        assertThat(output.getSize(), is(120L));
+        assertThat(output.getErrors(), is(1L));
+        assertThat(output.getTotalInsights(), is(119));
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(runContext.storage().getFile(output.getUri())))) {
+            @SuppressWarnings("unchecked")
+            java.util.List<Map<String, Object>> rows = FileSerde.readAll(reader).map(row -> (Map<String, Object>) row).collectList().block();
+
+            assertThat(rows.stream().map(row -> row.get("mediaId")).toList(), is(mediaIds));
+            assertThat(rows.get(70).get("error"), is(notNullValue()));
+            assertThat((String) rows.get(70).get("error"), containsString("does not exist"));
+            assertThat(rows.get(71).get("error"), is(nullValue()));
+        }
+    }
+
+    @Test
+    void failedBatchGivesErrorRowsAndKeepsOthers() throws Exception {
+        RunContext runContext = runContextFactory.of();
+
+        java.util.List<String> mediaIds = new java.util.ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            mediaIds.add(i == 55 ? "rejected-55" : "1795417037400" + i);
+        }
+
+        GetInsights task = GetInsights.builder()
+            .host(Property.ofValue(embeddedServer.getURL().toString()))
+            .igId(Property.ofValue("mock-ig-id"))
+            .accessToken(Property.ofValue("mock-access-token"))
+            .mediaIds(Property.ofValue(mediaIds))
+            .build();
+
+        MockInstagramApiServer.BATCH_REQUESTS.set(0);
+        GetInsights.Output output = task.run(runContext);
+
+        assertThat(output.getSize(), is(60L));
+        assertThat(output.getErrors(), is(10L));
+        // a rejected batch is not retried
+        assertThat(MockInstagramApiServer.BATCH_REQUESTS.get(), is(2));
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(runContext.storage().getFile(output.getUri())))) {
+            @SuppressWarnings("unchecked")
+            java.util.List<Map<String, Object>> rows = FileSerde.readAll(reader).map(row -> (Map<String, Object>) row).collectList().block();
+
+            assertThat(rows.get(49).get("error"), is(nullValue()));
+            assertThat((String) rows.get(50).get("error"), containsString("400"));
+            assertThat(rows.get(50).get("mediaId"), is("1795417037400" + 50));
+        }
+    }
+
+    @Test
+    void failOnInvalidToken() {
+        GetInsights task = GetInsights.builder()
+            .host(Property.ofValue(embeddedServer.getURL().toString()))
+            .igId(Property.ofValue("mock-ig-id"))
+            .accessToken(Property.ofValue("mock-access-token"))
+            .mediaIds(Property.ofValue(java.util.List.of("17954170374002653", "expired-1")))
+            .build();
+
+        Exception exception = assertThrows(Exception.class, () -> task.run(runContextFactory.of()));
+        assertThat(Throwables.getCausalChain(exception).stream().anyMatch(HttpClientResponseException.class::isInstance), is(true));
+    }
+
+    @Test
+    void failWhenEveryBatchFailed() {
+        GetInsights task = GetInsights.builder()
+            .host(Property.ofValue(embeddedServer.getURL().toString()))
+            .igId(Property.ofValue("mock-ig-id"))
+            .accessToken(Property.ofValue("mock-access-token"))
+            .mediaIds(Property.ofValue(java.util.List.of("17954170374002653", "rejected-1")))
+            .build();
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> task.run(runContextFactory.of()));
+        assertThat(exception.getMessage(), containsString("every batch request failed"));
+    }
+
+    @Test
+    void rejectCacheTtlInBatchMode() {
+        GetInsights task = GetInsights.builder()
+            .host(Property.ofValue(embeddedServer.getURL().toString()))
+            .igId(Property.ofValue("mock-ig-id"))
+            .accessToken(Property.ofValue("mock-access-token"))
+            .mediaIds(Property.ofValue(java.util.List.of("17954170374002653")))
+            .cacheTtl(Property.ofValue(Duration.ofHours(1)))
+            .build();
+
+        assertThrows(IllegalArgumentException.class, () -> task.run(runContextFactory.of()));
+    }
+
+    @Test
+    void skipIonRowsWithoutId() throws Exception {
+        RunContext runContext = runContextFactory.of();
+
+        Path path = runContext.workingDir().createTempFile(".ion");
+        try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(path))) {
+            FileSerde.write(output, Map.of("id", "17954170374002653"));
+            FileSerde.write(output, Map.of("caption", "no id"));
+            FileSerde.write(output, Map.of("id", "17954170374002654"));
+        }
+        String from = runContext.storage().putFile(path.toFile()).toString();
+
+        java.util.List<String> ids = GetInsights.mediaIds(runContext, java.util.List.of(), Optional.of(from)).collectList().block();
+
+        assertThat(ids, contains("17954170374002653", "17954170374002654"));
+    }
+
+    @Test
+    void parseEveryValueInLongFormat() throws Exception {
+        RunContext runContext = runContextFactory.of();
+
+        GetInsights task = GetInsights.builder()
+            .host(Property.ofValue(embeddedServer.getURL().toString()))
+            .igId(Property.ofValue("mock-ig-id"))
+            .accessToken(Property.ofValue("mock-access-token"))
+            .mediaId(Property.ofValue("large-17954170374002653"))
+            .parsing(Property.ofValue(InsightParsing.LONG))
+            .build();
+
+        GetInsights.Output output = task.run(runContext);
+
+        assertThat(output.getSize(), is(6L));
+        assertThat(output.getInsights(), is(nullValue()));
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(runContext.storage().getFile(output.getUri())))) {
+            @SuppressWarnings("unchecked")
+            java.util.List<Map<String, Object>> rows = FileSerde.readAll(reader).map(row -> (Map<String, Object>) row).collectList().block();
+
+            assertThat(rows.getFirst().get("metric"), is("reach"));
+            assertThat(((Number) rows.getFirst().get("value")).longValue(), is(3_000_000_000L));
+            assertThat(rows.stream().filter(row -> "views".equals(row.get("metric"))).map(row -> ((Number) row.get("value")).longValue()).toList(), contains(120L, 95L));
+            assertThat(rows.get(5).get("breakdown"), is(Map.of("action_type", "call")));
+            assertThat(((Number) rows.get(5).get("value")).longValue(), is(5L));
+            assertThat(rows.get(5).get("mediaId"), is("large-17954170374002653"));
+        }
+    }
+
+    @Test
+    void batchInsightsInLongFormat() throws Exception {
+        RunContext runContext = runContextFactory.of();
+
+        GetInsights task = GetInsights.builder()
+            .host(Property.ofValue(embeddedServer.getURL().toString()))
+            .igId(Property.ofValue("mock-ig-id"))
+            .accessToken(Property.ofValue("mock-access-token"))
+            .mediaIds(Property.ofValue(java.util.List.of("17954170374002653", "missing-1", "17954170374002654")))
+            .parsing(Property.ofValue(InsightParsing.LONG))
+            .build();
+
+        GetInsights.Output output = task.run(runContext);
+
+        assertThat(output.getSize(), is(3L));
+        assertThat(output.getErrors(), is(1L));
+        assertThat(output.getTotalInsights(), is(2));
+    }
+}
@@ -0,0 +1,87 @@
+package io.kestra.plugin.meta.instagram.media;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.time.Instant;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.serializers.FileSerde;
+import io.kestra.plugin.meta.instagram.AbstractInstagramTest;
+
+import jakarta.inject.Inject;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@KestraTest
+class ListCommentsTest extends AbstractInstagramTest {
+
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @Test
+    void followReplyCursors() throws Exception {
+        RunContext runContext = runContextFactory.of();
+
+        ListComments.Output output = task(null).run(runContext);
+
+        assertThat(output.getSize(), is(4L));
+        assertThat(output.getLastCommentTime(), is(Instant.parse("2025-01-16T07:45:00Z")));
+
+        java.util.List<Map<String, Object>> rows = rows(runContext, output);
+        assertThat(
+            rows.stream().map(row -> row.get("commentId")).toList(),
+            contains("17858893269000001", "17858893269000011", "17858893269000012", "17858893269000002")
+        );
+        assertThat(rows.get(2).get("parentCommentId"), is("17858893269000001"));
+    }
+
+    @Test
+    void exportOnlyCommentsSince() throws Exception {
+        RunContext runContext = runContextFactory.of();
+
+        ListComments.Output output = task("2025-01-12T00:00:00Z").run(runContext);
+
+        assertThat(output.getSize(), is(2L));
+        assertThat(
+            rows(runContext, output).stream().map(row -> row.get("commentId")).toList(),
+            contains("17858893269000012", "17858893269000002")
+        );
+    }
+
+    @Test
+    void keepCommentsOfTheSinceSecond() throws Exception {
+        RunContext runContext = runContextFactory.of();
+
+        // the lastCommentTime of a previous run
+        ListComments.Output output = task("2025-01-16T07:45:00Z").run(runContext);
+
+        assertThat(
+            rows(runContext, output).stream().map(row -> row.get("commentId")).toList(),
+            contains("17858893269000002")
+        );
+    }
+
+    private ListComments task(String since) {
+        return ListComments.builder()
+            .host(Property.ofValue(embeddedServer.getURL().toString()))
+            .igId(Property.ofValue("mock-ig-id"))
+            .accessToken(Property.ofValue("mock-access-token"))
+            .mediaIds(Property.ofValue(java.util.List.of("17954170374002653")))
+            .since(since == null ? null : Property.ofValue(since))
+            .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static java.util.List<Map<String, Object>> rows(RunContext runContext, ListComments.Output output) throws Exception {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(runContext.storage().getFile(output.getUri())))) {
+            return FileSerde.readAll(reader).map(row -> (Map<String, Object>) row).collectList().block();
+        }
+    }
+}
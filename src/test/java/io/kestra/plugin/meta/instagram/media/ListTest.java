@@ -1,5 +1,6 @@
 package io.kestra.plugin.meta.instagram.media;
 
+import java.util.Map;
 import java.util.concurrent.TimeoutException;
 
 import org.junit.jupiter.api.Test;
@@ -67,4 +68,39 @@ class ListTest extends AbstractInstagramTest {
         assertThat(output.getRows(), notNullValue());
         assertThat(output.getSize(), greaterThan(0L));
     }
-}
\ No newline at end of file
+
+    @Test
+    void listMediaProjectsRequestedFields() throws Exception {
+        List task = List.builder()
+            .host(Property.ofValue(embeddedServer.getURL().toString()))
+            .igId(Property.ofValue("mock-ig-id"))
+            .accessToken(Property.ofValue("mock-access-token"))
+            .fields(Property.ofValue(java.util.List.of(MediaField.ID, MediaField.LIKE_COUNT, MediaField.THUMBNAIL_URL, MediaField.CHILDREN)))
+            .childrenFields(Property.ofValue(java.util.List.of(MediaField.MEDIA_URL)))
+            .build();
+
+        List.Output output = task.run(runContextFactory.of());
+
+        Map<String, Object> image = output.getRows().getFirst();
+        assertThat(image.keySet(), contains("id", "likeCount", "thumbnailUrl", "children"));
+        assertThat(image.get("likeCount"), is(12L));
+        assertThat(image.get("thumbnailUrl"), nullValue());
+
+        Map<String, Object> carousel = output.getRows().get(1);
+        assertThat(carousel.get("children"), is(java.util.List.of(
+            Map.of("mediaUrl", "https://example.com/child1.jpg"),
+            Map.of("mediaUrl", "https://example.com/child2.jpg")
+        )));
+    }
+
+    @Test
+    void requestOnlyProjectedFields() {
+        MediaProjection projection = new MediaProjection(
+            java.util.List.of(MediaField.ID, MediaField.COMMENTS_COUNT, MediaField.CHILDREN),
+            java.util.List.of(MediaField.ID, MediaField.MEDIA_URL, MediaField.CHILDREN)
+        );
+
+        assertThat(projection.fieldsParam(), is("id,comments_count,children{id,media_url}"));
+        assertThat(MediaProjection.key(MediaField.IS_SHARED_TO_FEED), is("isSharedToFeed"));
+    }
+}
@@ -0,0 +1,131 @@
+package io.kestra.plugin.meta.instagram.media;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.utils.IdUtils;
+import io.kestra.core.utils.TestsUtils;
+import io.kestra.plugin.meta.KvQueue;
+import io.kestra.plugin.meta.MetaKv;
+import io.kestra.plugin.meta.instagram.AbstractInstagramTest;
+import io.kestra.plugin.meta.instagram.MockInstagramApiServer;
+import io.kestra.plugin.meta.instagram.enums.VideoType;
+
+import jakarta.inject.Inject;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@KestraTest
+class PublishQueueTest extends AbstractInstagramTest {
+
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @Test
+    void publishWithinQuotaAndDrainLater() throws Exception {
+        String igId = "queue-" + IdUtils.create();
+        MockInstagramApiServer.PUBLISHING_USAGE.put(igId, new AtomicInteger(MockInstagramApiServer.QUOTA_TOTAL - 2));
+
+        PublishQueue enqueue = task(igId, List.of(
+            PublishQueue.Post.builder().imageUrl("https://example.com/1.jpg").caption("First").build(),
+            PublishQueue.Post.builder().videoUrl("https://example.com/2.mp4").videoType(VideoType.REELS).build(),
+            PublishQueue.Post.builder().mediaUrls(List.of("https://example.com/3a.jpg", "https://example.com/3b.mp4")).build()
+        ));
+
+        PublishQueue.Output first = enqueue.run(TestsUtils.mockRunContext(runContextFactory, enqueue, Map.of()));
+
+        assertThat(first.getMediaIds(), hasSize(2));
+        assertThat(first.getPending(), is(1));
+        assertThat(first.getQuotaRemaining(), is(0));
+        // no container is created for the post that does not fit in the quota
+        assertThat(first.getContainersCreated(), is(2));
+        assertThat(MockInstagramApiServer.CONTAINERS_CREATED.get(igId).get(), is(2));
+
+        // the rolling window moved on
+        MockInstagramApiServer.PUBLISHING_USAGE.get(igId).set(0);
+
+        PublishQueue drain = task(igId, null);
+        PublishQueue.Output second = drain.run(TestsUtils.mockRunContext(runContextFactory, drain, Map.of()));
+
+        assertThat(second.getMediaIds(), hasSize(1));
+        assertThat(second.getPending(), is(0));
+        assertThat(second.getQuotaRemaining(), is(MockInstagramApiServer.QUOTA_TOTAL - 1));
+        // two child containers and the carousel container
+        assertThat(MockInstagramApiServer.CONTAINERS_CREATED.get(igId).get(), is(5));
+    }
+
+    @Test
+    void skipPostsClaimedByAnotherRun() throws Exception {
+        String igId = "queue-" + IdUtils.create();
+        MockInstagramApiServer.PUBLISHING_USAGE.put(igId, new AtomicInteger(MockInstagramApiServer.QUOTA_TOTAL));
+
+        PublishQueue enqueue = task(igId, List.of(
+            PublishQueue.Post.builder().imageUrl("https://example.com/1.jpg").build(),
+            PublishQueue.Post.builder().imageUrl("https://example.com/2.jpg").build()
+        ));
+        RunContext runContext = TestsUtils.mockRunContext(runContextFactory, enqueue, Map.of());
+
+        assertThat(enqueue.run(runContext).getPending(), is(2));
+
+        // another run is publishing the oldest post
+        List<String> keys = KvQueue.keys(runContext, MetaKv.key("meta_publish", igId, "default"));
+        assertThat(KvQueue.claim(runContext, keys.getFirst(), Duration.ofMinutes(5)).isPresent(), is(true));
+
+        MockInstagramApiServer.PUBLISHING_USAGE.get(igId).set(0);
+
+        PublishQueue drain = task(igId, null);
+        PublishQueue.Output output = drain.run(TestsUtils.mockRunContext(runContextFactory, drain, Map.of()));
+
+        assertThat(output.getMediaIds(), hasSize(1));
+        assertThat(output.getPending(), is(1));
+        assertThat(MockInstagramApiServer.CONTAINERS_CREATED.get(igId).get(), is(1));
+        assertThat(KvQueue.keys(runContext, MetaKv.key("meta_publish", igId, "default")), contains(keys.getFirst()));
+    }
+
+    @Test
+    void keepPostsQueuedWhenTheQuotaIsUsedUpBeforePublishing() throws Exception {
+        String igId = "contended-" + IdUtils.create();
+        MockInstagramApiServer.PUBLISHING_USAGE.put(igId, new AtomicInteger(0));
+
+        PublishQueue enqueue = task(igId, List.of(
+            PublishQueue.Post.builder().imageUrl("https://example.com/1.jpg").build(),
+            PublishQueue.Post.builder().imageUrl("https://example.com/2.jpg").build()
+        ));
+        RunContext runContext = TestsUtils.mockRunContext(runContextFactory, enqueue, Map.of());
+        PublishQueue.Output output = enqueue.run(runContext);
+
+        assertThat(output.getMediaIds(), empty());
+        assertThat(output.getPending(), is(2));
+        assertThat(output.getFailed(), is(0));
+        assertThat(output.getQuotaRemaining(), is(0));
+
+        // a publishing limit is not an attempt, and nothing went to the dead-letter queue
+        for (String key : KvQueue.keys(runContext, MetaKv.key("meta_publish", igId, "default"))) {
+            Map<String, Object> entry = KvQueue.get(runContext, key).orElseThrow();
+            assertThat(((Number) entry.get("attempts")).intValue(), is(0));
+            assertThat(entry.get("containerId"), is(notNullValue()));
+        }
+        assertThat(KvQueue.keys(runContext, MetaKv.key("meta_publish_deadletter", igId, "default")), empty());
+    }
+
+    private PublishQueue task(String igId, List<PublishQueue.Post> posts) {
+        return PublishQueue.builder()
+            .id("publish")
+            .type(PublishQueue.class.getName())
+            .host(Property.ofValue(embeddedServer.getURL().toString()))
+            .igId(Property.ofValue(igId))
+            .accessToken(Property.ofValue("mock-access-token"))
+            .posts(posts != null ? Property.ofValue(posts) : null)
+            .pollInterval(Property.ofValue(Duration.ofMillis(10)))
+            .build();
+    }
+}
@@ -0,0 +1,115 @@
+package io.kestra.plugin.meta.instagram.stories;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.serializers.FileSerde;
+import io.kestra.core.utils.IdUtils;
+import io.kestra.core.utils.TestsUtils;
+import io.kestra.plugin.meta.instagram.AbstractInstagramTest;
+import io.kestra.plugin.meta.instagram.MockInstagramApiServer;
+
+import jakarta.inject.Inject;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@KestraTest
+class ArchiveTest extends AbstractInstagramTest {
+
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @Test
+    void archiveNewStoriesOnlyOnce() throws Exception {
+        MockInstagramApiServer.CDN_DOWNLOADS.clear();
+
+        Archive task = Archive.builder()
+            .id("archive")
+            .type(Archive.class.getName())
+            .host(Property.ofValue(embeddedServer.getURL().toString()))
+            .igId(Property.ofValue("stories-" + IdUtils.create()))
+            .accessToken(Property.ofValue("mock-access-token"))
+            .build();
+
+        RunContext runContext = TestsUtils.mockRunContext(runContextFactory, task, Map.of());
+        Archive.Output first = task.run(runContext);
+
+        assertThat(first.getSize(), is(2L));
+        assertThat(first.getArchived(), is(2));
+        assertThat(first.getFinalized(), is(1));
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(runContext.storage().getFile(first.getUri())))) {
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> rows = FileSerde.readAll(reader).map(row -> (Map<String, Object>) row).collectList().block();
+
+            assertThat(rows.getFirst().get("storyId"), is("story-expiring"));
+            assertThat(rows.getFirst().get("finalInsights"), is(true));
+            assertThat(rows.getFirst().get("insights"), is(notNullValue()));
+            assertThat(rows.get(1).get("finalInsights"), is(false));
+            assertThat(rows.get(1).get("thumbnailUri"), is(notNullValue()));
+
+            try (InputStream media = runContext.storage().getFile(URI.create((String) rows.getFirst().get("mediaUri")))) {
+                assertThat(media.readAllBytes(), is(MockInstagramApiServer.cdnContent("story-expiring.jpg")));
+            }
+        }
+
+        Archive.Output second = task.run(TestsUtils.mockRunContext(runContextFactory, task, Map.of()));
+
+        assertThat(second.getSize(), is(0L));
+        assertThat(second.getArchived(), is(0));
+        assertThat(MockInstagramApiServer.CDN_DOWNLOADS.get("story-expiring.jpg").get(), is(1));
+        assertThat(MockInstagramApiServer.CDN_DOWNLOADS.get("story-fresh.mp4").get(), is(1));
+    }
+
+    @Test
+    void retryStoriesThatFailed() throws Exception {
+        MockInstagramApiServer.CDN_DOWNLOADS.clear();
+
+        Archive task = Archive.builder()
+            .id("archive")
+            .type(Archive.class.getName())
+            .host(Property.ofValue(embeddedServer.getURL().toString()))
+            .igId(Property.ofValue("failing-" + IdUtils.create()))
+            .accessToken(Property.ofValue("mock-access-token"))
+            .build();
+
+        RunContext runContext = TestsUtils.mockRunContext(runContextFactory, task, Map.of());
+        Archive.Output first = task.run(runContext);
+
+        assertThat(first.getSize(), is(4L));
+        assertThat(first.getArchived(), is(3));
+        assertThat(first.getErrors(), is(1));
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(runContext.storage().getFile(first.getUri())))) {
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> rows = FileSerde.readAll(reader).map(row -> (Map<String, Object>) row).collectList().block();
+
+            assertThat(rows.get(2).get("storyId"), is("story-few-viewers"));
+            assertThat(rows.get(2).get("mediaUri"), is(notNullValue()));
+            assertThat(rows.get(2).get("insights"), is(nullValue()));
+            assertThat(rows.get(2).get("error"), is(nullValue()));
+            assertThat(rows.get(3).get("storyId"), is("story-gone"));
+            assertThat(rows.get(3).get("mediaUri"), is(nullValue()));
+            assertThat(rows.get(3).get("error"), is(notNullValue()));
+        }
+
+        Archive.Output second = task.run(TestsUtils.mockRunContext(runContextFactory, task, Map.of()));
+
+        assertThat(second.getSize(), is(1L));
+        assertThat(second.getArchived(), is(0));
+        assertThat(second.getErrors(), is(1));
+        assertThat(MockInstagramApiServer.CDN_DOWNLOADS.get("gone-story.jpg").get(), is(2));
+        assertThat(MockInstagramApiServer.CDN_DOWNLOADS.get("story-few-viewers.jpg").get(), is(1));
+    }
+}
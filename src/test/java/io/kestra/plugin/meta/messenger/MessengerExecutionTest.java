@@ -70,4 +70,18 @@ public class MessengerExecutionTest extends AbstractMetaTest {
         assertThat(receivedData, containsString("Status: SUCCESS"));
         assertThat(receivedData, containsString("\"recipient\":{\"id\":\"24745216345137108\"}"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void flow_recipientsFromFile() throws Exception {
+        var execution = runAndCaptureExecution(
+            "main-flow-for-broadcast",
+            "messenger-recipients-file"
+        );
+
+        String receivedData = waitForWebhookData(() -> FakeWebhookController.data, 5000);
+
+        assertThat(receivedData, containsString(execution.getId()));
+        assertThat(receivedData, containsString("Broadcast notification"));
+        assertThat(receivedData, containsString("\"recipient\":{\"id\":\"24745216345137109\"}"));
+    }
+}
@@ -0,0 +1,125 @@
+package io.kestra.plugin.meta.outbox;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.utils.IdUtils;
+import io.kestra.core.utils.TestsUtils;
+import io.kestra.plugin.meta.AbstractMetaConnection;
+import io.kestra.plugin.meta.AbstractMetaTest;
+import io.kestra.plugin.meta.FakeWebhookController;
+import io.kestra.plugin.meta.NotificationOutbox;
+import io.kestra.plugin.meta.whatsapp.WhatsAppIncomingWebhook;
+
+import jakarta.inject.Inject;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+
+@KestraTest
+class DrainTest extends AbstractMetaTest {
+
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @Test
+    void queueThenDrain() throws Exception {
+        String queue = "alerts-" + IdUtils.create();
+
+        WhatsAppIncomingWebhook notification = WhatsAppIncomingWebhook.builder()
+            .id("notify")
+            .type(WhatsAppIncomingWebhook.class.getName())
+            .url(embeddedServer.getURI() + "/webhook-unit-test")
+            .payload(Property.ofValue("{\"text\": \"queued alert\"}"))
+            .outbox(Property.ofValue(queue))
+            .build();
+        notification.run(TestsUtils.mockRunContext(runContextFactory, notification, Map.of()));
+
+        assertThat(FakeWebhookController.data, nullValue());
+
+        Drain drain = Drain.builder()
+            .id("drain")
+            .type(Drain.class.getName())
+            .queue(Property.ofValue(queue))
+            .build();
+        RunContext runContext = TestsUtils.mockRunContext(runContextFactory, drain, Map.of());
+
+        Drain.Output output = drain.run(runContext);
+
+        assertThat(output.getSent(), is(1));
+        assertThat(output.getRemaining(), is(0));
+        assertThat(FakeWebhookController.data, containsString("queued alert"));
+
+        assertThat(drain.run(runContext).getSent(), is(0));
+    }
+
+    @Test
+    void skippedEntriesDoNotHideLaterOnes() throws Exception {
+        String queue = "alerts-" + IdUtils.create();
+
+        Drain drain = Drain.builder()
+            .id("drain")
+            .type(Drain.class.getName())
+            .queue(Property.ofValue(queue))
+            .batchSize(Property.ofValue(1))
+            .build();
+        RunContext runContext = TestsUtils.mockRunContext(runContextFactory, drain, Map.of());
+
+        String uri = embeddedServer.getURI() + "/webhook-unit-test";
+        // needs an access token the drain does not have
+        NotificationOutbox.enqueue(runContext, queue, uri, null, "{\"text\": \"needs a token\"}", Map.of("Content-Type", "application/json"), true);
+        String claimed = NotificationOutbox.enqueue(runContext, queue, uri, null, "{\"text\": \"claimed\"}", Map.of("Content-Type", "application/json"), false);
+        NotificationOutbox.enqueue(runContext, queue, uri, null, "{\"text\": \"last alert\"}", Map.of("Content-Type", "application/json"), false);
+
+        // another run is delivering it
+        NotificationOutbox.claim(runContext, claimed);
+
+        Drain.Output output = drain.run(runContext);
+
+        assertThat(output.getSent(), is(1));
+        assertThat(output.getRemaining(), is(2));
+        assertThat(FakeWebhookController.data, containsString("last alert"));
+        List<String> remaining = NotificationOutbox.keys(runContext, queue);
+        assertThat(remaining, hasSize(2));
+        assertThat(remaining.get(1), is(claimed));
+    }
+
+    @Test
+    void headersAreAddedAtDeliveryTime() throws Exception {
+        String queue = "alerts-" + IdUtils.create();
+
+        WhatsAppIncomingWebhook notification = WhatsAppIncomingWebhook.builder()
+            .id("notify")
+            .type(WhatsAppIncomingWebhook.class.getName())
+            .url(embeddedServer.getURI() + "/webhook-unit-test/with-headers")
+            .payload(Property.ofValue("{\"text\": \"queued alert\"}"))
+            .options(AbstractMetaConnection.RequestOptions.builder().headers(Property.ofValue(Map.of("X-Api-Key", "notification-secret"))).build())
+            .outbox(Property.ofValue(queue))
+            .build();
+        RunContext notificationContext = TestsUtils.mockRunContext(runContextFactory, notification, Map.of());
+        notification.run(notificationContext);
+
+        Map<String, Object> entry = NotificationOutbox.get(notificationContext, NotificationOutbox.keys(notificationContext, queue).getFirst()).orElseThrow();
+        assertThat(entry.toString(), not(containsString("notification-secret")));
+
+        Drain drain = Drain.builder()
+            .id("drain")
+            .type(Drain.class.getName())
+            .queue(Property.ofValue(queue))
+            .headers(Property.ofValue(Map.of("X-Api-Key", "drain-secret")))
+            .build();
+
+        assertThat(drain.run(TestsUtils.mockRunContext(runContextFactory, drain, Map.of())).getSent(), is(1));
+        assertThat(FakeWebhookController.headers.values().toString(), containsString("drain-secret"));
+    }
+}
@@ -0,0 +1,65 @@
+package io.kestra.plugin.meta.whatsapp;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.utils.IdUtils;
+import io.kestra.core.utils.TestsUtils;
+import io.kestra.plugin.meta.AbstractMetaTest;
+import io.kestra.plugin.meta.FakeWebhookController;
+
+import jakarta.inject.Inject;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+
+@KestraTest
+class WhatsAppMediaMessageTest extends AbstractMetaTest {
+
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @Test
+    void uploadOnceThenReuseMediaId() throws Exception {
+        String phoneNumberId = IdUtils.create();
+        int uploadsBefore = FakeWebhookController.mediaUploads.get();
+
+        for (int i = 0; i < 2; i++) {
+            RunContext runContext = TestsUtils.mockRunContext(runContextFactory, task(phoneNumberId, null), Map.of());
+
+            Path path = runContext.workingDir().createFile("report.pdf");
+            Files.writeString(path, "quarterly numbers");
+            URI report = runContext.storage().putFile(path.toFile());
+
+            task(phoneNumberId, report.toString()).run(runContext);
+        }
+
+        assertThat(FakeWebhookController.mediaUploads.get() - uploadsBefore, is(1));
+        assertThat(FakeWebhookController.data, containsString("\"type\":\"document\""));
+        assertThat(FakeWebhookController.data, containsString("\"filename\":"));
+        assertThat(FakeWebhookController.data, containsString("\"caption\":\"Daily report\""));
+    }
+
+    private WhatsAppMediaMessage task(String phoneNumberId, String media) {
+        return WhatsAppMediaMessage.builder()
+            .id("media")
+            .type(WhatsAppMediaMessage.class.getName())
+            .apiBaseUrl(Property.ofValue(embeddedServer.getURI() + "/webhook-unit-test"))
+            .phoneNumberId(Property.ofValue(phoneNumberId))
+            .accessToken(Property.ofValue("test_access_token"))
+            .recipients(Property.ofValue(List.of("380999999999")))
+            .media(media == null ? null : Property.ofValue(media))
+            .caption(Property.ofValue("Daily report"))
+            .build();
+    }
+}